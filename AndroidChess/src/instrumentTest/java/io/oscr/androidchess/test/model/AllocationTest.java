@@ -0,0 +1,145 @@
+package io.oscr.androidchess.test.model;
+
+import android.os.Debug;
+
+import junit.framework.TestCase;
+
+import java.util.Set;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Counts the objects created by move generation, which runs often enough that garbage from it
+ * causes noticeable pauses. Uses the allocation counting in android.os.Debug.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class AllocationTest extends TestCase {
+
+    /*
+     * Generates and validates every move in the start position. The only objects that may be
+     * created are the sets returned by getLegalMoves.
+     */
+    public void test_startPositionMoveGenerationOnlyAllocatesResult() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. A first run loads and initializes all classes involved.
+            IChessBoard board = type.create();
+            MoveUndo undo = new MoveUndo();
+            generateAll(board, undo);
+
+            // Act
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+            int results = generateAll(board, undo);
+            int allocations = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+
+            // Assert
+            assertEquals(20, countLegal(board, undo));
+            assertEquals(type.toString(), results, allocations);
+        }
+    }
+
+    public void test_packedMoveGenerationAllocatesNothing() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. A first run loads and initializes all classes involved.
+            IChessBoard board = type.create();
+            MoveUndo undo = new MoveUndo();
+            MoveList moves = new MoveList();
+            MovementRules.generateLegalMoves(board, moves, undo);
+
+            // Act
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+            MovementRules.generateLegalMoves(board, moves, undo);
+            int allocations = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+
+            // Assert
+            assertEquals(20, moves.size());
+            assertEquals(type.toString(), 0, allocations);
+        }
+    }
+
+    public void test_boardPositionLookupAllocatesNothing() throws Exception {
+        // Arrange. A first run loads and initializes all classes involved.
+        lookupAll();
+
+        // Act
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        lookupAll();
+        int allocations = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+
+        // Assert
+        assertEquals(0, allocations);
+    }
+
+    /*
+     * Helper method.
+     *
+     * Looks up every BoardPosition by file and rank and a few by name.
+     */
+    private void lookupAll() {
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                BoardPosition.of(file, rank);
+            }
+        }
+        BoardPosition.of("a1");
+        BoardPosition.of("H8");
+    }
+
+    /*
+     * Helper method.
+     *
+     * Generates the moves for every piece of the side to move and checks every move for
+     * legality. The moves are looked up square by square so that no iterator is created.
+     * Gives the number of getLegalMoves calls.
+     */
+    private int generateAll(IChessBoard board, MoveUndo undo) {
+        PieceColor color = board.getTurn();
+        int calls = 0;
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            BoardPosition from = board.getPiecePosition(color, i);
+            Set<BoardPosition> moves = MovementRules.getLegalMoves(from, board);
+            calls++;
+            for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+                for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                    BoardPosition to = BoardPosition.of(file, rank);
+                    if (moves.contains(to)) {
+                        MovementRules.isLegalMove(board, from, to, undo);
+                    }
+                }
+            }
+        }
+        return calls;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Counts the legal moves of the side to move.
+     */
+    private int countLegal(IChessBoard board, MoveUndo undo) {
+        PieceColor color = board.getTurn();
+        int legal = 0;
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            BoardPosition from = board.getPiecePosition(color, i);
+            for (BoardPosition to : MovementRules.getLegalMoves(from, board)) {
+                if (MovementRules.isLegalMove(board, from, to, undo)) {
+                    legal++;
+                }
+            }
+        }
+        return legal;
+    }
+}
@@ -0,0 +1,169 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.oscr.androidchess.model.BitboardChessBoard;
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.ChessBoard;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Testing that BitboardChessBoard behaves exactly like ChessBoard.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class BitboardChessBoardTest extends TestCase {
+    private static final int GAMES = 20;
+    private static final int MAX_MOVES = 150;
+
+    public void test_boardTypeCreatesSelectedImplementation() throws Exception {
+        assertTrue(BoardType.ARRAY.create() instanceof ChessBoard);
+        assertTrue(BoardType.BITBOARD.create() instanceof BitboardChessBoard);
+    }
+
+    public void test_startPositionHasSamePieces() throws Exception {
+        // Arrange
+        IChessBoard array = new ChessBoard();
+        IChessBoard bitboard = new BitboardChessBoard();
+
+        // Assert
+        assertSameBoard(array, bitboard);
+    }
+
+    public void test_copyIsIndependent() throws Exception {
+        // Arrange
+        IChessBoard board = new BitboardChessBoard();
+        IChessBoard copy = BoardType.BITBOARD.copy(board);
+
+        // Act
+        copy.move(BoardPosition.of("E2"), BoardPosition.of("E4"));
+
+        // Assert
+        assertNotNull(board.getChessPiece(BoardPosition.of("E2")));
+        assertNull(copy.getChessPiece(BoardPosition.of("E2")));
+        assertNotNull(copy.getChessPiece(BoardPosition.of("E4")));
+    }
+
+    /*
+     * Plays a number of random games on both implementations and compares the moves given
+     * by MovementRules for every square after each move.
+     */
+    public void test_randomGamesGiveIdenticalLegalMoves() throws Exception {
+        Random random = new Random(42);
+        for (int game = 0; game < GAMES; game++) {
+            // Arrange
+            IChessBoard array = new ChessBoard();
+            IChessBoard bitboard = new BitboardChessBoard();
+
+            for (int ply = 0; ply < MAX_MOVES; ply++) {
+                // Assert
+                assertSameBoard(array, bitboard);
+                List<BoardPosition[]> moves = assertSameLegalMoves(array, bitboard);
+                if (moves.isEmpty()) {
+                    break;
+                }
+
+                // Act
+                BoardPosition[] move = moves.get(random.nextInt(moves.size()));
+                if (array.getChessPiece(move[1]) != null
+                        && array.getChessPiece(move[1]).getPieceType() == PieceType.KING) {
+                    break;
+                }
+                play(array, move[0], move[1]);
+                play(bitboard, move[0], move[1]);
+            }
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Compares the legal moves for every square and returns the moves for the side to move.
+     */
+    private List<BoardPosition[]> assertSameLegalMoves(IChessBoard array, IChessBoard bitboard) {
+        List<BoardPosition[]> moves = new ArrayList<BoardPosition[]>();
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                IChessPiece piece = array.getChessPiece(file, rank);
+                if (piece != null) {
+                    BoardPosition from = BoardPosition.of(file, rank);
+                    assertEquals(MovementRules.getLegalMoves(from, array), MovementRules.getLegalMoves(from, bitboard));
+
+                    if (piece.getPieceColor() == array.getTurn()) {
+                        for (BoardPosition to : MovementRules.getLegalMoves(from, array)) {
+                            moves.add(new BoardPosition[]{from, to});
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Checks that both boards have the same pieces and state.
+     */
+    private void assertSameBoard(IChessBoard expected, IChessBoard actual) {
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                IChessPiece p1 = expected.getChessPiece(file, rank);
+                IChessPiece p2 = actual.getChessPiece(file, rank);
+                assertEquals(expected.isEmpty(file, rank), actual.isEmpty(file, rank));
+                if (p1 == null) {
+                    assertNull(p2);
+                } else {
+                    assertTrue(p1.getPieceColor() == p2.getPieceColor());
+                    assertTrue(p1.getPieceType() == p2.getPieceType());
+                }
+            }
+        }
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getEnPassant(), actual.getEnPassant());
+        assertEquals(expected.getEnPassantPawn(), actual.getEnPassantPawn());
+    }
+
+    /*
+     * Helper method.
+     *
+     * Performs a move the same way as ChessModel, including en passant, castling and promotion.
+     */
+    private void play(IChessBoard board, BoardPosition from, BoardPosition to) {
+        IChessPiece piece = board.getChessPiece(from);
+        BoardPosition enPassant = null;
+        BoardPosition enPassantPawn = null;
+
+        if (piece.getPieceType() == PieceType.PAWN) {
+            if (Math.abs(from.getRank() - to.getRank()) == 2) {
+                enPassant = BoardPosition.of(from.getFile(), (from.getRank() + to.getRank()) / 2);
+                enPassantPawn = to;
+            } else if (to.equals(board.getEnPassant())) {
+                board.removeEnPassantPawn();
+            }
+        } else if (piece.getPieceType() == PieceType.KING && Math.abs(from.getFile() - to.getFile()) == 2) {
+            int rookFile = to.getFile() > from.getFile() ? Constants.BOARD_MAX_POSITION : Constants.BOARD_MIN_POSITION;
+            int rookEnd = (from.getFile() + to.getFile()) / 2;
+            board.move(BoardPosition.of(rookFile, from.getRank()), BoardPosition.of(rookEnd, from.getRank()));
+        }
+
+        board.move(from, to);
+        board.setKingMoved(to);
+        board.setEnPassant(enPassant, enPassantPawn);
+        if (piece.getPieceType() == PieceType.PAWN
+                && (to.getRank() == Constants.WHITE_PAWN_LAST_RANK || to.getRank() == Constants.BLACK_PAWN_LAST_RANK)) {
+            board.setPromotion(new ChessPiece(piece.getPieceColor(), PieceType.KNIGHT), to);
+        }
+        board.switchTurn();
+    }
+}
@@ -0,0 +1,58 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardPositionSet;
+
+/**
+ * Testing the BoardPositionSet class according to the specification and guarantees provided by it.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class BoardPositionSetTest extends TestCase {
+
+    public void test_behavesLikeHashSet() throws Exception {
+        // Arrange
+        Set<BoardPosition> set = new BoardPositionSet();
+        Set<BoardPosition> expected = new HashSet<BoardPosition>();
+
+        // Act
+        for (String position : new String[]{"A1", "H8", "E4", "A1", "D5"}) {
+            assertEquals(expected.add(BoardPosition.of(position)), set.add(BoardPosition.of(position)));
+        }
+        assertEquals(expected.remove(BoardPosition.of("E4")), set.remove(BoardPosition.of("E4")));
+        assertEquals(expected.remove(BoardPosition.of("E4")), set.remove(BoardPosition.of("E4")));
+
+        // Assert
+        assertEquals(expected, set);
+        assertEquals(set, expected);
+        assertEquals(expected.hashCode(), set.hashCode());
+        assertEquals(3, set.size());
+        assertFalse(set.contains("A1"));
+    }
+
+    public void test_iteratesInRankThenFileOrder() throws Exception {
+        // Arrange
+        Set<BoardPosition> set = new BoardPositionSet();
+        set.add(BoardPosition.of("H8"));
+        set.add(BoardPosition.of("B1"));
+        set.add(BoardPosition.of("A2"));
+
+        // Act
+        Iterator<BoardPosition> iterator = set.iterator();
+
+        // Assert
+        assertSame(BoardPosition.of("B1"), iterator.next());
+        assertSame(BoardPosition.of("A2"), iterator.next());
+        iterator.remove();
+        assertSame(BoardPosition.of("H8"), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertFalse(set.contains(BoardPosition.of("A2")));
+        assertEquals(2, set.size());
+    }
+}
@@ -2,6 +2,11 @@ package io.oscr.androidchess.test.model;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import io.oscr.androidchess.model.BoardPosition;
 
 /**
@@ -16,7 +21,7 @@ public class BoardPositionTest extends TestCase {
      */
     public void test_createNormalPosition() throws Exception {
         String position = "E2";
-        BoardPosition e2 = new BoardPosition(position);
+        BoardPosition e2 = BoardPosition.of(position);
         assertNotNull(e2);
         assertTrue(e2.toString().equals("E2"));
     }
@@ -24,7 +29,7 @@ public class BoardPositionTest extends TestCase {
     public void test_nullArgumentGivesException() throws Exception {
         try {
             // Act
-            new BoardPosition(null);
+            BoardPosition.of(null);
 
             // Assert
             fail("Move constructor should have thrown exception for null argument");
@@ -42,7 +47,7 @@ public class BoardPositionTest extends TestCase {
             String position = "E";
 
             // Act
-            new BoardPosition(position);
+            BoardPosition.of(position);
 
             // Assert
             fail("Move constructor should have thrown IllegalArgumentException");
@@ -60,7 +65,7 @@ public class BoardPositionTest extends TestCase {
             String position = "E33";
 
             // Act
-            new BoardPosition(position);
+            BoardPosition.of(position);
 
             // Assert
             fail("Move constructor should have thrown exception for argument");
@@ -78,7 +83,7 @@ public class BoardPositionTest extends TestCase {
             String position ="E9";
 
             // Act
-            new BoardPosition(position);
+            BoardPosition.of(position);
 
             // Assert
             fail("Move constructor should have thrown exception for argument");
@@ -94,8 +99,8 @@ public class BoardPositionTest extends TestCase {
     public void test_toStringEqualsOriginalPosition() throws Exception {
         // Arrange
         String position = "E2";
-        BoardPosition e2 = new BoardPosition(position);
-        BoardPosition e2_copy = new BoardPosition(e2.toString());
+        BoardPosition e2 = BoardPosition.of(position);
+        BoardPosition e2_copy = BoardPosition.of(e2.toString());
 
         // Assert
         assertNotNull(e2);
@@ -106,13 +111,61 @@ public class BoardPositionTest extends TestCase {
     public void test_samePositionEqualsIsTrue() throws Exception {
         // Arrange
         String position = "E2";
-        BoardPosition e2 = new BoardPosition(position);
-        BoardPosition e2_copy = new BoardPosition(position);
+        BoardPosition e2 = BoardPosition.of(position);
+        BoardPosition e2_copy = BoardPosition.of(position);
 
         // Assert
         assertNotNull(e2);
         assertNotNull(e2_copy);
         assertEquals(e2, e2_copy);
-        assertFalse(e2 == e2_copy);
+        assertSame(e2, e2_copy);
+    }
+
+    public void test_fileAndRankGivesSameInstanceAsString() throws Exception {
+        for (int file = 0; file < 8; file++) {
+            for (int rank = 0; rank < 8; rank++) {
+                // Act
+                BoardPosition position = BoardPosition.of(file, rank);
+
+                // Assert
+                assertSame(position, BoardPosition.of(position.toString()));
+                assertEquals(file, position.getFile());
+                assertEquals(rank, position.getRank());
+            }
+        }
+    }
+
+    public void test_deserializedPositionIsSameInstance() throws Exception {
+        // Arrange
+        BoardPosition e2 = BoardPosition.of("E2");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(e2);
+        out.close();
+
+        // Act
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Object read = in.readObject();
+
+        // Assert
+        assertSame(e2, read);
+    }
+
+    public void test_isOnBoardMatchesOf() throws Exception {
+        for (int file = -2; file <= 9; file++) {
+            for (int rank = -2; rank <= 9; rank++) {
+                // Arrange
+                boolean constructed;
+                try {
+                    BoardPosition.of(file, rank);
+                    constructed = true;
+                } catch (IllegalArgumentException iae) {
+                    constructed = false;
+                }
+
+                // Assert
+                assertEquals(constructed, BoardPosition.isOnBoard(file, rank));
+            }
+        }
     }
 }
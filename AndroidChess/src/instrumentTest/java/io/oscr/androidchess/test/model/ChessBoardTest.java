@@ -47,7 +47,7 @@ public class ChessBoardTest extends TestCase {
     }
 
     public void test_getWhiteKingProp() throws Exception {
-        IChessPiece piece = board.getChessPiece(new BoardPosition("E1"));
+        IChessPiece piece = board.getChessPiece(BoardPosition.of("E1"));
         assertFalse(piece == null);
         assertTrue(piece.getPieceColor() == PieceColor.WHITE);
         assertTrue(piece.getPieceType() == PieceType.KING);
@@ -62,7 +62,7 @@ public class ChessBoardTest extends TestCase {
         // White pieces start area
         for (int rank = 1; rank <= 2; rank++) {
             for (String file : FILES) {
-                BoardPosition position = new BoardPosition(file + rank);
+                BoardPosition position = BoardPosition.of(file + rank);
                 assertFalse(board.isEmpty(position));
 
                 IChessPiece piece = board.getChessPiece(position);
@@ -74,7 +74,7 @@ public class ChessBoardTest extends TestCase {
         // Empty start area
         for (int rank = 3; rank <= 6; rank++) {
             for (String file : FILES) {
-                BoardPosition position = new BoardPosition(file + rank);
+                BoardPosition position = BoardPosition.of(file + rank);
                 assertTrue(board.isEmpty(position));
 
                 IChessPiece piece = board.getChessPiece(position);
@@ -85,7 +85,7 @@ public class ChessBoardTest extends TestCase {
         // Black pieces start area
         for (int rank = 7; rank <= 8; rank++) {
             for (String file : FILES) {
-                BoardPosition position = new BoardPosition(file + rank);
+                BoardPosition position = BoardPosition.of(file + rank);
                 assertFalse(board.isEmpty(position));
 
                 IChessPiece piece = board.getChessPiece(position);
@@ -120,7 +120,7 @@ public class ChessBoardTest extends TestCase {
         for(int rank = 0; rank < Constants.BOARD_MAX_POSITION; rank++){
             for(int file = 0; file < Constants.BOARD_MAX_POSITION; file++){
                 IChessPiece p1 = board.getChessPiece(file, rank);
-                IChessPiece p2 = board.getChessPiece(new BoardPosition(FILES[file] + (rank+1)));
+                IChessPiece p2 = board.getChessPiece(BoardPosition.of(FILES[file] + (rank+1)));
 
                 if(p1 == null){
                     assertTrue(p2 == null);
@@ -147,7 +147,7 @@ public class ChessBoardTest extends TestCase {
         int count = 0;
         for(int rank = 1; rank <= 8; rank++){
             for (String file: FILES){
-                IChessPiece piece = board.getChessPiece(new BoardPosition(file + rank));
+                IChessPiece piece = board.getChessPiece(BoardPosition.of(file + rank));
                 if(piece != null && piece.getPieceColor() == COLOR){
                     count++;
                 }
@@ -167,7 +167,7 @@ public class ChessBoardTest extends TestCase {
         int count = 0;
         for(int rank = 1; rank <= 8; rank++){
             for (String file: FILES){
-                IChessPiece piece = board.getChessPiece(new BoardPosition(file + rank));
+                IChessPiece piece = board.getChessPiece(BoardPosition.of(file + rank));
                 if(piece != null
                         && piece.getPieceColor() == COLOR
                         && piece.getPieceType() == TYPE){
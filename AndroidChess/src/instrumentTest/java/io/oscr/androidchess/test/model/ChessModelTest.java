@@ -0,0 +1,270 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.ChessModel;
+import io.oscr.androidchess.model.GameStatus;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.search.Engine;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.TranspositionTable;
+import io.oscr.androidchess.model.theme.IChessTheme;
+import io.oscr.androidchess.model.theme.NormalTheme;
+
+/**
+ * Testing the game rules enforced by ChessModel for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class ChessModelTest extends TestCase {
+
+    public void test_foolsMateIsCheckmate() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+
+            // Act
+            play(model, "F2", "F3", "E7", "E5", "G2", "G4", "D8", "H4");
+
+            // Assert
+            assertEquals("WHITE is checkmate!", model.getDisplayInformation());
+            assertEquals(GameStatus.CHECKMATE, model.getGameStatus());
+        }
+    }
+
+    public void test_stalemateIsDraw() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. Sam Loyd's ten move stalemate.
+            ChessModel model = new ChessModel(type);
+
+            // Act
+            play(model, "E2", "E3", "A7", "A5", "D1", "H5", "A8", "A6", "H5", "A5", "H7", "H5",
+                    "H2", "H4", "A6", "H6", "A5", "C7", "F7", "F6", "C7", "D7", "E8", "F7",
+                    "D7", "B7", "D8", "D3", "B7", "B8", "D3", "H7", "B8", "C8", "F7", "G6",
+                    "C8", "E6");
+
+            // Assert
+            assertEquals("Draw by stalemate!", model.getDisplayInformation());
+            assertEquals(GameStatus.STALEMATE, model.getGameStatus());
+        }
+    }
+
+    public void test_selectionHighlightsLegalTargets() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessTheme theme = new NormalTheme();
+            ChessModel model = new ChessModel(type, theme);
+
+            // Act
+            model.selectPosition(BoardPosition.of("G1"));
+
+            // Assert
+            assertSame(theme.getSelectedSquare(), model.getBoardColor(BoardPosition.of("G1")));
+            assertSame(theme.getLegalTargetSquare(), model.getBoardColor(BoardPosition.of("F3")));
+            assertSame(theme.getLegalTargetSquare(), model.getBoardColor(BoardPosition.of("H3")));
+            assertNotSame(theme.getLegalTargetSquare(), model.getBoardColor(BoardPosition.of("E2")));
+            assertNotSame(theme.getLegalTargetSquare(), model.getBoardColor(BoardPosition.of("G3")));
+        }
+    }
+
+    public void test_pieceWithoutLegalMoveIsNotSelected() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessTheme theme = new NormalTheme();
+            ChessModel model = new ChessModel(type, theme);
+
+            // Act
+            model.selectPosition(BoardPosition.of("A1"));
+            model.selectPosition(BoardPosition.of("E7"));
+            play(model, "E2", "E4");
+
+            // Assert
+            assertNotSame(theme.getSelectedSquare(), model.getBoardColor(BoardPosition.of("A1")));
+            assertEquals("wp", model.getPieceString(BoardPosition.of("E4")));
+        }
+    }
+
+    public void test_noMovesAfterGameIsOver() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+            play(model, "F2", "F3", "E7", "E5", "G2", "G4", "D8", "H4");
+
+            // Act
+            play(model, "A2", "A3");
+
+            // Assert
+            assertEquals("wp", model.getPieceString(BoardPosition.of("A2")));
+        }
+    }
+
+    public void test_checkThatCanBeBlockedIsCheck() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+
+            // Act
+            play(model, "E2", "E4", "F7", "F5", "D1", "H5");
+
+            // Assert
+            assertEquals("BLACK is check!", model.getDisplayInformation());
+            assertEquals(GameStatus.CHECK, model.getGameStatus());
+        }
+    }
+
+    public void test_castleClearsEnPassant() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. Black castles right after the two square move e2-e4.
+            ChessModel model = new ChessModel(type);
+            play(model, "D2", "D4", "G8", "F6", "G1", "F3", "G7", "G6", "C1", "F4", "F8", "G7",
+                    "E2", "E4", "E8", "G8");
+
+            // Act
+            play(model, "D4", "E3");
+
+            // Assert
+            assertEquals("wp", model.getPieceString(BoardPosition.of("D4")));
+            assertEquals("wp", model.getPieceString(BoardPosition.of("E4")));
+            assertNull(model.getPieceString(BoardPosition.of("E3")));
+        }
+    }
+
+    public void test_moveLeavingKingInCheckIsIgnored() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+            play(model, "E2", "E4", "F7", "F5", "D1", "H5");
+
+            // Act
+            play(model, "A7", "A6");
+
+            // Assert
+            assertEquals("bp", model.getPieceString(BoardPosition.of("A7")));
+            assertEquals("BLACK is check!", model.getDisplayInformation());
+        }
+    }
+
+    public void test_castleMovesKingAndRook() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+            play(model, "E2", "E4", "E7", "E5", "G1", "F3", "B8", "C6", "F1", "C4", "G8", "F6");
+
+            // Act
+            play(model, "E1", "G1");
+
+            // Assert
+            assertEquals("wk", model.getPieceString(BoardPosition.of("G1")));
+            assertEquals("wr", model.getPieceString(BoardPosition.of("F1")));
+            assertNull(model.getPieceString(BoardPosition.of("H1")));
+        }
+    }
+
+    public void test_castleAcrossAttackedSquareIsIgnored() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The black Bishop on A6 attacks F1.
+            ChessModel model = new ChessModel(type);
+            play(model, "E2", "E3", "B7", "B6", "G1", "F3", "C8", "A6", "G2", "G3", "H7", "H6", "F1", "G2", "H6", "H5");
+
+            // Act
+            play(model, "E1", "G1");
+
+            // Assert
+            assertEquals("wk", model.getPieceString(BoardPosition.of("E1")));
+            assertEquals("wr", model.getPieceString(BoardPosition.of("H1")));
+        }
+    }
+
+    public void test_threefoldRepetitionIsDraw() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The starting position comes for the second time.
+            ChessModel model = new ChessModel(type);
+            play(model, "G1", "F3", "G8", "F6", "F3", "G1", "F6", "G8");
+            String twice = model.getDisplayInformation();
+
+            // Act
+            play(model, "G1", "F3", "G8", "F6", "F3", "G1", "F6", "G8");
+
+            // Assert
+            assertEquals("Turn: WHITE", twice);
+            assertEquals("Draw by threefold repetition!", model.getDisplayInformation());
+            assertEquals(GameStatus.DRAW, model.getGameStatus());
+        }
+    }
+
+    public void test_pawnMoveStartsRepetitionCountOver() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            ChessModel model = new ChessModel(type);
+            play(model, "G1", "F3", "G8", "F6", "F3", "G1", "F6", "G8", "E2", "E4", "E7", "E5");
+
+            // Act. The position after the pawn moves only comes twice.
+            play(model, "G1", "F3", "G8", "F6", "F3", "G1", "F6", "G8");
+
+            // Assert
+            assertEquals("Turn: WHITE", model.getDisplayInformation());
+        }
+    }
+
+    public void test_computerOpponentAnswersMove() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The move is delivered on the engine thread, which counts down the latch.
+            final CountDownLatch delivered = new CountDownLatch(1);
+            ChessModel model = new ChessModel(type);
+            model.setEngine(new Engine(new TranspositionTable(1), SearchLimits.depth(2), new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    runnable.run();
+                    delivered.countDown();
+                }
+            }));
+            model.setComputerOpponent(PieceColor.BLACK);
+
+            // Act
+            play(model, "E2", "E4");
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+
+            // Assert
+            assertEquals("Turn: WHITE", model.getDisplayInformation());
+        }
+    }
+
+    public void test_playerCannotMoveForComputer() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The engine never delivers, so it stays black's turn.
+            ChessModel model = new ChessModel(type);
+            model.setEngine(new Engine(new TranspositionTable(1), SearchLimits.depth(1), new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                }
+            }));
+            model.setComputerOpponent(PieceColor.BLACK);
+            play(model, "E2", "E4");
+
+            // Act
+            play(model, "E7", "E5");
+
+            // Assert
+            assertEquals("bp", model.getPieceString(BoardPosition.of("E7")));
+            assertEquals("Turn: BLACK", model.getDisplayInformation());
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Plays the moves given as pairs of from and to positions in standard notation.
+     */
+    private void play(ChessModel model, String... positions) {
+        for (int i = 0; i < positions.length; i += 2) {
+            model.selectPosition(BoardPosition.of(positions[i]));
+            model.selectPosition(BoardPosition.of(positions[i + 1]));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.ChessBoard;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Testing the Fen class according to the specification and guarantees provided by it.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class FenTest extends TestCase {
+
+    public void test_startPositionMatchesChessBoard() throws Exception {
+        assertEquals(Fen.START_POSITION, new Fen(new ChessBoard()).toString());
+    }
+
+    public void test_parseGivesSameFenBack() throws Exception {
+        // Arrange
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq e3 0 1";
+
+        // Act
+        for (BoardType type : BoardType.values()) {
+            IChessBoard board = type.create(new Fen(fen));
+
+            // Assert
+            assertEquals(fen, new Fen(board).toString());
+            assertEquals(PieceColor.BLACK, board.getTurn());
+            assertEquals(BoardPosition.of("E3"), board.getEnPassant());
+            assertEquals(BoardPosition.of("E4"), board.getEnPassantPawn());
+            assertEquals(PieceType.QUEEN, board.getChessPiece(BoardPosition.of("F3")).getPieceType());
+        }
+    }
+
+    public void test_missingCastlingMeansKingMoved() throws Exception {
+        // Act
+        Fen fen = new Fen("4k3/8/8/8/8/8/8/4K2R w K -");
+
+        // Assert
+        assertFalse(fen.isKingMoved(PieceColor.WHITE));
+        assertTrue(fen.isKingMoved(PieceColor.BLACK));
+    }
+
+    public void test_invalidFenGivesException() throws Exception {
+        try {
+            // Act
+            new Fen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq -");
+
+            // Assert
+            fail("Fen constructor should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException iae) {
+            // Do nothing here
+
+        } catch (Exception e) {
+            fail("Wrong type of exception thrown");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+
+/**
+ * Testing that MovementRules#generateLegalTargets finds out if the player to move has any legal
+ * move, and MovementRules#isInsufficientMaterial, which together decide if a game is over, for
+ * every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class GameEndTest extends TestCase {
+
+    public void test_noLegalMoveWhenCheckmate() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. Back rank mate.
+            IChessBoard board = type.create(new Fen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"));
+            long key = board.getKey();
+
+            // Act
+            boolean hasLegalMove = MovementRules.generateLegalTargets(board, new long[64], new MoveUndo());
+
+            // Assert
+            assertFalse(type.toString(), hasLegalMove);
+            assertTrue(type.toString(), MovementRules.isCheck(board, board.getTurn()));
+            assertEquals(type.toString(), key, board.getKey());
+        }
+    }
+
+    public void test_noLegalMoveWhenStalemate() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The pawn is blocked and the King has nowhere to go.
+            IChessBoard board = type.create(new Fen("7k/5Q2/8/8/8/8/p7/K7 b - - 0 1"));
+
+            // Act
+            boolean hasLegalMove = MovementRules.generateLegalTargets(board, new long[64], new MoveUndo());
+
+            // Assert
+            assertFalse(type.toString(), hasLegalMove);
+            assertFalse(type.toString(), MovementRules.isCheck(board, board.getTurn()));
+        }
+    }
+
+    public void test_onlyKingCanMove() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The pawn is pinned, but the King may step aside.
+            IChessBoard board = type.create(new Fen("k7/1p6/8/8/8/8/8/K6Q b - - 0 1"));
+
+            // Act
+            boolean hasLegalMove = MovementRules.generateLegalTargets(board, new long[64], new MoveUndo());
+
+            // Assert
+            assertTrue(type.toString(), hasLegalMove);
+        }
+    }
+
+    public void test_insufficientMaterial() throws Exception {
+        String[] positions = {
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/2B1K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4K1N1 b - - 0 1",
+                "4kn2/8/8/8/8/8/8/4K3 w - - 0 1",
+                // Both Bishops on dark squares.
+                "2b1k3/8/8/8/8/8/8/4KB2 w - - 0 1",
+        };
+        for (BoardType type : BoardType.values()) {
+            for (String fen : positions) {
+                // Arrange
+                IChessBoard board = type.create(new Fen(fen));
+
+                // Act
+                boolean insufficient = MovementRules.isInsufficientMaterial(board);
+
+                // Assert
+                assertTrue(type + " " + fen, insufficient);
+            }
+        }
+    }
+
+    public void test_sufficientMaterial() throws Exception {
+        String[] positions = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/R3K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/1N2K1N1 w - - 0 1",
+                "4kn2/8/8/8/8/8/8/4K1N1 w - - 0 1",
+                // The Bishops are on squares of different colors.
+                "3bk3/8/8/8/8/8/8/4KB2 w - - 0 1",
+        };
+        for (BoardType type : BoardType.values()) {
+            for (String fen : positions) {
+                // Arrange
+                IChessBoard board = type.create(new Fen(fen));
+
+                // Act
+                boolean insufficient = MovementRules.isInsufficientMaterial(board);
+
+                // Assert
+                assertFalse(type + " " + fen, insufficient);
+            }
+        }
+    }
+}
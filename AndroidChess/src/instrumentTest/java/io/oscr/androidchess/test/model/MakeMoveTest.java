@@ -0,0 +1,182 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Testing IChessBoard#makeMove and IChessBoard#unmakeMove for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class MakeMoveTest extends TestCase {
+    private static final int GAMES = 10;
+    private static final int MAX_MOVES = 120;
+
+    public void test_pawnDoublePushSetsEnPassant() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            MoveUndo undo = new MoveUndo();
+
+            // Act
+            board.makeMove(BoardPosition.of("E2"), BoardPosition.of("E4"), null, undo);
+
+            // Assert
+            assertEquals(BoardPosition.of("E3"), board.getEnPassant());
+            assertEquals(BoardPosition.of("E4"), board.getEnPassantPawn());
+            assertEquals(PieceColor.BLACK, board.getTurn());
+        }
+    }
+
+    public void test_enPassantCaptureIsTakenBack() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            MoveUndo undo = new MoveUndo();
+            play(board, "E2", "E4");
+            play(board, "A7", "A6");
+            play(board, "E4", "E5");
+            play(board, "D7", "D5");
+            String before = describe(board);
+
+            // Act
+            board.makeMove(BoardPosition.of("E5"), BoardPosition.of("D6"), null, undo);
+
+            // Assert
+            assertNull(board.getChessPiece(BoardPosition.of("D5")));
+            assertEquals(PieceType.PAWN, undo.getCaptured().getPieceType());
+            board.unmakeMove(undo);
+            assertEquals(before, describe(board));
+        }
+    }
+
+    public void test_castleMovesRookAndIsTakenBack() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            MoveUndo undo = new MoveUndo();
+            play(board, "E2", "E4");
+            play(board, "E7", "E5");
+            play(board, "G1", "F3");
+            play(board, "B8", "C6");
+            play(board, "F1", "C4");
+            play(board, "G8", "F6");
+            String before = describe(board);
+
+            // Act
+            board.makeMove(Constants.WHITE_KING_START, Constants.W_KINGSIDE_KING, null, undo);
+
+            // Assert
+            assertEquals(PieceType.ROOK, board.getChessPiece(Constants.W_KINGSIDE_ROOK_END).getPieceType());
+            assertTrue(board.isEmpty(Constants.W_KINGSIDE_ROOK_START));
+            assertTrue(board.isKingMoved(PieceColor.WHITE));
+            board.unmakeMove(undo);
+            assertEquals(before, describe(board));
+            assertFalse(board.isKingMoved(PieceColor.WHITE));
+        }
+    }
+
+    /*
+     * Plays random games and makes and takes back every move in every position. The board
+     * should always be back in the same state.
+     */
+    public void test_unmakeRestoresEveryMoveInRandomGames() throws Exception {
+        Random random = new Random(7);
+        for (BoardType type : BoardType.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                // Arrange
+                IChessBoard board = type.create();
+                MoveUndo undo = new MoveUndo();
+
+                for (int ply = 0; ply < MAX_MOVES; ply++) {
+                    List<BoardPosition[]> moves = getMoves(board);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+
+                    // Act
+                    String before = describe(board);
+                    for (BoardPosition[] move : moves) {
+                        board.makeMove(move[0], move[1], PieceType.QUEEN, undo);
+                        board.unmakeMove(undo);
+
+                        // Assert
+                        assertEquals(before, describe(board));
+                    }
+
+                    BoardPosition[] move = moves.get(random.nextInt(moves.size()));
+                    IChessPiece captured = board.getChessPiece(move[1]);
+                    if (captured != null && captured.getPieceType() == PieceType.KING) {
+                        break;
+                    }
+                    board.makeMove(move[0], move[1], PieceType.QUEEN, undo);
+                }
+            }
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Makes a move given in standard notation.
+     */
+    private void play(IChessBoard board, String from, String to) {
+        board.makeMove(BoardPosition.of(from), BoardPosition.of(to), null, new MoveUndo());
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives all moves MovementRules allows for the side to move.
+     */
+    private List<BoardPosition[]> getMoves(IChessBoard board) {
+        List<BoardPosition[]> moves = new ArrayList<BoardPosition[]>();
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                IChessPiece piece = board.getChessPiece(file, rank);
+                if (piece != null && piece.getPieceColor() == board.getTurn()) {
+                    BoardPosition from = BoardPosition.of(file, rank);
+                    for (BoardPosition to : MovementRules.getLegalMoves(from, board)) {
+                        moves.add(new BoardPosition[]{from, to});
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Describes the complete board state as a string so that two states easily can be compared.
+     */
+    private String describe(IChessBoard board) {
+        StringBuilder sb = new StringBuilder();
+        for (int rank = Constants.BOARD_MAX_POSITION; rank >= 0; rank--) {
+            for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+                IChessPiece piece = board.getChessPiece(file, rank);
+                sb.append(piece == null ? "." : piece.getPieceColor().name().charAt(0) + piece.getPieceType().name());
+                sb.append(' ');
+            }
+        }
+        sb.append(board.getTurn()).append(' ')
+                .append(board.getEnPassant()).append(' ')
+                .append(board.getEnPassantPawn()).append(' ')
+                .append(board.isKingMoved(PieceColor.WHITE)).append(' ')
+                .append(board.isKingMoved(PieceColor.BLACK));
+        return sb.toString();
+    }
+}
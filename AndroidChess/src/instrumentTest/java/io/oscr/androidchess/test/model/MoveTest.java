@@ -14,8 +14,8 @@ public class MoveTest extends TestCase {
 
     public void test_normalConstructionContainsSameValuesAsArgument() {
         // Arrange
-        BoardPosition e2 = new BoardPosition("E2");
-        BoardPosition e3 = new BoardPosition("E3");
+        BoardPosition e2 = BoardPosition.of("E2");
+        BoardPosition e3 = BoardPosition.of("E3");
 
         // Act
         Move move = new Move(e2, e3);
@@ -29,7 +29,7 @@ public class MoveTest extends TestCase {
     public void test_constructWithFromNullArgument(){
         // Arrange
         BoardPosition e2 = null;
-        BoardPosition e3 = new BoardPosition("E3");
+        BoardPosition e3 = BoardPosition.of("E3");
 
         try {
             // Act
@@ -48,7 +48,7 @@ public class MoveTest extends TestCase {
 
     public void test_constructWithToNullArgument(){
         // Arrange
-        BoardPosition e2 = new BoardPosition("E2");
+        BoardPosition e2 = BoardPosition.of("E2");
         BoardPosition e3 = null;
 
         try {
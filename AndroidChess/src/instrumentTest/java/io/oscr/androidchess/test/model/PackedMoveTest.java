@@ -0,0 +1,170 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Testing the PackedMove and MoveList classes and the move generation in MovementRules that uses
+ * them.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PackedMoveTest extends TestCase {
+    // Position 2, also known as "Kiwipete". Lots of castling, en passant and promotion.
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    public void test_encodeDecode() throws Exception {
+        // Arrange
+        BoardPosition from = BoardPosition.of("E7");
+        BoardPosition to = BoardPosition.of("D8");
+
+        // Act
+        int move = PackedMove.encode(from, to, PieceType.KNIGHT, PackedMove.CAPTURE);
+
+        // Assert
+        assertSame(from, PackedMove.getFrom(move));
+        assertSame(to, PackedMove.getTo(move));
+        assertEquals(PieceType.KNIGHT, PackedMove.getPromotion(move));
+        assertTrue(PackedMove.isCapture(move));
+        assertFalse(PackedMove.isDoublePush(move));
+        assertFalse(PackedMove.isEnPassant(move));
+        assertFalse(PackedMove.isCastle(move));
+        assertEquals("e7d8n", PackedMove.toString(move));
+    }
+
+    public void test_encodeWithoutPromotion() throws Exception {
+        // Arrange
+        int move = PackedMove.encode(BoardPosition.of("H8"), BoardPosition.of("A1"), null, 0);
+
+        // Act
+        PieceType promotion = PackedMove.getPromotion(move);
+
+        // Assert
+        assertNull(promotion);
+        assertEquals("h8a1", PackedMove.toString(move));
+    }
+
+    public void test_encodeUnknownFlag() throws Exception {
+        // Arrange
+        BoardPosition position = BoardPosition.of("A1");
+
+        // Act
+        try {
+            PackedMove.encode(position, position, null, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Assert
+        }
+    }
+
+    public void test_moveListIndexOutOfBounds() throws Exception {
+        // Arrange
+        MoveList moves = new MoveList();
+        moves.add(1);
+        moves.clear();
+
+        // Act
+        try {
+            moves.get(0);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // Assert
+            assertTrue(moves.isEmpty());
+        }
+    }
+
+    public void test_generateLegalMovesKiwipete() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen(KIWIPETE));
+            MoveList moves = new MoveList();
+
+            // Act
+            MovementRules.generateLegalMoves(board, moves, new MoveUndo());
+
+            // Assert
+            assertEquals(type.toString(), 48, moves.size());
+            assertTrue(moves.contains(PackedMove.encode(BoardPosition.of("E1"), BoardPosition.of("G1"), null, PackedMove.CASTLE)));
+            assertTrue(moves.contains(PackedMove.encode(BoardPosition.of("E2"), BoardPosition.of("A6"), null, PackedMove.CAPTURE)));
+            assertTrue(moves.contains(PackedMove.encode(BoardPosition.of("A2"), BoardPosition.of("A4"), null, PackedMove.DOUBLE_PUSH)));
+        }
+    }
+
+    public void test_generateMovesFlagsPromotionAndEnPassant() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. White can capture en passant on D6 and promote on B8 by capturing.
+            IChessBoard board = type.create(new Fen("1n2k3/P7/8/3pP3/8/8/8/4K3 w - d6 0 1"));
+            MoveList moves = new MoveList();
+
+            // Act
+            MovementRules.generateMoves(board, moves);
+
+            // Assert
+            int enPassant = PackedMove.encode(BoardPosition.of("E5"), BoardPosition.of("D6"), null,
+                    PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+            assertTrue(type.toString(), moves.contains(enPassant));
+            for (PieceType promotion : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
+                assertTrue(moves.contains(PackedMove.encode(BoardPosition.of("A7"), BoardPosition.of("A8"), promotion, 0)));
+                assertTrue(moves.contains(PackedMove.encode(BoardPosition.of("A7"), BoardPosition.of("B8"), promotion, PackedMove.CAPTURE)));
+            }
+        }
+    }
+
+    public void test_capturesAndQuietsSplitAllMoves() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            for (String fen : new String[]{KIWIPETE, "1n2k3/P7/8/3pP3/8/8/8/4K3 w - d6 0 1"}) {
+                // Arrange
+                IChessBoard board = type.create(new Fen(fen));
+                MoveList all = new MoveList();
+                MoveList captures = new MoveList();
+                MoveList quiets = new MoveList();
+
+                // Act
+                MovementRules.generateMoves(board, all);
+                MovementRules.generateCaptures(board, captures);
+                MovementRules.generateQuiets(board, quiets);
+
+                // Assert
+                assertEquals(type.toString(), all.size(), captures.size() + quiets.size());
+                for (int i = 0; i < captures.size(); i++) {
+                    int move = captures.get(i);
+                    assertTrue(all.contains(move));
+                    assertTrue(PackedMove.isCapture(move) || PackedMove.getPromotion(move) != null);
+                }
+                for (int i = 0; i < quiets.size(); i++) {
+                    int move = quiets.get(i);
+                    assertTrue(all.contains(move));
+                    assertFalse(PackedMove.isCapture(move) || PackedMove.getPromotion(move) != null);
+                }
+            }
+        }
+    }
+
+    public void test_isPseudoLegal() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen(KIWIPETE));
+            MoveList moves = new MoveList();
+            MovementRules.generateMoves(board, moves);
+
+            // Act & Assert. Every generated move passes, moves of the wrong player or with the wrong flags don't.
+            for (int i = 0; i < moves.size(); i++) {
+                assertTrue(type.toString(), MovementRules.isPseudoLegal(board, moves.get(i)));
+            }
+            assertFalse(MovementRules.isPseudoLegal(board, 0));
+            assertFalse(MovementRules.isPseudoLegal(board, PackedMove.encode(BoardPosition.of("A7"), BoardPosition.of("A6"), null, 0)));
+            assertFalse(MovementRules.isPseudoLegal(board, PackedMove.encode(BoardPosition.of("D5"), BoardPosition.of("E6"), null, 0)));
+            assertFalse(MovementRules.isPseudoLegal(board, PackedMove.encode(BoardPosition.of("D5"), BoardPosition.of("D6"), PieceType.QUEEN, 0)));
+            assertFalse(MovementRules.isPseudoLegal(board, PackedMove.encode(BoardPosition.of("E1"), BoardPosition.of("E3"), null, 0)));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Testing the King positions and piece lists kept by every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PieceListTest extends TestCase {
+    private static final int GAMES = 10;
+    private static final int MAX_MOVES = 120;
+
+    public void test_startPosition() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Act
+            IChessBoard board = type.create();
+
+            // Assert
+            assertEquals(Constants.WHITE_KING_START, board.getKingPosition(PieceColor.WHITE));
+            assertEquals(Constants.BLACK_KING_START, board.getKingPosition(PieceColor.BLACK));
+            assertEquals(16, board.getPieceCount(PieceColor.WHITE));
+            assertEquals(16, board.getPieceCount(PieceColor.BLACK));
+            assertListsMatchBoard(board);
+        }
+    }
+
+    public void test_moveSetPromotionAndRemoveEnPassantPawnUpdateLists() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+
+            // Act
+            board.move(BoardPosition.of("E1"), BoardPosition.of("E4"));
+            board.move(BoardPosition.of("D8"), BoardPosition.of("D2"));
+            board.setPromotion(new ChessPiece(PieceColor.BLACK, PieceType.KNIGHT), BoardPosition.of("A7"));
+            board.setEnPassant(BoardPosition.of("H3"), BoardPosition.of("H2"));
+            board.removeEnPassantPawn();
+
+            // Assert
+            assertEquals(BoardPosition.of("E4"), board.getKingPosition(PieceColor.WHITE));
+            assertEquals(14, board.getPieceCount(PieceColor.WHITE));
+            assertEquals(16, board.getPieceCount(PieceColor.BLACK));
+            assertListsMatchBoard(board);
+        }
+    }
+
+    /*
+     * Plays random games. After every move the lists should match the board, and taking back any
+     * move should restore the lists in the same order.
+     */
+    public void test_listsFollowMakeAndUnmakeInRandomGames() throws Exception {
+        Random random = new Random(3);
+        for (BoardType type : BoardType.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                // Arrange
+                IChessBoard board = type.create();
+                MoveUndo undo = new MoveUndo();
+
+                for (int ply = 0; ply < MAX_MOVES; ply++) {
+                    List<BoardPosition[]> moves = getLegalMoves(board, undo);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+
+                    // Act
+                    List<BoardPosition> before = getList(board);
+                    for (BoardPosition[] move : moves) {
+                        board.makeMove(move[0], move[1], PieceType.KNIGHT, undo);
+                        assertListsMatchBoard(board);
+                        board.unmakeMove(undo);
+
+                        // Assert
+                        assertEquals(before, getList(board));
+                    }
+
+                    BoardPosition[] move = moves.get(random.nextInt(moves.size()));
+                    board.makeMove(move[0], move[1], PieceType.KNIGHT, undo);
+                }
+            }
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Asserts that the King positions and piece lists hold exactly the pieces on the board.
+     */
+    private void assertListsMatchBoard(IChessBoard board) {
+        for (PieceColor color : PieceColor.values()) {
+            Set<BoardPosition> expected = new HashSet<BoardPosition>();
+            BoardPosition king = null;
+            for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+                for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                    IChessPiece piece = board.getChessPiece(file, rank);
+                    if (piece != null && piece.getPieceColor() == color) {
+                        expected.add(BoardPosition.of(file, rank));
+                        if (piece.getPieceType() == PieceType.KING) {
+                            king = BoardPosition.of(file, rank);
+                        }
+                    }
+                }
+            }
+
+            Set<BoardPosition> actual = new HashSet<BoardPosition>();
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                actual.add(board.getPiecePosition(color, i));
+            }
+            assertEquals(expected.size(), board.getPieceCount(color));
+            assertEquals(expected, actual);
+            assertEquals(king, board.getKingPosition(color));
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives the piece lists of both colors in order.
+     */
+    private List<BoardPosition> getList(IChessBoard board) {
+        List<BoardPosition> list = new ArrayList<BoardPosition>();
+        for (PieceColor color : PieceColor.values()) {
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                list.add(board.getPiecePosition(color, i));
+            }
+        }
+        return list;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives all legal moves for the side to move.
+     */
+    private List<BoardPosition[]> getLegalMoves(IChessBoard board, MoveUndo undo) {
+        List<BoardPosition[]> moves = new ArrayList<BoardPosition[]>();
+        PieceColor color = board.getTurn();
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            BoardPosition from = board.getPiecePosition(color, i);
+            for (BoardPosition to : MovementRules.getLegalMoves(from, board)) {
+                if (MovementRules.isLegalMove(board, from, to, undo)) {
+                    moves.add(new BoardPosition[]{from, to});
+                }
+            }
+        }
+        return moves;
+    }
+}
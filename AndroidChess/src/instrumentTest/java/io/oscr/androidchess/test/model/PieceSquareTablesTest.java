@@ -0,0 +1,131 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.PieceSquareTables;
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Testing PieceSquareTables and that the piece-square score and phase of the IChessBoard
+ * implementations are kept up to date as the board changes.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PieceSquareTablesTest extends TestCase {
+    // Position 4. Promotions and castling with the King in check.
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+
+    public void test_startPositionIsEven() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+
+            // Act
+            int score = board.getPieceSquareScore();
+
+            // Assert
+            assertEquals(0, score);
+            assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+        }
+    }
+
+    public void test_mirroredPieceHasOppositeScore() throws Exception {
+        // Arrange
+        int white = PieceSquareTables.piece(PieceColor.WHITE, PieceType.KNIGHT, BoardPosition.of("F3").getIndex());
+
+        // Act
+        int black = PieceSquareTables.piece(PieceColor.BLACK, PieceType.KNIGHT, BoardPosition.of("F6").getIndex());
+
+        // Assert
+        assertEquals(-white, black);
+        assertTrue(PieceSquareTables.middlegame(white) > PieceSquareTables.value(PieceType.KNIGHT));
+    }
+
+    public void test_packedScoresAddUp() throws Exception {
+        // Arrange
+        int first = PieceSquareTables.pack(-350, 120);
+        int second = PieceSquareTables.pack(100, -400);
+
+        // Act
+        int sum = first + second;
+
+        // Assert
+        assertEquals(-250, PieceSquareTables.middlegame(sum));
+        assertEquals(-280, PieceSquareTables.endgame(sum));
+    }
+
+    public void test_taperBlendsByPhase() throws Exception {
+        // Arrange
+        int score = PieceSquareTables.pack(100, 300);
+
+        // Act & Assert
+        assertEquals(100, PieceSquareTables.taper(score, PieceSquareTables.MAX_PHASE));
+        assertEquals(100, PieceSquareTables.taper(score, PieceSquareTables.MAX_PHASE + 4));
+        assertEquals(200, PieceSquareTables.taper(score, PieceSquareTables.MAX_PHASE / 2));
+        assertEquals(300, PieceSquareTables.taper(score, 0));
+    }
+
+    public void test_scoreFollowsRandomGames() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            Random random = new Random(42);
+            MoveList moves = new MoveList();
+            MoveUndo[] undo = new MoveUndo[40];
+
+            for (int game = 0; game < 20; game++) {
+                IChessBoard board = type.create(new Fen(POSITION_4));
+                int[] scores = new int[undo.length];
+                int ply = 0;
+
+                // Act
+                for (; ply < undo.length; ply++) {
+                    MovementRules.generateLegalMoves(board, moves, new MoveUndo());
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    scores[ply] = board.getPieceSquareScore();
+                    undo[ply] = new MoveUndo();
+                    PackedMove.make(board, moves.get(random.nextInt(moves.size())), undo[ply]);
+
+                    // Assert
+                    assertEquals(type.toString(), PieceSquareTables.compute(board), board.getPieceSquareScore());
+                    assertEquals(type.toString(), PieceSquareTables.computePhase(board), board.getPhase());
+                }
+                while (ply-- > 0) {
+                    board.unmakeMove(undo[ply]);
+                    assertEquals(type.toString(), scores[ply], board.getPieceSquareScore());
+                }
+            }
+        }
+    }
+
+    public void test_scoreFollowsPrimitiveUpdates() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The same calls ChessModel uses for an en passant capture and a promotion.
+            IChessBoard board = type.create(new Fen("4k3/1P6/8/3pP3/8/8/8/4K3 w - d6 0 1"));
+
+            // Act
+            board.move(BoardPosition.of("E5"), BoardPosition.of("D6"));
+            board.removeEnPassantPawn();
+            board.setEnPassant(null, null);
+            board.move(BoardPosition.of("B7"), BoardPosition.of("B8"));
+            board.setPromotion(new ChessPiece(PieceColor.WHITE, PieceType.QUEEN), BoardPosition.of("B8"));
+
+            // Assert
+            assertEquals(type.toString(), PieceSquareTables.compute(board), board.getPieceSquareScore());
+            assertEquals(type.toString(), PieceSquareTables.phase(PieceType.QUEEN), board.getPhase());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.PositionHistory;
+
+/**
+ * Testing the repetition counting and the halfmove clock of PositionHistory.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PositionHistoryTest extends TestCase {
+
+    public void test_repetitionsWithSamePlayerToMove() throws Exception {
+        // Arrange
+        PositionHistory history = new PositionHistory();
+
+        // Act. Keys 1 and 2 alternate as when both players move a piece back and forth.
+        history.push(1, true);
+        history.push(2, false);
+        history.push(1, false);
+        int once = history.countRepetitions();
+        history.push(2, false);
+        history.push(1, false);
+
+        // Assert
+        assertEquals(1, once);
+        assertEquals(2, history.countRepetitions());
+        assertTrue(history.isThreefoldRepetition());
+        assertEquals(4, history.getHalfmoveClock());
+    }
+
+    public void test_positionsBeforeIrreversibleMoveAreNotCompared() throws Exception {
+        // Arrange
+        PositionHistory history = new PositionHistory();
+        history.push(1, true);
+        history.push(2, false);
+
+        // Act. The key can't really come again after a capture, but it shows that it isn't looked for.
+        history.push(1, true);
+
+        // Assert
+        assertEquals(0, history.countRepetitions());
+        assertFalse(history.isRepetition());
+        assertEquals(0, history.getHalfmoveClock());
+    }
+
+    public void test_fiftyMoveRule() throws Exception {
+        // Arrange
+        PositionHistory history = new PositionHistory();
+        history.push(0, true);
+
+        // Act
+        for (int i = 1; i < PositionHistory.FIFTY_MOVE_PLIES; i++) {
+            history.push(i, false);
+        }
+        boolean before = history.isFiftyMoveRule();
+        history.push(PositionHistory.FIFTY_MOVE_PLIES, false);
+
+        // Assert
+        assertFalse(before);
+        assertTrue(history.isFiftyMoveRule());
+        assertEquals(PositionHistory.FIFTY_MOVE_PLIES + 1, history.size());
+    }
+
+    public void test_popAndCopy() throws Exception {
+        // Arrange
+        PositionHistory history = new PositionHistory();
+        history.push(1, true);
+        history.push(2, false);
+        history.push(1, false);
+
+        // Act
+        PositionHistory copy = new PositionHistory(history, 0);
+        copy.push(2, false);
+        history.pop();
+
+        // Assert
+        assertEquals(2, history.size());
+        assertEquals(2, history.getKey());
+        assertEquals(4, copy.size());
+        assertEquals(1, copy.countRepetitions());
+    }
+
+    public void test_emptyHistory() throws Exception {
+        // Arrange
+        PositionHistory history = new PositionHistory();
+
+        // Act & Assert
+        assertEquals(0, history.countRepetitions());
+        assertEquals(0, history.getHalfmoveClock());
+        try {
+            history.pop();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
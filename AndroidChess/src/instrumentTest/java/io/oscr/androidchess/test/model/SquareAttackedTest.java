@@ -0,0 +1,214 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Testing MovementRules#isSquareAttacked and the legality checks built on it for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class SquareAttackedTest extends TestCase {
+    private static final int GAMES = 5;
+    private static final int MAX_MOVES = 80;
+
+    public void test_pawnsOnlyAttackForward() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen("4k3/8/8/3p4/3P4/8/8/4K3 w - -"));
+
+            // Assert
+            assertTrue(MovementRules.isSquareAttacked(board, BoardPosition.of("C5"), PieceColor.WHITE));
+            assertTrue(MovementRules.isSquareAttacked(board, BoardPosition.of("E5"), PieceColor.WHITE));
+            assertFalse(MovementRules.isSquareAttacked(board, BoardPosition.of("C3"), PieceColor.WHITE));
+            assertFalse(MovementRules.isSquareAttacked(board, BoardPosition.of("D5"), PieceColor.WHITE));
+            assertTrue(MovementRules.isSquareAttacked(board, BoardPosition.of("E4"), PieceColor.BLACK));
+            assertFalse(MovementRules.isSquareAttacked(board, BoardPosition.of("E6"), PieceColor.BLACK));
+        }
+    }
+
+    public void test_slidingAttackStopsAtFirstPiece() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen("4k3/8/8/8/r2N3K/8/8/8 w - -"));
+
+            // Assert
+            assertTrue(MovementRules.isSquareAttacked(board, BoardPosition.of("D4"), PieceColor.BLACK));
+            assertFalse(MovementRules.isSquareAttacked(board, BoardPosition.of("E4"), PieceColor.BLACK));
+            assertFalse(MovementRules.isCheck(board, PieceColor.WHITE));
+        }
+    }
+
+    public void test_attackersOfBothColorsAndThroughIgnoredPieces() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The Rook on E1 is behind the Rook on E2, the Knight on C8 is Black's.
+            IChessBoard board = type.create(new Fen("2n1r1k1/8/8/4p3/3P4/8/4R3/4R1K1 w - -"));
+            BoardPosition square = BoardPosition.of("E5");
+
+            // Act
+            long attackers = MovementRules.getAttackers(board, square, 0);
+            long behind = MovementRules.getAttackers(board, square, bit("E2"));
+
+            // Assert
+            assertEquals(type.toString(), bit("D4") | bit("E2") | bit("E8"), attackers);
+            assertEquals(type.toString(), bit("D4") | bit("E1") | bit("E8"), behind);
+            assertEquals(type.toString(), bit("C8") | bit("E8"), MovementRules.getAttackers(board, BoardPosition.of("E7"), 0));
+        }
+    }
+
+    public void test_kingMayNotStepBackAlongCheckingLine() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The Rook on A4 gives check along the fourth rank.
+            IChessBoard board = type.create(new Fen("4k3/8/8/8/r6K/8/8/8 w - -"));
+            BoardPosition king = BoardPosition.of("H4");
+
+            // Act
+            boolean alongLine = MovementRules.isLegalMove(board, king, BoardPosition.of("G4"), new MoveUndo());
+            boolean offLine = MovementRules.isLegalMove(board, king, BoardPosition.of("G5"), new MoveUndo());
+
+            // Assert
+            assertTrue(MovementRules.isCheck(board, PieceColor.WHITE));
+            assertFalse(alongLine);
+            assertTrue(offLine);
+        }
+    }
+
+    /*
+     * Plays random games and compares isSquareAttacked for every square with the squares the
+     * opposing pieces can move to according to getLegalMoves.
+     */
+    public void test_matchesMoveGenerationInRandomGames() throws Exception {
+        Random random = new Random(11);
+        for (BoardType type : BoardType.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                IChessBoard board = type.create();
+                MoveUndo undo = new MoveUndo();
+
+                for (int ply = 0; ply < MAX_MOVES; ply++) {
+                    for (PieceColor color : PieceColor.values()) {
+                        // Arrange
+                        boolean[][] expected = getReachable(board, color);
+
+                        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+                            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                                // Act
+                                BoardPosition square = BoardPosition.of(file, rank);
+                                boolean attacked = MovementRules.isSquareAttacked(board, square, color);
+
+                                // Assert
+                                if (expected[file][rank]) {
+                                    assertTrue(type + " " + square, attacked);
+                                }
+                                // Empty squares in front of pawns are reachable but not attacked.
+                                IChessPiece piece = board.getChessPiece(square);
+                                if (piece != null && piece.getPieceColor() != color) {
+                                    assertEquals(type + " " + square, expected[file][rank], attacked);
+                                }
+                            }
+                        }
+                    }
+
+                    List<BoardPosition[]> moves = getLegalMoves(board, undo);
+                    assertEquals(type.toString(), moves.size(), countLegalTargets(board, undo));
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    BoardPosition[] move = moves.get(random.nextInt(moves.size()));
+                    board.makeMove(move[0], move[1], PieceType.QUEEN, undo);
+                }
+            }
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Marks the squares that pieces of the color can capture on, ignoring pawn pushes.
+     */
+    private boolean[][] getReachable(IChessBoard board, PieceColor color) {
+        boolean[][] reachable = new boolean[Constants.BOARD_SIZE][Constants.BOARD_SIZE];
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                IChessPiece piece = board.getChessPiece(file, rank);
+                if (piece == null || piece.getPieceColor() != color) {
+                    continue;
+                }
+                for (BoardPosition to : MovementRules.getLegalMoves(BoardPosition.of(file, rank), board)) {
+                    boolean isPawnPush = piece.getPieceType() == PieceType.PAWN && to.getFile() == file;
+                    boolean isCastle = piece.getPieceType() == PieceType.KING && Math.abs(to.getFile() - file) == 2;
+                    if (!isPawnPush && !isCastle && !to.equals(board.getEnPassant())) {
+                        reachable[to.getFile()][to.getRank()] = true;
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives all legal moves for the side to move.
+     */
+    private List<BoardPosition[]> getLegalMoves(IChessBoard board, MoveUndo undo) {
+        List<BoardPosition[]> moves = new ArrayList<BoardPosition[]>();
+        for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
+            for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
+                IChessPiece piece = board.getChessPiece(file, rank);
+                if (piece != null && piece.getPieceColor() == board.getTurn()) {
+                    BoardPosition from = BoardPosition.of(file, rank);
+                    for (BoardPosition to : MovementRules.getLegalMoves(from, board)) {
+                        if (MovementRules.isLegalMove(board, from, to, undo)) {
+                            moves.add(new BoardPosition[]{from, to});
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Counts the moves in the table MovementRules#generateLegalTargets fills, checking that every
+     * one of them is legal.
+     */
+    private int countLegalTargets(IChessBoard board, MoveUndo undo) {
+        long[] targets = new long[64];
+        boolean hasLegalMove = MovementRules.generateLegalTargets(board, targets, undo);
+        int count = 0;
+        for (int from = 0; from < targets.length; from++) {
+            for (long remaining = targets[from]; remaining != 0; remaining &= remaining - 1) {
+                BoardPosition to = BoardPosition.of(Long.numberOfTrailingZeros(remaining));
+                assertTrue(MovementRules.isLegalMove(board, BoardPosition.of(from), to, undo));
+                count++;
+            }
+        }
+        assertEquals(count > 0, hasLegalMove);
+        return count;
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives a bitboard with only the position set.
+     */
+    private static long bit(final String position) {
+        return 1L << BoardPosition.of(position).getIndex();
+    }
+}
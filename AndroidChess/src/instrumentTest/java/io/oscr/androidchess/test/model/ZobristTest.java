@@ -0,0 +1,149 @@
+package io.oscr.androidchess.test.model;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.Zobrist;
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Testing that the Zobrist key and pawn key of the IChessBoard implementations are kept up to
+ * date as the board changes.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class ZobristTest extends TestCase {
+    // Position 2, also known as "Kiwipete". Lots of castling, en passant and promotion.
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    public void test_sameKeyOnAllBoardTypes() throws Exception {
+        // Arrange
+        IChessBoard array = BoardType.ARRAY.create(new Fen(KIWIPETE));
+        IChessBoard bitboard = BoardType.BITBOARD.create(new Fen(KIWIPETE));
+
+        // Act
+        long key = array.getKey();
+
+        // Assert
+        assertEquals(key, bitboard.getKey());
+        assertEquals(key, Zobrist.compute(array));
+        assertFalse(key == BoardType.ARRAY.create().getKey());
+    }
+
+    public void test_keyFollowsRandomGames() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            Random random = new Random(42);
+            MoveList moves = new MoveList();
+            MoveUndo[] undo = new MoveUndo[40];
+
+            for (int game = 0; game < 20; game++) {
+                IChessBoard board = type.create(new Fen(KIWIPETE));
+                long[] keys = new long[undo.length];
+                int ply = 0;
+
+                // Act
+                for (; ply < undo.length; ply++) {
+                    MovementRules.generateLegalMoves(board, moves, new MoveUndo());
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    keys[ply] = board.getKey();
+                    undo[ply] = new MoveUndo();
+                    PackedMove.make(board, moves.get(random.nextInt(moves.size())), undo[ply]);
+
+                    // Assert
+                    assertEquals(type.toString(), Zobrist.compute(board), board.getKey());
+                    assertEquals(type.toString(), Zobrist.computePawnKey(board), board.getPawnKey());
+                }
+                while (ply-- > 0) {
+                    board.unmakeMove(undo[ply]);
+                    assertEquals(type.toString(), keys[ply], board.getKey());
+                }
+                assertEquals(type.toString(), Zobrist.computePawnKey(board), board.getPawnKey());
+            }
+        }
+    }
+
+    public void test_transpositionGivesSameKey() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard first = type.create();
+            IChessBoard second = type.create();
+
+            // Act
+            play(first, "G1", "F3");
+            play(first, "G8", "F6");
+            play(first, "B1", "C3");
+            play(second, "B1", "C3");
+            play(second, "G8", "F6");
+            play(second, "G1", "F3");
+
+            // Assert
+            assertEquals(type.toString(), first.getKey(), second.getKey());
+        }
+    }
+
+    public void test_keyFollowsPrimitiveUpdates() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The same calls ChessModel uses when a pawn moves two steps and is promoted.
+            IChessBoard board = type.create();
+
+            // Act
+            board.move(BoardPosition.of("E2"), BoardPosition.of("E4"));
+            board.setEnPassant(BoardPosition.of("E3"), BoardPosition.of("E4"));
+            board.switchTurn();
+            long afterDoublePush = board.getKey();
+            board.move(BoardPosition.of("D7"), BoardPosition.of("E3"));
+            board.removeEnPassantPawn();
+            board.setEnPassant(null, null);
+            board.setPromotion(new ChessPiece(PieceColor.BLACK, PieceType.QUEEN), BoardPosition.of("E3"));
+            board.move(BoardPosition.of("E8"), BoardPosition.of("D7"));
+            board.setKingMoved(BoardPosition.of("D7"));
+            board.switchTurn();
+
+            // Assert
+            assertEquals(type.toString(), Zobrist.compute(board), board.getKey());
+            assertEquals(type.toString(), Zobrist.computePawnKey(board), board.getPawnKey());
+            assertFalse(afterDoublePush == board.getKey());
+        }
+    }
+
+    public void test_pawnKeyOnlyDependsOnPawns() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            long start = board.getPawnKey();
+
+            // Act
+            play(board, "G1", "F3");
+            long afterKnight = board.getPawnKey();
+            play(board, "E7", "E5");
+
+            // Assert
+            assertEquals(type.toString(), start, afterKnight);
+            assertFalse(type.toString(), start == board.getPawnKey());
+            assertEquals(0, type.create(new Fen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1")).getPawnKey());
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Makes the move with a fresh undo record.
+     */
+    private static void play(final IChessBoard board, final String from, final String to) {
+        board.makeMove(BoardPosition.of(from), BoardPosition.of(to), null, new MoveUndo());
+    }
+}
@@ -0,0 +1,87 @@
+package io.oscr.androidchess.test.model.perft;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.perft.PerftCache;
+
+/**
+ * Testing that PerftCache gives back what was stored and keeps the deepest counts.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PerftCacheTest extends TestCase {
+
+    public void test_storedCountIsFound() throws Exception {
+        // Arrange
+        PerftCache cache = new PerftCache(1);
+
+        // Act
+        cache.store(0x123456789ABCDEFL, 5, 4865609);
+
+        // Assert
+        assertEquals(4865609, cache.probe(0x123456789ABCDEFL, 5));
+    }
+
+    public void test_otherDepthOrKeyIsNotFound() throws Exception {
+        // Arrange
+        PerftCache cache = new PerftCache(1);
+
+        // Act
+        cache.store(0x123456789ABCDEFL, 5, 4865609);
+
+        // Assert
+        assertEquals(PerftCache.NOT_FOUND, cache.probe(0x123456789ABCDEFL, 4));
+        assertEquals(PerftCache.NOT_FOUND, cache.probe(0x123456789ABCDEEL, 5));
+    }
+
+    public void test_zeroCountIsFound() throws Exception {
+        // Arrange. A stalemate has no leaf nodes.
+        PerftCache cache = new PerftCache(1);
+
+        // Act
+        cache.store(42, 3, 0);
+
+        // Assert
+        assertEquals(0, cache.probe(42, 3));
+    }
+
+    public void test_deepestCountIsKept() throws Exception {
+        // Arrange. The same high bits put all keys in the same bucket.
+        PerftCache cache = new PerftCache(1);
+        cache.store(1, 6, 600);
+
+        // Act
+        cache.store(2, 3, 300);
+        cache.store(3, 2, 200);
+
+        // Assert
+        assertEquals(600, cache.probe(1, 6));
+        assertEquals(PerftCache.NOT_FOUND, cache.probe(2, 3));
+        assertEquals(200, cache.probe(3, 2));
+    }
+
+    public void test_clearRemovesCounts() throws Exception {
+        // Arrange
+        PerftCache cache = new PerftCache(1);
+        cache.store(42, 3, 8902);
+
+        // Act
+        cache.clear();
+
+        // Assert
+        assertEquals(PerftCache.NOT_FOUND, cache.probe(42, 3));
+    }
+
+    public void test_illegalArguments() throws Exception {
+        try {
+            new PerftCache(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new PerftCache(1).store(42, 0, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
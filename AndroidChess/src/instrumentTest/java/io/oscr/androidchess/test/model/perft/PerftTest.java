@@ -0,0 +1,158 @@
+package io.oscr.androidchess.test.model.perft;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.perft.Perft;
+import io.oscr.androidchess.model.perft.PerftCache;
+
+/**
+ * Regression tests for the move generation using the published perft counts for the standard
+ * reference positions. Depths are kept low enough for the tests to run on a device. Every count
+ * is checked for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PerftTest extends TestCase {
+    // Position 2, also known as "Kiwipete". Lots of castling, en passant and promotion.
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // Position 3. Rook and pawn endgame with en passant that would expose the King.
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    // Position 4. Promotions and castling with the King in check.
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+
+    // Position 5.
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    // Position 6. A quiet middlegame position.
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    public void test_startPosition() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            Perft perft = new Perft(type.create());
+            assertEquals(1, perft.perft(0));
+            assertEquals(20, perft.perft(1));
+            assertEquals(400, perft.perft(2));
+            assertEquals(8902, perft.perft(3));
+        }
+    }
+
+    public void test_kiwipete() throws Exception {
+        assertPerft(KIWIPETE, 48, 2039);
+    }
+
+    public void test_position3() throws Exception {
+        assertPerft(POSITION_3, 14, 191, 2812);
+    }
+
+    public void test_position4() throws Exception {
+        assertPerft(POSITION_4, 6, 264, 9467);
+    }
+
+    public void test_position5() throws Exception {
+        assertPerft(POSITION_5, 44, 1486);
+    }
+
+    public void test_position6() throws Exception {
+        assertPerft(POSITION_6, 46, 2079);
+    }
+
+    public void test_boardIsUnchangedAfterCount() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen(KIWIPETE));
+            String before = new Fen(board).toString();
+
+            // Act
+            new Perft(board).perft(2);
+
+            // Assert
+            assertEquals(before, new Fen(board).toString());
+        }
+    }
+
+    public void test_divideSumsToPerft() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            Perft perft = new Perft(type.create(new Fen(POSITION_4)));
+
+            // Act
+            Map<String, Long> divide = perft.divide(2);
+
+            // Assert
+            long sum = 0;
+            for (long count : divide.values()) {
+                sum += count;
+            }
+            assertEquals(6, divide.size());
+            assertEquals(perft.perft(2), sum);
+            assertTrue(divide.containsKey("c4c5"));
+        }
+    }
+
+    public void test_cachedCountIsSame() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            PerftCache cache = new PerftCache(1);
+            Perft perft = new Perft(type.create(new Fen(POSITION_3)), cache);
+
+            // Act
+            long first = perft.perft(4);
+            long second = perft.perft(4);
+
+            // Assert. The second count is found at once.
+            assertEquals(43238, first);
+            assertEquals(43238, second);
+            assertEquals(1, perft.getCacheProbes());
+            assertEquals(1, perft.getCacheHits());
+        }
+    }
+
+    public void test_cacheFindsTranspositions() throws Exception {
+        // Arrange. Moves of both Kings can be played in either order three moves from the root.
+        Perft perft = new Perft(BoardType.ARRAY.create(new Fen(POSITION_3)), new PerftCache(1));
+
+        // Act
+        long nodes = perft.perft(5);
+
+        // Assert
+        assertEquals(674624, nodes);
+        assertTrue(perft.getCacheHits() > 0);
+        assertTrue(perft.getCacheHits() < perft.getCacheProbes());
+    }
+
+    public void test_divideNamesPromotions() throws Exception {
+        // Arrange
+        Perft perft = new Perft(BoardType.ARRAY.create(new Fen(POSITION_5)));
+
+        // Act
+        Map<String, Long> divide = perft.divide(1);
+
+        // Assert
+        assertTrue(divide.containsKey("d7c8q"));
+        assertTrue(divide.containsKey("d7c8r"));
+        assertTrue(divide.containsKey("d7c8b"));
+        assertTrue(divide.containsKey("d7c8n"));
+        assertEquals(44, divide.size());
+    }
+
+    /*
+     * Helper method.
+     *
+     * Checks the perft count for each depth starting at 1 for every BoardType.
+     */
+    private void assertPerft(String fen, long... expected) {
+        for (BoardType type : BoardType.values()) {
+            Perft perft = new Perft(type.create(new Fen(fen)));
+            for (int depth = 1; depth <= expected.length; depth++) {
+                assertEquals(type + " depth " + depth, expected[depth - 1], perft.perft(depth));
+            }
+        }
+    }
+}
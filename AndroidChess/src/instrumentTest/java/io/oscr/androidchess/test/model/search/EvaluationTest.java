@@ -0,0 +1,85 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.search.Evaluation;
+
+/**
+ * Testing that Evaluation scores positions from the point of view of the player to move, one at a
+ * time and in batches.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class EvaluationTest extends TestCase {
+
+    public void test_scoreIsForPlayerToMove() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. White is a Rook up.
+            IChessBoard white = type.create(new Fen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1"));
+            IChessBoard black = type.create(new Fen("4k3/8/8/8/8/8/8/R3K3 b - - 0 1"));
+
+            // Act
+            int whiteScore = Evaluation.evaluate(white);
+            int blackScore = Evaluation.evaluate(black);
+
+            // Assert
+            assertTrue(whiteScore > 400);
+            assertEquals(-whiteScore, blackScore);
+        }
+    }
+
+    public void test_kingIsCentralizedInEndgame() throws Exception {
+        // Arrange
+        IChessBoard center = BoardType.ARRAY.create(new Fen("4k3/8/8/8/3K4/8/8/8 w - - 0 1"));
+        IChessBoard corner = BoardType.ARRAY.create(new Fen("4k3/8/8/8/8/8/8/K7 w - - 0 1"));
+
+        // Act & Assert
+        assertTrue(Evaluation.evaluate(center) > Evaluation.evaluate(corner));
+    }
+
+    public void test_batchOfBoards() throws Exception {
+        // Arrange
+        IChessBoard[] boards = {
+                BoardType.ARRAY.create(),
+                BoardType.BITBOARD.create(new Fen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1"))};
+        int[] scores = new int[boards.length];
+
+        // Act
+        Evaluation.evaluate(boards, scores);
+
+        // Assert
+        assertEquals(Evaluation.evaluate(boards[0]), scores[0]);
+        assertEquals(Evaluation.evaluate(boards[1]), scores[1]);
+    }
+
+    public void test_batchOfMoves() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. Taking the Queen is the best move by far.
+            IChessBoard board = type.create(new Fen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1"));
+            String before = new Fen(board).toString();
+            MoveList moves = new MoveList();
+            MovementRules.generateLegalMoves(board, moves, new MoveUndo());
+            int[] scores = new int[moves.size()];
+
+            // Act
+            Evaluation.evaluate(board, moves, scores);
+
+            // Assert
+            int best = 0;
+            for (int i = 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            assertEquals(type.toString(), "d1d5", PackedMove.toString(moves.get(best)));
+            assertEquals(before, new Fen(board).toString());
+        }
+    }
+}
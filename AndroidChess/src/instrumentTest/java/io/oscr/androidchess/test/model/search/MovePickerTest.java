@@ -0,0 +1,132 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.search.MovePicker;
+
+/**
+ * Testing that MovePicker gives every move once and in the order of its stages for every
+ * BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class MovePickerTest extends TestCase {
+    // Position 2, also known as "Kiwipete". Lots of castling, en passant and promotion.
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // White can take a defended pawn with the Queen, an undefended Knight with a pawn and promote.
+    private static final String CAPTURES = "4k3/P7/2p5/3p1n2/4P3/8/3Q4/4K3 w - - 0 1";
+
+    public void test_givesEveryMoveOnce() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            for (String fen : new String[]{KIWIPETE, CAPTURES}) {
+                // Arrange
+                IChessBoard board = type.create(new Fen(fen));
+                MoveList all = new MoveList();
+                MovementRules.generateMoves(board, all);
+                MovePicker picker = new MovePicker(new int[MovePicker.HISTORY_ROWS][64]);
+                int hashMove = all.get(all.size() - 1);
+
+                // Act
+                picker.reset(board, hashMove, all.get(0), all.get(1));
+                MoveList picked = pickAll(picker);
+
+                // Assert
+                assertEquals(type.toString(), all.size(), picked.size());
+                assertEquals(hashMove, picked.get(0));
+                for (int i = 0; i < all.size(); i++) {
+                    assertTrue(picked.contains(all.get(i)));
+                }
+            }
+        }
+    }
+
+    public void test_stagesInOrder() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. History prefers the King's step to F1, and E1-E2 is a killer.
+            IChessBoard board = type.create(new Fen(CAPTURES));
+            int[][] history = new int[MovePicker.HISTORY_ROWS][64];
+            int killer = move("E1", "E2", 0);
+            int preferred = move("E1", "F1", 0);
+            history[MovePicker.historyIndex(PieceColor.WHITE, preferred)][BoardPosition.of("F1").getIndex()] = 100;
+            MovePicker picker = new MovePicker(history);
+
+            // Act
+            picker.reset(board, move("D2", "D3", 0), killer, MovePicker.NONE);
+            MoveList picked = pickAll(picker);
+
+            // Assert
+            assertEquals(type.toString(), move("D2", "D3", 0), picked.get(0));
+            assertEquals(move("E4", "F5", PackedMove.CAPTURE), picked.get(1));
+            assertEquals(move("E4", "D5", PackedMove.CAPTURE), picked.get(2));
+            // Then the four promotions, the killer and the best quiet move.
+            assertNotNull(PackedMove.getPromotion(picked.get(3)));
+            assertNotNull(PackedMove.getPromotion(picked.get(6)));
+            assertEquals(killer, picked.get(7));
+            assertEquals(preferred, picked.get(8));
+            // The Queen taking the defended pawn loses material and comes last.
+            assertEquals(move("D2", "D5", PackedMove.CAPTURE), picked.get(picked.size() - 1));
+        }
+    }
+
+    public void test_skipsMovesNotPossibleInPosition() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The "hash move" is Black's and the killer would capture here.
+            IChessBoard board = type.create(new Fen(CAPTURES));
+            MoveList all = new MoveList();
+            MovementRules.generateMoves(board, all);
+            MovePicker picker = new MovePicker(new int[MovePicker.HISTORY_ROWS][64]);
+
+            // Act
+            picker.reset(board, move("E8", "E7", 0), move("E4", "D5", 0), move("A1", "A2", 0));
+            MoveList picked = pickAll(picker);
+
+            // Assert
+            assertEquals(type.toString(), all.size(), picked.size());
+            assertFalse(picked.contains(move("E8", "E7", 0)));
+            assertFalse(picked.contains(move("E4", "D5", 0)));
+        }
+    }
+
+    public void test_capturesOnlyLeavesOutLosingCaptures() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen(CAPTURES));
+            MovePicker picker = new MovePicker(new int[MovePicker.HISTORY_ROWS][64]);
+
+            // Act
+            picker.resetCaptures(board);
+            MoveList picked = pickAll(picker);
+
+            // Assert. Two pawn captures and four promotions.
+            assertEquals(type.toString(), 6, picked.size());
+            assertFalse(picked.contains(move("D2", "D5", PackedMove.CAPTURE)));
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Gives all moves of the picker in the order they are picked.
+     */
+    private static MoveList pickAll(final MovePicker picker) {
+        MoveList picked = new MoveList();
+        int move;
+        while ((move = picker.next()) != MovePicker.NONE) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    private static int move(final String from, final String to, final int flags) {
+        return PackedMove.encode(BoardPosition.of(from), BoardPosition.of(to), null, flags);
+    }
+}
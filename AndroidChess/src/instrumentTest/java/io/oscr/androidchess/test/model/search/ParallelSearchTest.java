@@ -0,0 +1,193 @@
+package io.oscr.androidchess.test.model.search;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.search.Engine;
+import io.oscr.androidchess.model.search.ParallelSearch;
+import io.oscr.androidchess.model.search.Search;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.SearchResult;
+import io.oscr.androidchess.model.search.TranspositionTable;
+
+/**
+ * Testing that ParallelSearch finds the same moves as Search and leaves the board as it was.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class ParallelSearchTest extends TestCase {
+
+    public void test_findsMateInOne() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"));
+            ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 4);
+
+            // Act
+            SearchResult result = search.search(board, SearchLimits.depth(4));
+
+            // Assert
+            assertEquals(type.toString(), "a1a8", PackedMove.toString(result.move));
+            assertEquals(Search.MATE - 1, result.score);
+        }
+    }
+
+    public void test_helpersStopAndBoardRestored() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            String before = new Fen(board).toString();
+            long key = board.getKey();
+            ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 4);
+
+            // Act. Searching twice, the second time with helpers from the first search.
+            SearchResult first = search.search(board, SearchLimits.nodes(20000));
+            SearchResult second = search.search(board, SearchLimits.depth(3));
+
+            // Assert
+            assertTrue(first.move != 0);
+            assertTrue(first.nodes >= 20000);
+            assertEquals(3, second.depth);
+            assertEquals(before, new Fen(board).toString());
+            assertEquals(key, board.getKey());
+        }
+    }
+
+    public void test_oneThreadIsSameAsSearch() throws Exception {
+        // Arrange
+        IChessBoard board = BoardType.ARRAY.create();
+
+        // Act
+        SearchResult parallel = new ParallelSearch(new TranspositionTable(1), 1).search(board, SearchLimits.nodes(5000));
+        SearchResult single = new Search(new TranspositionTable(1)).search(board, SearchLimits.nodes(5000));
+
+        // Assert
+        assertEquals(single.move, parallel.move);
+        assertEquals(single.score, parallel.score);
+        assertEquals(single.nodes, parallel.nodes);
+    }
+
+    public void test_helpersSkipDifferentDepths() throws Exception {
+        // Arrange. Twenty helpers have a pattern of their own.
+        int helpers = 20;
+        String[] patterns = new String[helpers + 1];
+
+        // Act
+        for (int helper = 0; helper <= helpers; helper++) {
+            StringBuilder pattern = new StringBuilder();
+            for (int depth = 1; depth <= 16; depth++) {
+                pattern.append(Search.isSkipped(helper, depth) ? 'x' : '.');
+            }
+            patterns[helper] = pattern.toString();
+        }
+
+        // Assert
+        assertEquals("................", patterns[0]);
+        for (int i = 1; i <= helpers; i++) {
+            assertTrue(patterns[i], patterns[i].contains("."));
+            for (int j = 0; j < i; j++) {
+                assertFalse(i + " and " + j, patterns[i].equals(patterns[j]));
+            }
+        }
+    }
+
+    public void test_engineAgesEntriesOfEarlierMoves() throws Exception {
+        // Arrange. The moves are delivered on the engine thread.
+        TranspositionTable table = new TranspositionTable(1);
+        Engine engine = new Engine(table, SearchLimits.depth(6), new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        });
+
+        // Act. The second search stops as soon as it has found the mate in one.
+        think(engine, BoardType.ARRAY.create());
+        int first = table.hashfull();
+        think(engine, BoardType.ARRAY.create(new Fen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1")));
+        int second = table.hashfull();
+
+        // Assert. Only the entries of the latest search count as used.
+        assertTrue(first > 0);
+        assertTrue(second < first);
+    }
+
+    public void test_engineStoppedBeforeSearchStarts() throws Exception {
+        // Arrange. Delivering the first move blocks the engine thread until released, so the
+        // second request waits to start. Unstopped it would search for a very long time.
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final SearchResult[] second = new SearchResult[1];
+        Engine engine = new Engine(new TranspositionTable(1), SearchLimits.depth(Search.MAX_PLY), new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                blocking.countDown();
+                Uninterruptibles.awaitUninterruptibly(release);
+                runnable.run();
+            }
+        });
+        engine.think(BoardType.ARRAY.create(new Fen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1")), new Engine.Listener() {
+            @Override
+            public void onSearchDone(SearchResult result) {
+                delivered.countDown();
+            }
+        });
+        // Otherwise the first request could be dropped for the second.
+        assertTrue(blocking.await(30, TimeUnit.SECONDS));
+        engine.think(BoardType.ARRAY.create(), new Engine.Listener() {
+            @Override
+            public void onSearchDone(SearchResult result) {
+                second[0] = result;
+                delivered.countDown();
+            }
+        });
+
+        // Act
+        engine.stop();
+        release.countDown();
+
+        // Assert. The stop isn't lost when the search starts, and the move is still delivered.
+        assertTrue(delivered.await(30, TimeUnit.SECONDS));
+        assertTrue(second[0].move != 0);
+        assertEquals(0, second[0].depth);
+    }
+
+    public void test_illegalThreads() throws Exception {
+        try {
+            new ParallelSearch(new TranspositionTable(1), 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new ParallelSearch(new TranspositionTable(1), ParallelSearch.MAX_THREADS + 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Lets the engine search the position and waits until the move is delivered.
+     */
+    private static void think(Engine engine, IChessBoard board) throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        engine.think(board, new Engine.Listener() {
+            @Override
+            public void onSearchDone(SearchResult result) {
+                delivered.countDown();
+            }
+        });
+        assertTrue(delivered.await(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.PieceSquareTables;
+import io.oscr.androidchess.model.search.PawnCache;
+import io.oscr.androidchess.model.search.PawnStructure;
+
+/**
+ * Testing the PawnStructure terms and that PawnCache gives the same scores.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class PawnStructureTest extends TestCase {
+
+    public void test_symmetricStructureIsEven() throws Exception {
+        // Arrange
+        IChessBoard board = BoardType.ARRAY.create();
+
+        // Act
+        int score = PawnStructure.evaluate(board);
+
+        // Assert
+        assertEquals(0, score);
+    }
+
+    public void test_doubledAndIsolatedPawnsArePenalized() throws Exception {
+        // Arrange. White's pawns on the e-file are doubled and isolated, Black's are connected.
+        IChessBoard board = BoardType.ARRAY.create(new Fen("4k3/3pp3/8/8/8/4P3/4P3/4K3 w - - 0 1"));
+
+        // Act
+        int score = PawnStructure.evaluate(board);
+
+        // Assert
+        assertTrue(PieceSquareTables.middlegame(score) < 0);
+        assertTrue(PieceSquareTables.endgame(score) < 0);
+    }
+
+    public void test_passedPawnIsRewarded() throws Exception {
+        // Arrange. The pawn on B6 can't be stopped by the pawn on H7.
+        IChessBoard passed = BoardType.ARRAY.create(new Fen("4k3/7p/1P6/8/8/8/8/4K3 w - - 0 1"));
+        IChessBoard blocked = BoardType.ARRAY.create(new Fen("4k3/2p5/1P6/8/8/8/8/4K3 w - - 0 1"));
+
+        // Act & Assert
+        assertTrue(PieceSquareTables.endgame(PawnStructure.evaluate(passed)) > 0);
+        assertTrue(PawnStructure.evaluate(passed) > PawnStructure.evaluate(blocked));
+    }
+
+    public void test_backwardPawnIsPenalized() throws Exception {
+        // Arrange. No pawn can defend D3 and the pawn on C5 guards D4. A pawn on C2 can defend it.
+        IChessBoard backward = BoardType.ARRAY.create(new Fen("4k3/8/8/2p5/4P3/3P4/8/4K3 w - - 0 1"));
+        IChessBoard supported = BoardType.ARRAY.create(new Fen("4k3/8/8/2p5/4P3/3P4/2P5/4K3 w - - 0 1"));
+
+        // Act
+        int without = PawnStructure.evaluate(backward);
+        int with = PawnStructure.evaluate(supported);
+
+        // Assert
+        assertTrue(PieceSquareTables.middlegame(without) < PieceSquareTables.middlegame(with));
+    }
+
+    public void test_cacheGivesSameScoreAndHitsWhenPawnsStay() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            PawnCache cache = new PawnCache(16);
+
+            // Act
+            int first = cache.evaluate(board);
+            board.makeMove(BoardPosition.of("G1"), BoardPosition.of("F3"), null, new MoveUndo());
+            int second = cache.evaluate(board);
+
+            // Assert
+            assertEquals(PawnStructure.evaluate(board), first);
+            assertEquals(first, second);
+            assertEquals(2, cache.getProbes());
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    public void test_cacheSizeMustBePowerOfTwo() throws Exception {
+        try {
+            new PawnCache(100);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
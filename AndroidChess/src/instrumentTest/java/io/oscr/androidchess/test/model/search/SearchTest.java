@@ -0,0 +1,191 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.PositionHistory;
+import io.oscr.androidchess.model.search.Search;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.SearchOptions;
+import io.oscr.androidchess.model.search.SearchResult;
+import io.oscr.androidchess.model.search.TranspositionTable;
+
+/**
+ * Testing that Search finds the obvious moves in small positions for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class SearchTest extends TestCase {
+
+    public void test_findsMateInOne() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"));
+
+            // Act
+            SearchResult result = search(board, SearchLimits.depth(4));
+
+            // Assert
+            assertEquals(type.toString(), "a1a8", PackedMove.toString(result.move));
+            assertEquals(Search.MATE - 1, result.score);
+        }
+    }
+
+    public void test_findsMateInTwo() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. A7 cuts off the King, after which B8 is mate.
+            IChessBoard board = type.create(new Fen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1"));
+
+            // Act
+            SearchResult result = search(board, SearchLimits.depth(5));
+
+            // Assert
+            assertEquals(Search.MATE - 3, result.score);
+        }
+    }
+
+    public void test_capturesHangingQueen() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create(new Fen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1"));
+
+            // Act
+            SearchResult result = search(board, SearchLimits.depth(3));
+
+            // Assert
+            assertEquals(type.toString(), "d1d5", PackedMove.toString(result.move));
+        }
+    }
+
+    public void test_doesNotCaptureDefendedPawnWithQueen() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The pawn on D5 is defended by the pawn on C6.
+            IChessBoard board = type.create(new Fen("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1"));
+
+            // Act
+            SearchResult result = search(board, SearchLimits.depth(1));
+
+            // Assert
+            assertFalse(type.toString(), "d1d5".equals(PackedMove.toString(result.move)));
+        }
+    }
+
+    public void test_noLegalMove() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard stalemate = type.create(new Fen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+            IChessBoard checkmate = type.create(new Fen("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1"));
+
+            // Act
+            SearchResult drawn = search(stalemate, SearchLimits.depth(3));
+            SearchResult lost = search(checkmate, SearchLimits.depth(3));
+
+            // Assert
+            assertEquals(0, drawn.move);
+            assertEquals(0, drawn.score);
+            assertEquals(0, lost.move);
+            assertEquals(-Search.MATE, lost.score);
+        }
+    }
+
+    public void test_nodeBudgetIsKeptAndBoardRestored() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange
+            IChessBoard board = type.create();
+            String before = new Fen(board).toString();
+            long key = board.getKey();
+
+            // Act
+            SearchResult result = search(board, SearchLimits.nodes(5000));
+
+            // Assert
+            assertTrue(result.move != 0);
+            assertTrue(result.nodes <= 5000);
+            assertEquals(before, new Fen(board).toString());
+            assertEquals(key, board.getKey());
+        }
+    }
+
+    public void test_everyOptionFindsMateInTwo() throws Exception {
+        SearchOptions[] all = {
+                SearchOptions.NONE,
+                SearchOptions.ALL,
+                new SearchOptions(true, false, false, false),
+                new SearchOptions(false, true, false, false),
+                new SearchOptions(false, false, true, false),
+                new SearchOptions(false, false, false, true)};
+        for (SearchOptions options : all) {
+            // Arrange
+            IChessBoard board = BoardType.BITBOARD.create(new Fen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1"));
+
+            // Act
+            SearchResult result = new Search(new TranspositionTable(1), options).search(board, SearchLimits.depth(5));
+
+            // Assert
+            assertEquals(Search.MATE - 3, result.score);
+        }
+    }
+
+    public void test_selectiveSearchVisitsFewerNodesAndRestoresBoard() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. En passant is possible, which a null move clears and has to put back.
+            String fen = "r3k2r/p2pqpb1/bn2pnp1/2pPN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq c6 0 1";
+            IChessBoard board = type.create(new Fen(fen));
+            long key = board.getKey();
+
+            // Act
+            SearchResult plain = new Search(new TranspositionTable(1), SearchOptions.NONE).search(board, SearchLimits.depth(5));
+            SearchResult selective = new Search(new TranspositionTable(1), SearchOptions.ALL).search(board, SearchLimits.depth(5));
+
+            // Assert
+            assertTrue(type.toString(), selective.nodes < plain.nodes);
+            assertEquals(fen, new Fen(board).toString());
+            assertEquals(key, board.getKey());
+        }
+    }
+
+    public void test_losingSideRepeatsGamePosition() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. White is a Queen down, but G1-F3 gives a position the game has already had.
+            IChessBoard board = type.create(new Fen("7k/8/8/8/3q4/8/8/6NK w - - 0 1"));
+            PositionHistory history = new PositionHistory();
+            history.push(board.getKey(), true);
+            play(board, history, "G1", "F3", "D4", "C4", "F3", "G1", "C4", "D4");
+
+            // Act
+            SearchResult withHistory = new Search(new TranspositionTable(1)).search(board, history, SearchLimits.depth(4));
+            SearchResult without = search(board, SearchLimits.depth(4));
+
+            // Assert
+            assertEquals(type.toString(), "g1f3", PackedMove.toString(withHistory.move));
+            assertEquals(0, withHistory.score);
+            assertTrue(without.score < -500);
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Makes the moves given as pairs of from and to positions and adds the positions to the history.
+     */
+    private static void play(final IChessBoard board, final PositionHistory history, final String... positions) {
+        for (int i = 0; i < positions.length; i += 2) {
+            board.makeMove(BoardPosition.of(positions[i]), BoardPosition.of(positions[i + 1]), null, new MoveUndo());
+            history.push(board.getKey(), false);
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Searches the board with a new table.
+     */
+    private static SearchResult search(final IChessBoard board, final SearchLimits limits) {
+        return new Search(new TranspositionTable(1)).search(board, limits);
+    }
+}
@@ -0,0 +1,91 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.search.StaticExchange;
+
+/**
+ * Testing StaticExchange on capture sequences for every BoardType.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class StaticExchangeTest extends TestCase {
+
+    public void test_undefendedPieceIsWon() throws Exception {
+        assertSee("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1", "d1d5", 900);
+    }
+
+    public void test_defendedPawnTakenByQueenLosesQueen() throws Exception {
+        assertSee("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1", "d1d5", 100 - 900);
+    }
+
+    public void test_xRayRookBehindRookWinsKnight() throws Exception {
+        // The Rook on E1 recaptures through the Rook on E2, so Black doesn't take back.
+        assertSee("4r1k1/8/8/4n3/8/8/4R3/4R1K1 w - - 0 1", "e2e5", 320);
+    }
+
+    public void test_withoutXRayRookLosesExchange() throws Exception {
+        assertSee("4r1k1/8/8/4n3/8/8/4R3/6K1 w - - 0 1", "e2e5", 320 - 500);
+    }
+
+    public void test_kingOnlyCapturesLast() throws Exception {
+        // Black doesn't take back on D2 since the King would take the Rook.
+        assertSee("3rk3/8/8/8/8/8/3n4/3RK3 w - - 0 1", "d1d2", 320);
+    }
+
+    public void test_quietMoveToAttackedSquareLosesPiece() throws Exception {
+        assertSee("4k3/8/8/8/8/8/4n3/4RK2 b - - 0 1", "e2g3", 0);
+        assertSee("4k3/8/8/8/8/8/4n3/4RK2 b - - 0 1", "e2d4", 0);
+        assertSee("4k3/8/8/8/8/2R5/4n3/5K2 b - - 0 1", "e2c1", -320);
+    }
+
+    public void test_enPassantWinsPawn() throws Exception {
+        assertSee("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6", 100);
+    }
+
+    public void test_hangingPieces() throws Exception {
+        for (BoardType type : BoardType.values()) {
+            // Arrange. The Knight is attacked by a pawn, the pawn on A2 by a Rook, the pawn on H2 is defended.
+            IChessBoard board = type.create(new Fen("r3k3/8/8/8/5p2/4N3/P6P/4K1R1 w - - 0 1"));
+
+            // Act & Assert
+            assertTrue(type.toString(), StaticExchange.isHanging(board, BoardPosition.of("E3")));
+            assertTrue(type.toString(), StaticExchange.isHanging(board, BoardPosition.of("A2")));
+            assertFalse(type.toString(), StaticExchange.isHanging(board, BoardPosition.of("H2")));
+            assertFalse(type.toString(), StaticExchange.isHanging(board, BoardPosition.of("E1")));
+            assertFalse(type.toString(), StaticExchange.isHanging(board, BoardPosition.of("D4")));
+        }
+    }
+
+    /*
+     * Helper method.
+     *
+     * Checks the static exchange of the legal move written as in PackedMove#toString for every BoardType.
+     */
+    private static void assertSee(final String fen, final String move, final int expected) {
+        for (BoardType type : BoardType.values()) {
+            IChessBoard board = type.create(new Fen(fen));
+            String before = new Fen(board).toString();
+            assertEquals(type + " " + move, expected, StaticExchange.see(board, find(board, move)));
+            assertEquals(before, new Fen(board).toString());
+        }
+    }
+
+    private static int find(final IChessBoard board, final String move) {
+        MoveList moves = new MoveList();
+        MovementRules.generateMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toString(moves.get(i)).equals(move)) {
+                return moves.get(i);
+            }
+        }
+        throw new AssertionError("No move " + move);
+    }
+}
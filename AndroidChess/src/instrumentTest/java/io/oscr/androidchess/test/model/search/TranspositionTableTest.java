@@ -0,0 +1,131 @@
+package io.oscr.androidchess.test.model.search;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.oscr.androidchess.model.search.TranspositionTable;
+
+/**
+ * Testing the TranspositionTable class according to the specification and guarantees provided by
+ * it.
+ *
+ * Always using the Arrange-Act-Assert pattern
+ */
+public class TranspositionTableTest extends TestCase {
+
+    public void test_storeAndProbe() throws Exception {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+
+        // Act
+        table.store(0x123456789ABCDEFL, 0x7FFFF, -32000, 12, TranspositionTable.LOWER);
+        long entry = table.probe(0x123456789ABCDEFL);
+
+        // Assert
+        assertEquals(0x7FFFF, TranspositionTable.getMove(entry));
+        assertEquals(-32000, TranspositionTable.getScore(entry));
+        assertEquals(12, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry));
+        assertEquals(TranspositionTable.NOT_FOUND, table.probe(0x123456789ABCDEEL));
+        assertEquals(1024 * 1024 / 16, table.capacity());
+    }
+
+    public void test_deeperEntryOfCurrentSearchIsKept() throws Exception {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, 1, 100, 8, TranspositionTable.EXACT);
+
+        // Act
+        table.store(42, 2, 50, 3, TranspositionTable.UPPER);
+
+        // Assert
+        assertEquals(8, TranspositionTable.getDepth(table.probe(42)));
+
+        // Act. Entries of earlier searches are always replaced, and an unknown move keeps the old.
+        table.newSearch();
+        table.store(42, 0, 50, 3, TranspositionTable.UPPER);
+
+        // Assert
+        assertEquals(3, TranspositionTable.getDepth(table.probe(42)));
+        assertEquals(1, TranspositionTable.getMove(table.probe(42)));
+    }
+
+    public void test_shallowestEntryOfBucketIsReplaced() throws Exception {
+        // Arrange. The keys only differ in the low bits, so they share a bucket.
+        TranspositionTable table = new TranspositionTable(1);
+        for (int i = 1; i <= 4; i++) {
+            table.store(i, i, 0, i * 2, TranspositionTable.EXACT);
+        }
+
+        // Act
+        table.store(5, 5, 0, 3, TranspositionTable.EXACT);
+
+        // Assert
+        assertEquals(TranspositionTable.NOT_FOUND, table.probe(1));
+        for (int i = 2; i <= 5; i++) {
+            assertEquals(i, TranspositionTable.getMove(table.probe(i)));
+        }
+    }
+
+    public void test_oldEntriesAreReplacedFirst() throws Exception {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(1, 1, 0, 20, TranspositionTable.EXACT);
+        table.newSearch();
+        table.newSearch();
+        table.newSearch();
+        for (int i = 2; i <= 4; i++) {
+            table.store(i, i, 0, 5, TranspositionTable.EXACT);
+        }
+
+        // Act
+        table.store(5, 5, 0, 1, TranspositionTable.EXACT);
+
+        // Assert
+        assertEquals(TranspositionTable.NOT_FOUND, table.probe(1));
+        assertEquals(5, TranspositionTable.getMove(table.probe(5)));
+    }
+
+    public void test_concurrentAccessNeverGivesAnotherPositionsEntry() throws Exception {
+        // Arrange. The smallest table, so that the threads keep overwriting each others entries.
+        final TranspositionTable table = new TranspositionTable(1);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 200000; i++) {
+                        long key = random.nextLong() & 0xFFFFF00000000FFFL;
+                        long entry = table.probe(key);
+                        // Every thread stores the same data for a key, derived from the key.
+                        if (entry != TranspositionTable.NOT_FOUND && TranspositionTable.getMove(entry) != moveOf(key)) {
+                            errors.incrementAndGet();
+                        }
+                        table.store(key, moveOf(key), 0, random.nextInt(20), TranspositionTable.EXACT);
+                    }
+                }
+            });
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(0, errors.get());
+        assertTrue(table.hashfull() > 0);
+    }
+
+    private static int moveOf(final long key) {
+        return (int) ((key ^ key >>> 32) & 0x7FFFF);
+    }
+}
@@ -5,6 +5,8 @@ import android.content.DialogInterface;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.app.Activity;
 import android.util.Log;
 import android.view.Menu;
@@ -15,17 +17,21 @@ import android.widget.TextView;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.concurrent.Executor;
 
 import io.oscr.androidchess.controller.ChessController;
 import io.oscr.androidchess.model.BoardPosition;
 import io.oscr.androidchess.model.ChessModel;
-import io.oscr.androidchess.model.IChessModel;
 import io.oscr.androidchess.model.event.ChessEvent;
 import io.oscr.androidchess.model.event.PromotionEvent;
 import io.oscr.androidchess.model.event.RedrawAllEvent;
 import io.oscr.androidchess.model.event.RedrawEvent;
 import io.oscr.androidchess.model.pieces.PieceColor;
 import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.model.search.Engine;
+import io.oscr.androidchess.model.search.ParallelSearch;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.TranspositionTable;
 import io.oscr.androidchess.utils.Constants;
 
 import static io.oscr.androidchess.utils.Constants.FILES;
@@ -37,6 +43,16 @@ import static io.oscr.androidchess.utils.Constants.FILES;
  * changes occur as part of the Observer pattern.
  */
 public class MainActivity extends Activity implements PropertyChangeListener {
+    /**
+     * How long the computer opponent thinks about every move.
+     */
+    private static final long COMPUTER_MOVE_MILLIS = 2000;
+
+    /**
+     * Size of the computer opponent's transposition table.
+     */
+    private static final int COMPUTER_TABLE_MEGABYTES = 8;
+
     /**
      * Matrix containing the whole chessboard represented as buttons.
      */
@@ -57,7 +73,10 @@ public class MainActivity extends Activity implements PropertyChangeListener {
          * relations. However I'm unsure how to do this on the Android platform. So as ugly as it
          * is it's performed here. Adds the view as a listener to the ChessModel.
          */
-        IChessModel model = new ChessModel();
+        ChessModel model = new ChessModel();
+        model.setEngine(new Engine(new TranspositionTable(COMPUTER_TABLE_MEGABYTES),
+                SearchLimits.time(COMPUTER_MOVE_MILLIS), new MainThreadExecutor(),
+                Math.min(Runtime.getRuntime().availableProcessors(), ParallelSearch.MAX_THREADS)));
         controller = new ChessController(model);
         model.addObserver(this);
 
@@ -167,6 +186,10 @@ public class MainActivity extends Activity implements PropertyChangeListener {
             case R.id.action_new_game:
                 controller.newGame(PieceColor.WHITE);
                 break;
+            case R.id.action_computer_opponent:
+                item.setChecked(!item.isChecked());
+                controller.setComputerOpponent(item.isChecked() ? PieceColor.BLACK : null);
+                break;
         }
         return true;
     }
@@ -230,6 +253,18 @@ public class MainActivity extends Activity implements PropertyChangeListener {
         }
     }
 
+    /**
+     * Runs the computer's moves on the UI thread, since the views may only be changed from there.
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable runnable) {
+            handler.post(runnable);
+        }
+    }
+
     /**
      * Listener class for buttons. Each has it's own BoardPosition that is passed to the controller
      * as reference in order to identify what button was pushed.
@@ -246,7 +281,7 @@ public class MainActivity extends Activity implements PropertyChangeListener {
          * @param rank zero indexed rank.
          */
         private ButtonSelectionListener(int file, int rank){
-            position = new BoardPosition(file, rank);
+            position = BoardPosition.of(file, rank);
         }
 
         @Override
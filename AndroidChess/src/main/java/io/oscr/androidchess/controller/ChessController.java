@@ -3,6 +3,7 @@ package io.oscr.androidchess.controller;
 import android.graphics.drawable.ColorDrawable;
 
 import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.GameStatus;
 import io.oscr.androidchess.model.IChessModel;
 import io.oscr.androidchess.model.event.PromotionEvent;
 import io.oscr.androidchess.model.pieces.PieceColor;
@@ -44,7 +45,7 @@ public final class ChessController {
      * @return a ColorDrawable for the specified position.
      */
 	public ColorDrawable getBoardColor(final int file, final int rank) {
-		return model.getBoardColor(new BoardPosition(file, rank));
+		return model.getBoardColor(BoardPosition.of(file, rank));
 	}
 
     /**
@@ -56,7 +57,7 @@ public final class ChessController {
      * @return resource image name or null if no piece at specified position.
      */
 	public String getPieceString(final int file, final int rank) {
-		return model.getPieceString(new BoardPosition(file, rank));
+		return model.getPieceString(BoardPosition.of(file, rank));
 	}
 
     /**
@@ -87,6 +88,14 @@ public final class ChessController {
 		return model.getDisplayInformation();
 	}
 
+    /**
+     * @see IChessModel#getGameStatus()
+     * @return the status of the game after the latest move.
+     */
+	public GameStatus getGameStatus() {
+		return model.getGameStatus();
+	}
+
     /**
      * @see io.oscr.androidchess.model.IChessModel#changeColorTheme()
      */
@@ -94,6 +103,16 @@ public final class ChessController {
 		model.changeColorTheme();
 	}
 
+    /**
+     * Lets the computer play a color.
+     *
+     * @see IChessModel#setComputerOpponent(io.oscr.androidchess.model.pieces.PieceColor)
+     * @param color the computer plays, or null for two human players.
+     */
+	public void setComputerOpponent(final PieceColor color) {
+		model.setComputerOpponent(color);
+	}
+
     /**
      * Callback after PromotionEvent has been received by View.
      *
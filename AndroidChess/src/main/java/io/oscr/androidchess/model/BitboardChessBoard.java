@@ -0,0 +1,770 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Implements the Chess Board abstraction using bitboards.
+ *
+ * Every combination of PieceColor and PieceType has its own 64 bit long where bit number
+ * rank * 8 + file is set if such a piece is placed on that square. Attacks for the Knight, King
+ * and Pawn are precomputed when the class is loaded, and attacks for sliding pieces are found
+ * by following precomputed rays until the first blocking piece.
+ *
+ * The moves given by getTargets are exactly the ones MovementRules gives for ChessBoard, which
+ * lets the two implementations be used interchangeably.
+ *
+ * @see BoardType for selecting the board implementation at runtime.
+ */
+public class BitboardChessBoard implements IChessBoard {
+    private static final int SQUARES = 64;
+
+    // Cached since values() gives a new array on every call.
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final PieceColor[] COLORS = PieceColor.values();
+    private static final int PIECE_TYPES = TYPES.length;
+
+    // Precomputed attack tables indexed by square.
+    static final long[] KNIGHT_ATTACKS = new long[SQUARES];
+    static final long[] KING_ATTACKS = new long[SQUARES];
+    static final long[][] PAWN_ATTACKS = new long[COLORS.length][SQUARES];
+
+    /*
+     * Rays for sliding pieces indexed by direction and square. The first four directions
+     * move towards higher square numbers and the last four towards lower, which decides if
+     * the closest blocker is the lowest or highest set bit.
+     */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 1}, {1, 0}, {-1, 1},
+                                               {0, -1}, {-1, -1}, {-1, 0}, {1, -1}};
+    private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+    private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+    static final long[][] RAYS = new long[DIRECTIONS.length][SQUARES];
+
+    private static final int[][] KNIGHT_DELTA = {{-1, 2}, {1, 2}, {-2, 1}, {-2, -1},
+                                                 {-1, -2}, {1, -2}, {2, 1}, {2, -1}};
+
+    static {
+        for (int square = 0; square < SQUARES; square++) {
+            final int file = square % Constants.BOARD_SIZE;
+            final int rank = square / Constants.BOARD_SIZE;
+
+            for (int[] delta : KNIGHT_DELTA) {
+                KNIGHT_ATTACKS[square] |= bit(file + delta[0], rank + delta[1]);
+            }
+
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    if (i != 0 || j != 0) {
+                        KING_ATTACKS[square] |= bit(file + i, rank + j);
+                    }
+                }
+            }
+
+            PAWN_ATTACKS[PieceColor.WHITE.ordinal()][square] = bit(file - 1, rank + Constants.WHITE_PAWN_MOVE_DELTA)
+                    | bit(file + 1, rank + Constants.WHITE_PAWN_MOVE_DELTA);
+            PAWN_ATTACKS[PieceColor.BLACK.ordinal()][square] = bit(file - 1, rank + Constants.BLACK_PAWN_MOVE_DELTA)
+                    | bit(file + 1, rank + Constants.BLACK_PAWN_MOVE_DELTA);
+
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                for (int f = file + DIRECTIONS[direction][0], r = rank + DIRECTIONS[direction][1];
+                     BoardPosition.isOnBoard(f, r);
+                     f += DIRECTIONS[direction][0], r += DIRECTIONS[direction][1]) {
+                    RAYS[direction][square] |= bit(f, r);
+                }
+            }
+        }
+    }
+
+    // One bitboard for every combination of color and type.
+    private final long[] pieces = new long[COLORS.length * PIECE_TYPES];
+
+    // All pieces of each color. Kept in sync with pieces.
+    private final long[] occupied = new long[COLORS.length];
+
+    // Needed for en passant
+    private BoardPosition enPassant = null;
+    private BoardPosition enPassantPawn = null;
+
+    // Needed for castling.
+    private boolean whiteKingIsMoved = false;
+    private boolean blackKingIsMoved = false;
+
+    // What players turn it is.
+    private PieceColor turn = PieceColor.WHITE;
+
+    // Zobrist key of the position. Updated by every method that changes the position.
+    private long key;
+
+    // Zobrist key of the pawns. Updated together with the key.
+    private long pawnKey;
+
+    // Packed piece-square score and game phase. Updated together with the key.
+    private int score;
+    private int phase;
+
+    /**
+     * Creates a board in normal starting state.
+     */
+    public BitboardChessBoard() {
+        final PieceType[] backRow = {PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+                PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
+
+        for (int file = 0; file < Constants.BOARD_SIZE; file++) {
+            place(PieceColor.WHITE, backRow[file], square(file, 0));
+            place(PieceColor.WHITE, PieceType.PAWN, square(file, Constants.WHITE_HOME_ROW));
+            place(PieceColor.BLACK, backRow[file], square(file, Constants.BOARD_MAX_POSITION));
+            place(PieceColor.BLACK, PieceType.PAWN, square(file, Constants.BLACK_HOME_ROW));
+        }
+        key = Zobrist.compute(this);
+    }
+
+    /**
+     * Creates a board in the position described by the argument.
+     *
+     * @throws NullPointerException if fen is null.
+     * @param fen position to set up.
+     */
+    public BitboardChessBoard(final Fen fen) {
+        checkNotNull(fen, "Argument fen was null. Expected non null");
+        for (int file = 0; file < Constants.BOARD_SIZE; file++) {
+            for (int rank = 0; rank < Constants.BOARD_SIZE; rank++) {
+                final IChessPiece piece = fen.getChessPiece(file, rank);
+                if (piece != null) {
+                    place(piece.getPieceColor(), piece.getPieceType(), square(file, rank));
+                }
+            }
+        }
+        this.whiteKingIsMoved = fen.isKingMoved(PieceColor.WHITE);
+        this.blackKingIsMoved = fen.isKingMoved(PieceColor.BLACK);
+        this.enPassant = fen.getEnPassant();
+        this.enPassantPawn = fen.getEnPassantPawn();
+        this.turn = fen.getTurn();
+        key = Zobrist.compute(this);
+    }
+
+    /**
+     * Copy constructor. Will instantiate the object with the same state as the parameter argument.
+     *
+     * @param other BitboardChessBoard to copy state of.
+     */
+    public BitboardChessBoard(final BitboardChessBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.occupied, 0, occupied, 0, occupied.length);
+        this.whiteKingIsMoved = other.whiteKingIsMoved;
+        this.blackKingIsMoved = other.blackKingIsMoved;
+        this.enPassant = other.enPassant;
+        this.enPassantPawn = other.enPassantPawn;
+        this.turn = other.turn;
+        this.key = other.key;
+        this.pawnKey = other.pawnKey;
+        this.score = other.score;
+        this.phase = other.phase;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if file or rank is outside board limits.
+     */
+    @Override
+    public boolean isEmpty(final int file, final int rank) {
+        checkOnBoard(file, rank);
+        return ((occupied[0] | occupied[1]) & (1L << square(file, rank))) == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws NullPointerException if position is null.
+     */
+    @Override
+    public boolean isEmpty(final BoardPosition position) {
+        checkNotNull(position, "Argument position was null. Expected non null");
+        return ((occupied[0] | occupied[1]) & bit(position)) == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setKingMoved(final BoardPosition position) {
+        IChessPiece piece = getChessPiece(position);
+        if (piece.getPieceType() == PieceType.KING && !isKingMoved(piece.getPieceColor())) {
+            if (piece.getPieceColor() == PieceColor.WHITE) {
+                whiteKingIsMoved = true;
+            } else {
+                blackKingIsMoved = true;
+            }
+            key ^= Zobrist.kingMoved(piece.getPieceColor());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isKingMoved(final PieceColor pieceColor) {
+        return pieceColor == PieceColor.WHITE
+                ? whiteKingIsMoved
+                : blackKingIsMoved;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws NullPointerException if position is null.
+     */
+    @Override
+    public IChessPiece getChessPiece(final BoardPosition position) {
+        checkNotNull(position, "Argument was null. Expected non null");
+        return getChessPiece(square(position.getFile(), position.getRank()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if file or rank isn't within board limits.
+     */
+    @Override
+    public IChessPiece getChessPiece(final int file, final int rank) {
+        checkOnBoard(file, rank);
+        return getChessPiece(square(file, rank));
+    }
+
+    private IChessPiece getChessPiece(final int square) {
+        final int index = pieceIndex(square);
+        return index < 0 ? null : ChessPiece.valueOf(COLORS[index / PIECE_TYPES], TYPES[index % PIECE_TYPES]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PieceColor getTurn() {
+        return turn;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void switchTurn() {
+        turn = PieceColor.switchTurn(turn);
+        key ^= Zobrist.turn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void move(final BoardPosition from, final BoardPosition to) {
+        checkNotNull(from, "Argument from was null. Expected non null");
+        checkNotNull(to, "Argument to was null. Expected non null");
+
+        final int fromSquare = square(from.getFile(), from.getRank());
+        final int toSquare = square(to.getFile(), to.getRank());
+        final int index = pieceIndex(fromSquare);
+
+        // Whatever was on the to square is captured
+        clear(fromSquare);
+        clear(toSquare);
+        if (index >= 0) {
+            place(COLORS[index / PIECE_TYPES], TYPES[index % PIECE_TYPES], toSquare);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPromotion(final ChessPiece chessPiece, final BoardPosition position) {
+        final int square = square(position.getFile(), position.getRank());
+        clear(square);
+        place(chessPiece.getPieceColor(), chessPiece.getPieceType(), square);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeEnPassantPawn() {
+        clear(square(enPassantPawn.getFile(), enPassantPawn.getRank()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEnPassant(final BoardPosition enPassant, final BoardPosition enPassantPawn) {
+        key ^= Zobrist.enPassant(this.enPassant) ^ Zobrist.enPassant(enPassant);
+        this.enPassant = enPassant;
+        this.enPassantPawn = enPassantPawn;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardPosition getEnPassantPawn() {
+        return enPassantPawn;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardPosition getEnPassant() {
+        return enPassant;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void makeMove(final BoardPosition from, final BoardPosition to, final PieceType promotion,
+                         final MoveUndo undo) {
+        checkNotNull(from, "Argument from was null. Expected non null");
+        checkNotNull(to, "Argument to was null. Expected non null");
+        checkNotNull(undo, "Argument undo was null. Expected non null");
+
+        final IChessPiece piece = getChessPiece(from);
+        checkNotNull(piece, "Piece was null. Excepted not null");
+
+        // Save the state that the move changes
+        undo.from = from;
+        undo.to = to;
+        undo.moved = piece;
+        undo.captured = getChessPiece(to);
+        undo.capturedPosition = to;
+        undo.rookFrom = null;
+        undo.rookTo = null;
+        undo.enPassant = enPassant;
+        undo.enPassantPawn = enPassantPawn;
+        undo.whiteKingIsMoved = whiteKingIsMoved;
+        undo.blackKingIsMoved = blackKingIsMoved;
+        undo.turn = turn;
+        undo.key = key;
+        undo.pawnKey = pawnKey;
+        undo.score = score;
+        undo.phase = phase;
+
+        BoardPosition newEnPassant = null;
+        BoardPosition newEnPassantPawn = null;
+        if (piece.getPieceType() == PieceType.PAWN) {
+            if (to.equals(enPassant) && enPassantPawn != null) {
+                undo.captured = getChessPiece(enPassantPawn);
+                undo.capturedPosition = enPassantPawn;
+                removeEnPassantPawn();
+            } else if (Math.abs(to.getRank() - from.getRank()) == 2) {
+                newEnPassant = BoardPosition.of(from.getFile(), (from.getRank() + to.getRank()) / 2);
+                newEnPassantPawn = to;
+            }
+        } else if (piece.getPieceType() == PieceType.KING && Math.abs(to.getFile() - from.getFile()) == 2) {
+            // Castle. The Rook ends up on the square the King passes.
+            undo.rookFrom = BoardPosition.of(to.getFile() > from.getFile()
+                    ? Constants.BOARD_MAX_POSITION : Constants.BOARD_MIN_POSITION, from.getRank());
+            undo.rookTo = BoardPosition.of((from.getFile() + to.getFile()) / 2, from.getRank());
+            move(undo.rookFrom, undo.rookTo);
+        }
+
+        move(from, to);
+        // Only a pawn reaching the last row is promoted. Other moves ignore the argument.
+        if (promotion != null && piece.getPieceType() == PieceType.PAWN
+                && (to.getRank() == Constants.WHITE_PAWN_LAST_RANK || to.getRank() == Constants.BLACK_PAWN_LAST_RANK)) {
+            setPromotion(ChessPiece.valueOf(piece.getPieceColor(), promotion), to);
+        }
+        setEnPassant(newEnPassant, newEnPassantPawn);
+        setKingMoved(to);
+        switchTurn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unmakeMove(final MoveUndo undo) {
+        checkNotNull(undo, "Argument undo was null. Expected non null");
+
+        clear(square(undo.to.getFile(), undo.to.getRank()));
+        place(undo.moved.getPieceColor(), undo.moved.getPieceType(), square(undo.from.getFile(), undo.from.getRank()));
+        if (undo.captured != null) {
+            place(undo.captured.getPieceColor(), undo.captured.getPieceType(),
+                    square(undo.capturedPosition.getFile(), undo.capturedPosition.getRank()));
+        }
+        if (undo.rookFrom != null) {
+            move(undo.rookTo, undo.rookFrom);
+        }
+
+        enPassant = undo.enPassant;
+        enPassantPawn = undo.enPassantPawn;
+        whiteKingIsMoved = undo.whiteKingIsMoved;
+        blackKingIsMoved = undo.blackKingIsMoved;
+        turn = undo.turn;
+        key = undo.key;
+        pawnKey = undo.pawnKey;
+        score = undo.score;
+        phase = undo.phase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPieceSquareScore() {
+        return score;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gives all squares the piece on from can move to as a bitboard. The moves follow the same
+     * rules and limitations as MovementRules#getLegalMoves, which means that they may leave the
+     * King in check.
+     *
+     * @see MovementRules#getLegalMoves(BoardPosition, IChessBoard)
+     * @throws NullPointerException if from is null or there is no piece on it.
+     * @param from what position is the piece placed on.
+     * @return bitboard with a bit set for every square the piece can move to.
+     */
+    public long getTargets(final BoardPosition from) {
+        checkNotNull(from, "Argument from was null. Expected non null");
+        return getTargets(square(from.getFile(), from.getRank()));
+    }
+
+    /**
+     * Same as getTargets(BoardPosition) but takes the square number rank * 8 + file.
+     *
+     * @see #getTargets(BoardPosition)
+     * @throws NullPointerException if there is no piece on the square.
+     * @param square what square is the piece placed on.
+     * @return bitboard with a bit set for every square the piece can move to.
+     */
+    public long getTargets(final int square) {
+        final int index = pieceIndex(square);
+        if (index < 0) {
+            throw new NullPointerException("Piece was null. Excepted not null");
+        }
+
+        final int color = index / PIECE_TYPES;
+        final long own = occupied[color];
+        final long all = occupied[0] | occupied[1];
+
+        switch (TYPES[index % PIECE_TYPES]) {
+            case PAWN:
+                return pawnTargets(square, color, all);
+            case ROOK:
+                return rookAttacks(square, all) & ~own;
+            case KNIGHT:
+                return KNIGHT_ATTACKS[square] & ~own;
+            case BISHOP:
+                return bishopAttacks(square, all) & ~own;
+            case QUEEN:
+                return (rookAttacks(square, all) | bishopAttacks(square, all)) & ~own;
+            case KING:
+                return (KING_ATTACKS[square] & ~own) | castlingTargets(color, all);
+            default:
+                throw new IllegalStateException("Unknown piece type: " + index);
+        }
+    }
+
+    /**
+     * Checks if any piece of the color byColor attacks the square. Looks outward from the square
+     * with the attack tables and stops at the first attacker found.
+     *
+     * The piece on the square ignore, if any, is treated as if it wasn't on the board. This lets a
+     * King's destination be checked while the King still stands in the way of the attack. Pass -1
+     * to not ignore any square.
+     *
+     * @see MovementRules#isSquareAttacked(IChessBoard, BoardPosition, PieceColor)
+     * @param square the square number rank * 8 + file to check.
+     * @param byColor the color of the attacking pieces.
+     * @param ignore square number of a piece to disregard, or -1.
+     * @return true if the square is attacked, otherwise false.
+     */
+    public boolean isSquareAttacked(final int square, final PieceColor byColor, final int ignore) {
+        final int by = byColor.ordinal();
+        final int offset = by * PIECE_TYPES;
+
+        // A pawn attacks the square if a pawn of the other color on the square would attack it.
+        if ((PAWN_ATTACKS[1 - by][square] & pieces[offset + PieceType.PAWN.ordinal()]) != 0
+                || (KNIGHT_ATTACKS[square] & pieces[offset + PieceType.KNIGHT.ordinal()]) != 0
+                || (KING_ATTACKS[square] & pieces[offset + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        final long all = (occupied[0] | occupied[1]) & ~(ignore < 0 ? 0 : 1L << ignore);
+        final long queens = pieces[offset + PieceType.QUEEN.ordinal()];
+        return (rookAttacks(square, all) & (pieces[offset + PieceType.ROOK.ordinal()] | queens)) != 0
+                || (bishopAttacks(square, all) & (pieces[offset + PieceType.BISHOP.ordinal()] | queens)) != 0;
+    }
+
+    /**
+     * Gives the square number of the King of the specified color, or -1 if there is none.
+     *
+     * @param pieceColor whose King to find.
+     * @return the square number rank * 8 + file, or -1.
+     */
+    public int getKingSquare(final PieceColor pieceColor) {
+        final long king = pieces[index(pieceColor, PieceType.KING)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardPosition getKingPosition(final PieceColor pieceColor) {
+        final int square = getKingSquare(pieceColor);
+        return square < 0 ? null : toBoardPosition(square);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPieceCount(final PieceColor pieceColor) {
+        return Long.bitCount(occupied[pieceColor.ordinal()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The pieces are ordered by square number, which doesn't change when a move is made and
+     * taken back.
+     *
+     * @throws IndexOutOfBoundsException if index isn't smaller than getPieceCount.
+     */
+    @Override
+    public BoardPosition getPiecePosition(final PieceColor pieceColor, final int index) {
+        if (index < 0 || index >= getPieceCount(pieceColor)) {
+            throw new IndexOutOfBoundsException("Index " + index + " but only "
+                    + getPieceCount(pieceColor) + " pieces");
+        }
+        long remaining = occupied[pieceColor.ordinal()];
+        for (int i = 0; i < index; i++) {
+            remaining &= remaining - 1;
+        }
+        return toBoardPosition(Long.numberOfTrailingZeros(remaining));
+    }
+
+    /**
+     * Gives the squares that the sliding piece on square attacks along rank and file. The first
+     * piece in every direction is included regardless of its color.
+     *
+     * @param square where the piece is placed.
+     * @param all every occupied square.
+     * @return bitboard of attacked squares.
+     */
+    static long rookAttacks(final int square, final long all) {
+        long attacks = 0;
+        for (int direction : ROOK_DIRECTIONS) {
+            attacks |= rayAttacks(direction, square, all);
+        }
+        return attacks;
+    }
+
+    /**
+     * Gives the squares that the sliding piece on square attacks along the diagonals. The first
+     * piece in every direction is included regardless of its color.
+     *
+     * @param square where the piece is placed.
+     * @param all every occupied square.
+     * @return bitboard of attacked squares.
+     */
+    static long bishopAttacks(final int square, final long all) {
+        long attacks = 0;
+        for (int direction : BISHOP_DIRECTIONS) {
+            attacks |= rayAttacks(direction, square, all);
+        }
+        return attacks;
+    }
+
+    /*
+     * Follows the ray from square in direction and cuts it off behind the closest blocker.
+     */
+    private static long rayAttacks(final int direction, final int square, final long all) {
+        long attacks = RAYS[direction][square];
+        final long blockers = attacks & all;
+        if (blockers != 0) {
+            final int blocker = direction < 4
+                    ? Long.numberOfTrailingZeros(blockers)
+                    : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[direction][blocker];
+        }
+        return attacks;
+    }
+
+    /*
+     * Mirrors MovementRules#getPawnTargets: promotion row, en passant, one or two steps
+     * forward and captures to the side.
+     */
+    private long pawnTargets(final int square, final int color, final long all) {
+        final int file = square % Constants.BOARD_SIZE;
+        final int rank = square / Constants.BOARD_SIZE;
+        if (rank == Constants.WHITE_PAWN_LAST_RANK || rank == Constants.BLACK_PAWN_LAST_RANK) {
+            return 0;
+        }
+
+        long targets = 0;
+        if (enPassantPawn != null && enPassantPawn.getRank() == rank
+                && Math.abs(enPassantPawn.getFile() - file) == 1) {
+            targets |= bit(enPassant);
+        }
+
+        final PieceColor pieceColor = COLORS[color];
+        final int delta = Constants.getMoveDelta(pieceColor);
+        final long forward = bit(file, rank + delta);
+        if ((forward & all) == 0) {
+            targets |= forward;
+            if (rank == Constants.getHomeRow(pieceColor)) {
+                final long twoForward = bit(file, rank + 2 * delta);
+                if ((twoForward & all) == 0) {
+                    targets |= twoForward;
+                }
+            }
+        }
+        return targets | (PAWN_ATTACKS[color][square] & occupied[1 - color]);
+    }
+
+    /*
+     * Mirrors the castling part of MovementRules#getKingTargets. Only checks that the King
+     * hasn't moved, that the Rook is in place and that the squares between them are empty.
+     */
+    private long castlingTargets(final int color, final long all) {
+        final PieceColor pieceColor = COLORS[color];
+        if (isKingMoved(pieceColor)) {
+            return 0;
+        }
+
+        final long rooks = pieces[index(pieceColor, PieceType.ROOK)];
+        long targets = 0;
+        if (pieceColor == PieceColor.WHITE) {
+            if ((rooks & bit(Constants.W_KINGSIDE_ROOK_START)) != 0
+                    && (all & (bit(Constants.W_KINGSIDE_FIRST_EMPTY) | bit(Constants.W_KINGSIDE_SECOND_EMPTY))) == 0) {
+                targets |= bit(Constants.W_KINGSIDE_KING);
+            }
+            if ((rooks & bit(Constants.W_QUEENSIDE_ROOK_START)) != 0
+                    && (all & (bit(Constants.W_QUEENSIDE_FIRST_EMPTY) | bit(Constants.W_QUEENSIDE_SECOND_EMPTY)
+                    | bit(Constants.W_QUEENSIDE_THIRD_EMPTY))) == 0) {
+                targets |= bit(Constants.W_QUEENSIDE_KING);
+            }
+        } else {
+            if ((rooks & bit(Constants.B_KINGSIDE_ROOK_START)) != 0
+                    && (all & (bit(Constants.B_KINGSIDE_FIRST_EMPTY) | bit(Constants.B_KINGSIDE_SECOND_EMPTY))) == 0) {
+                targets |= bit(Constants.B_KINGSIDE_KING);
+            }
+            if ((rooks & bit(Constants.B_QUEENSIDE_ROOK_START)) != 0
+                    && (all & (bit(Constants.B_QUEENSIDE_FIRST_EMPTY) | bit(Constants.B_QUEENSIDE_SECOND_EMPTY)
+                    | bit(Constants.B_QUEENSIDE_THIRD_EMPTY))) == 0) {
+                targets |= bit(Constants.B_QUEENSIDE_KING);
+            }
+        }
+        return targets;
+    }
+
+    /*
+     * Gives the index in pieces for the piece on square, or -1 if the square is empty.
+     */
+    private int pieceIndex(final int square) {
+        final long mask = 1L << square;
+        if (((occupied[0] | occupied[1]) & mask) == 0) {
+            return -1;
+        }
+        for (int index = 0; index < pieces.length; index++) {
+            if ((pieces[index] & mask) != 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void place(final PieceColor color, final PieceType type, final int square) {
+        pieces[index(color, type)] |= 1L << square;
+        occupied[color.ordinal()] |= 1L << square;
+        key ^= Zobrist.piece(color, type, square);
+        if (type == PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(color, type, square);
+        }
+        score += PieceSquareTables.piece(color, type, square);
+        phase += PieceSquareTables.phase(type);
+    }
+
+    private void clear(final int square) {
+        final int index = pieceIndex(square);
+        if (index < 0) {
+            return;
+        }
+        pieces[index] &= ~(1L << square);
+        occupied[index / PIECE_TYPES] &= ~(1L << square);
+        final PieceType type = TYPES[index % PIECE_TYPES];
+        key ^= Zobrist.piece(COLORS[index / PIECE_TYPES], type, square);
+        if (type == PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(COLORS[index / PIECE_TYPES], type, square);
+        }
+        score -= PieceSquareTables.piece(COLORS[index / PIECE_TYPES], type, square);
+        phase -= PieceSquareTables.phase(type);
+    }
+
+    private static int index(final PieceColor color, final PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    /**
+     * Gives the square number used as bit index for the given zero indexed file and rank.
+     *
+     * @param file zero indexed file.
+     * @param rank zero indexed rank.
+     * @return rank * 8 + file.
+     */
+    static int square(final int file, final int rank) {
+        return rank * Constants.BOARD_SIZE + file;
+    }
+
+    /*
+     * Gives a bitboard with only the bit for file and rank set, or no bit at all if the
+     * position is outside the board.
+     */
+    private static long bit(final int file, final int rank) {
+        if (!BoardPosition.isOnBoard(file, rank)) {
+            return 0;
+        }
+        return 1L << square(file, rank);
+    }
+
+    private static void checkOnBoard(final int file, final int rank) {
+        if (!BoardPosition.isOnBoard(file, rank)) {
+            throw new IllegalArgumentException("Position outside board: " + file + ", " + rank);
+        }
+    }
+
+    private static BoardPosition toBoardPosition(final int square) {
+        return BoardPosition.of(square % Constants.BOARD_SIZE, square / Constants.BOARD_SIZE);
+    }
+
+    private static long bit(final BoardPosition position) {
+        return 1L << square(position.getFile(), position.getRank());
+    }
+}
@@ -13,6 +13,10 @@ import static com.google.common.base.Preconditions.checkPositionIndex;
  *
  * Represents a position on the chess board. The internal representation is zero indexed while
  * providing toString method to obtain it in human readable form.
+ *
+ * There is exactly one instance for each of the 64 positions. They are created when the class is
+ * loaded and given out by the of methods, so obtaining a BoardPosition never creates garbage and
+ * two BoardPositions are equal only if they are the same object.
  */
 public final class BoardPosition implements Serializable {
 	// Used in order to convert file value to letter.
@@ -20,33 +24,55 @@ public final class BoardPosition implements Serializable {
 
     // Used to convert a letter to int.
     private static final String stringToInt = "ABCDEFGH";
+
+    // All positions indexed by rank * 8 + file.
+    private static final BoardPosition[] POSITIONS = new BoardPosition[Constants.BOARD_SIZE * Constants.BOARD_SIZE];
+
+    static {
+        for (int i = 0; i < POSITIONS.length; i++) {
+            POSITIONS[i] = new BoardPosition(i % Constants.BOARD_SIZE, i / Constants.BOARD_SIZE);
+        }
+    }
+
 	private final int file;
 	private final int rank;
 
+	private BoardPosition(final int file, final int rank) {
+        this.file = file;
+		this.rank = rank;
+	}
+
 	/**
-	 * Given a position in a string will create a representation of that position.
-	 * 
+	 * Given a position in a string will give the representation of that position. Letters may be
+	 * upper or lower case.
+	 *
 	 * @throws NullPointerException if position argument is null.
 	 * @throws IllegalArgumentException if position argument is invalid length.
      * @throws IndexOutOfBoundsException if position is outside the bounds defined in Constants.
      * @see Constants for board limitations.
-	 * @param position to represent.
+	 * @param position to represent, for example "E4".
+	 * @return the BoardPosition.
 	 */
-	public BoardPosition(String position) {
+	public static BoardPosition of(String position) {
 		checkNotNull(position, "Argument position was null. Expected non null");
 		checkArgument(position.length() == 2, "Argument position was incorrect length");
-		
-		position = position.toUpperCase();
-		file = stringToInt.indexOf(position.charAt(0));
+
+		// Read character by character so that no new strings are created.
+		final int file = stringToInt.indexOf(Character.toUpperCase(position.charAt(0)));
+		final char rankDigit = position.charAt(1);
+		if (!Character.isDigit(rankDigit)) {
+			throw new NumberFormatException("For input string: \"" + position.substring(1) + "\"");
+		}
 
 		// -1 because chess board coordinates aren't zero indexed
-		rank = Integer.parseInt(position.substring(1)) - 1;
+		final int rank = Character.digit(rankDigit, 10) - 1;
         checkPositionIndex(file, Constants.BOARD_MAX_POSITION);
 		checkPositionIndex(rank, Constants.BOARD_MAX_POSITION);
+		return POSITIONS[rank * Constants.BOARD_SIZE + file];
 	}
 
 	/**
-	 * Given a file and rank will create a representation of that position. <b>Note that file and rank
+	 * Given a file and rank will give the representation of that position. <b>Note that file and rank
      * are zero indexed!</b>
      *
      * @throws IllegalArgumentException if file or rank is greater than or or smaller than limits
@@ -54,15 +80,43 @@ public final class BoardPosition implements Serializable {
      * @see Constants for board limitations.
      * @param file to represent. Zero indexed.
 	 * @param rank to represent. Zero indexed.
+	 * @return the BoardPosition.
 	 */
-	public BoardPosition(final int file, final int rank) {
-		checkArgument(file >= Constants.BOARD_MIN_POSITION, "Argument file is smaller that specified: %s", file);
-		checkArgument(rank >= Constants.BOARD_MIN_POSITION, "Argument rank is smaller that specified: %s", rank);
-		checkArgument(file <= Constants.BOARD_MAX_POSITION, "Argument file is larger that specified: %s", file);
-		checkArgument(rank <= Constants.BOARD_MAX_POSITION, "Argument rank is larger that specified: %s", rank);
+	public static BoardPosition of(final int file, final int rank) {
+		// Checked without building a message, since this is called during move generation.
+		if (!isOnBoard(file, rank)) {
+			throw new IllegalArgumentException("Argument file or rank is outside the board: " + file + ", " + rank);
+		}
+		return POSITIONS[rank * Constants.BOARD_SIZE + file];
+	}
 
-        this.file = file;
-		this.rank = rank;
+	/**
+	 * Given a position number rank * 8 + file will give the representation of that position. The
+	 * inverse of getIndex.
+	 *
+	 * @throws IllegalArgumentException if index is not between 0 and 63.
+	 * @param index position number to represent.
+	 * @return the BoardPosition.
+	 */
+	public static BoardPosition of(final int index) {
+		if (index < 0 || index >= POSITIONS.length) {
+			throw new IllegalArgumentException("Argument index is outside the board: " + index);
+		}
+		return POSITIONS[index];
+	}
+
+	/**
+	 * Checks if the zero indexed file and rank are within the board limits defined in Constants.
+	 * Allows a position to be bounds checked without constructing it and catching the exception.
+	 *
+	 * @see Constants for board limitations.
+	 * @param file to check. Zero indexed.
+	 * @param rank to check. Zero indexed.
+	 * @return true if the position is on the board, otherwise false.
+	 */
+	public static boolean isOnBoard(final int file, final int rank) {
+		return file >= Constants.BOARD_MIN_POSITION && file <= Constants.BOARD_MAX_POSITION
+				&& rank >= Constants.BOARD_MIN_POSITION && rank <= Constants.BOARD_MAX_POSITION;
 	}
 
 	/**
@@ -84,24 +138,29 @@ public final class BoardPosition implements Serializable {
 	}
 
 	/**
-	 * Two BoardPosition objects are considered equal if their file and rank are equal. Equals
-     * will use getClass() to ensure that it is invoked on two BoardPosition objects.
+	 * Gives the position number rank * 8 + file, which is between 0 and 63.
+	 *
+	 * @return position number.
+	 */
+	public int getIndex() {
+		return rank * Constants.BOARD_SIZE + file;
+	}
+
+	/**
+	 * Two BoardPosition objects are equal only if they are the same object. Since there is only one
+	 * instance per position this is the same as comparing file and rank.
 	 */
 	@Override
 	public boolean equals(Object o) {
-		if (o == null || o.getClass() != getClass())
-			return false;
-
-		BoardPosition that = (BoardPosition) o;
-		return that.file == file && that.rank == rank;
+		return this == o;
 	}
 
     /**
-     * The hash code is generated according to best practice using file and rank.
+     * The hash code is the position number rank * 8 + file, which is unique for every position.
      */
 	@Override
 	public int hashCode() {
-		return file * 3 + rank * 5;
+		return rank * Constants.BOARD_SIZE + file;
 	}
 
     /**
@@ -114,4 +173,11 @@ public final class BoardPosition implements Serializable {
 	public String toString() {
 		return intToFileLetter[file] + (rank + 1);
 	}
+
+    /*
+     * Keeps a deserialized BoardPosition from becoming a second instance of its position.
+     */
+    private Object readResolve() {
+        return of(file, rank);
+    }
 }
\ No newline at end of file
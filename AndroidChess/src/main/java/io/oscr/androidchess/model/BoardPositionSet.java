@@ -0,0 +1,131 @@
+package io.oscr.androidchess.model;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mutable. Marked as final.
+ *
+ * A Set of BoardPositions stored as one 64 bit long where bit number rank * 8 + file is set if the
+ * position is in the set. Adding, removing and looking up a position only changes or tests a bit,
+ * so filling the set allocates nothing. Iterating gives the positions ordered by rank and then
+ * file.
+ *
+ * Used as the result of MovementRules#getLegalMoves, which makes the set the only object a move
+ * generation call creates.
+ */
+public final class BoardPositionSet extends AbstractSet<BoardPosition> {
+    private long positions;
+
+    /**
+     * Creates an empty set.
+     */
+    public BoardPositionSet() {
+    }
+
+    /**
+     * Creates a set with the positions whose bits are set in the argument.
+     *
+     * @param positions bit number rank * 8 + file set for every position in the set.
+     */
+    BoardPositionSet(final long positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws NullPointerException if position is null.
+     */
+    @Override
+    public boolean add(final BoardPosition position) {
+        final long bit = bit(position);
+        final boolean added = (positions & bit) == 0;
+        positions |= bit;
+        return added;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(final Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        positions &= ~bit((BoardPosition) o);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof BoardPosition && (positions & bit((BoardPosition) o)) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return Long.bitCount(positions);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return positions == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        positions = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<BoardPosition> iterator() {
+        return new Iterator<BoardPosition>() {
+            private long remaining = positions;
+            private BoardPosition last = null;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public BoardPosition next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                final int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                last = BoardPosition.of(square);
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException("next has not been called");
+                }
+                BoardPositionSet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private static long bit(final BoardPosition position) {
+        return 1L << position.getIndex();
+    }
+}
@@ -0,0 +1,94 @@
+package io.oscr.androidchess.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Defines the available implementations of IChessBoard. Allows the board implementation to be
+ * selected at runtime, for example when creating a ChessModel.
+ *
+ * Both implementations give identical results from MovementRules#getLegalMoves.
+ */
+public enum BoardType {
+    /**
+     * ChessBoard. Stores the pieces in an 8x8 array.
+     */
+    ARRAY {
+        @Override
+        public IChessBoard create() {
+            return new ChessBoard();
+        }
+
+        @Override
+        public IChessBoard create(final Fen fen) {
+            return new ChessBoard(fen);
+        }
+
+        @Override
+        public IChessBoard copy(final IChessBoard board) {
+            return new ChessBoard((ChessBoard) board);
+        }
+    },
+
+    /**
+     * BitboardChessBoard. Stores the pieces in twelve 64 bit bitboards.
+     */
+    BITBOARD {
+        @Override
+        public IChessBoard create() {
+            return new BitboardChessBoard();
+        }
+
+        @Override
+        public IChessBoard create(final Fen fen) {
+            return new BitboardChessBoard(fen);
+        }
+
+        @Override
+        public IChessBoard copy(final IChessBoard board) {
+            return new BitboardChessBoard((BitboardChessBoard) board);
+        }
+    };
+
+    /**
+     * Gives the type of a board, for example to be able to copy it.
+     *
+     * @throws NullPointerException if board is null.
+     * @throws IllegalArgumentException if board isn't of any of the types.
+     * @param board whose type to give.
+     * @return the type of the board.
+     */
+    public static BoardType of(final IChessBoard board) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        if (board instanceof ChessBoard) {
+            return ARRAY;
+        } else if (board instanceof BitboardChessBoard) {
+            return BITBOARD;
+        }
+        throw new IllegalArgumentException("Unknown board type: " + board.getClass());
+    }
+
+    /**
+     * Creates a board of this type in normal starting state.
+     *
+     * @return new board in starting state.
+     */
+    public abstract IChessBoard create();
+
+    /**
+     * Creates a board of this type in the position described by the argument.
+     *
+     * @throws NullPointerException if fen is null.
+     * @param fen position to set up.
+     * @return new board in the given position.
+     */
+    public abstract IChessBoard create(Fen fen);
+
+    /**
+     * Creates a copy of a board of this type.
+     *
+     * @throws ClassCastException if board isn't of this type.
+     * @param board to copy.
+     * @return new board with the same state as the argument.
+     */
+    public abstract IChessBoard copy(IChessBoard board);
+}
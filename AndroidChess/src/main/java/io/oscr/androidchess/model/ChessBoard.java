@@ -6,6 +6,7 @@ import io.oscr.androidchess.model.pieces.PieceColor;
 import io.oscr.androidchess.model.pieces.ChessPiece;
 import io.oscr.androidchess.model.pieces.IChessPiece;
 import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -27,6 +28,28 @@ public class ChessBoard implements IChessBoard {
     // What players turn it is.
 	private PieceColor turn = PieceColor.WHITE;
 
+    /*
+     * Piece lists. The positions of each color's pieces in no particular order, indexed by color
+     * ordinal, and for each occupied position the index it has in the list of its color. Moving
+     * a piece keeps its index so the lists can be iterated while moves are made and taken back.
+     */
+	private final BoardPosition[][] pieceList = new BoardPosition[2][Constants.MAX_PIECES];
+	private final int[] pieceCount = new int[2];
+	private final int[][] listIndex = new int[8][8];
+
+    // The position of each color's King indexed by color ordinal.
+	private final BoardPosition[] kingPosition = new BoardPosition[2];
+
+    // Zobrist key of the position. Updated by every method that changes the position.
+	private long key;
+
+    // Zobrist key of the pawns. Updated together with the key.
+	private long pawnKey;
+
+    // Packed piece-square score and game phase. Updated together with the key.
+	private int score;
+	private int phase;
+
     /**
      * Creates a board in normal starting state.
      */
@@ -54,6 +77,36 @@ public class ChessBoard implements IChessBoard {
 		for(int i = 0; i < board.length; i++){
 			board[i][6] = new ChessPiece(PieceColor.BLACK, PieceType.PAWN);
 		}
+		createPieceLists();
+		key = Zobrist.compute(this);
+		pawnKey = Zobrist.computePawnKey(this);
+		score = PieceSquareTables.compute(this);
+		phase = PieceSquareTables.computePhase(this);
+	}
+
+    /**
+     * Creates a board in the position described by the argument.
+     *
+     * @throws NullPointerException if fen is null.
+     * @param fen position to set up.
+     */
+	public ChessBoard(final Fen fen){
+		checkNotNull(fen, "Argument fen was null. Expected non null");
+		for(int file = 0; file < board.length; file++){
+			for(int rank = 0; rank < board[file].length; rank++){
+				board[file][rank] = fen.getChessPiece(file, rank);
+			}
+		}
+		createPieceLists();
+		this.whiteKingIsMoved = fen.isKingMoved(PieceColor.WHITE);
+		this.blackKingIsMoved = fen.isKingMoved(PieceColor.BLACK);
+		this.enPassant = fen.getEnPassant();
+		this.enPassantPawn = fen.getEnPassantPawn();
+		this.turn = fen.getTurn();
+		key = Zobrist.compute(this);
+		pawnKey = Zobrist.computePawnKey(this);
+		score = PieceSquareTables.compute(this);
+		phase = PieceSquareTables.computePhase(this);
 	}
 
     /**
@@ -68,10 +121,20 @@ public class ChessBoard implements IChessBoard {
 		this.enPassant = other.enPassant;
 		this.enPassantPawn = other.enPassantPawn;
 		this.turn = other.turn;
+		this.key = other.key;
+		this.pawnKey = other.pawnKey;
+		this.score = other.score;
+		this.phase = other.phase;
 		
 		// Deep copy array content
 		for(int i = 0; i < board.length; i++){
 			board[i] = Arrays.copyOf(other.board[i], other.board.length);
+			listIndex[i] = Arrays.copyOf(other.listIndex[i], other.listIndex.length);
+		}
+		for(int i = 0; i < pieceList.length; i++){
+			pieceList[i] = Arrays.copyOf(other.pieceList[i], other.pieceList[i].length);
+			pieceCount[i] = other.pieceCount[i];
+			kingPosition[i] = other.kingPosition[i];
 		}
 	}
 
@@ -81,7 +144,7 @@ public class ChessBoard implements IChessBoard {
      */
 	@Override
 	public boolean isEmpty(final int file, final int rank){
-		return isEmpty(new BoardPosition(file, rank));
+		return getChessPiece(file, rank) == null;
 	}
 
     /**
@@ -100,12 +163,13 @@ public class ChessBoard implements IChessBoard {
 	@Override
 	public void setKingMoved(final BoardPosition position){
 		IChessPiece piece = getChessPiece(position);
-		if(piece.getPieceType() == PieceType.KING){
+		if(piece.getPieceType() == PieceType.KING && !isKingMoved(piece.getPieceColor())){
 			if(piece.getPieceColor() == PieceColor.WHITE){
 				whiteKingIsMoved = true;
 			} else {
 				blackKingIsMoved = true;
 			}
+			key ^= Zobrist.kingMoved(piece.getPieceColor());
 		}
 	}
 
@@ -117,14 +181,17 @@ public class ChessBoard implements IChessBoard {
         checkNotNull(from, "Argument from was null. Expected non null");
         checkNotNull(to, "Argument to was null. Expected non null");
 
- 		// Move the piece from square
- 		IChessPiece piece = board[from.getFile()][from.getRank()];
- 		board[from.getFile()][from.getRank()] = null;
+ 		// Nothing to move. The to position still ends up empty.
+ 		if (board[from.getFile()][from.getRank()] == null) {
+ 			remove(to);
+ 			return;
+ 		}
 
  		// TODO Implement what pieces have been captured here
+ 		remove(to);
 
  		// Place the piece on it's new position
- 		board[to.getFile()][to.getRank()] = piece;
+ 		relocate(from, to);
  	}
 
     /**
@@ -147,7 +214,7 @@ public class ChessBoard implements IChessBoard {
  	@Override
  	public void switchTurn(){
  		turn = PieceColor.switchTurn(turn);
-
+ 		key ^= Zobrist.turn();
  	}
 
     /**
@@ -166,7 +233,10 @@ public class ChessBoard implements IChessBoard {
      */
 	@Override
 	public IChessPiece getChessPiece(final int file, final int rank) {
-		return getChessPiece(new BoardPosition(file, rank));
+		if (!BoardPosition.isOnBoard(file, rank)) {
+			throw new IllegalArgumentException("Position outside board: " + file + ", " + rank);
+		}
+		return board[file][rank];
 	}
 
     /**
@@ -184,7 +254,27 @@ public class ChessBoard implements IChessBoard {
      */
     @Override
 	public void setPromotion(final ChessPiece chessPiece, final BoardPosition to) {
-		board[to.getFile()][to.getRank()] = chessPiece;
+		final IChessPiece current = board[to.getFile()][to.getRank()];
+		if (current != null && current.getPieceColor() == chessPiece.getPieceColor()) {
+			// Same color, so the position keeps its place in the piece list.
+			board[to.getFile()][to.getRank()] = chessPiece;
+			key ^= Zobrist.piece(current, to) ^ Zobrist.piece(chessPiece, to);
+			if (current.getPieceType() == PieceType.PAWN) {
+				pawnKey ^= Zobrist.piece(current, to);
+			}
+			if (chessPiece.getPieceType() == PieceType.PAWN) {
+				pawnKey ^= Zobrist.piece(chessPiece, to);
+			}
+			score += PieceSquareTables.piece(chessPiece.getPieceColor(), chessPiece.getPieceType(), to.getIndex())
+					- PieceSquareTables.piece(current.getPieceColor(), current.getPieceType(), to.getIndex());
+			phase += PieceSquareTables.phase(chessPiece.getPieceType()) - PieceSquareTables.phase(current.getPieceType());
+			if (chessPiece.getPieceType() == PieceType.KING) {
+				kingPosition[chessPiece.getPieceColor().ordinal()] = to;
+			}
+		} else {
+			remove(to);
+			add(chessPiece, to, pieceCount[chessPiece.getPieceColor().ordinal()]);
+		}
 	}
 
     /**
@@ -192,7 +282,7 @@ public class ChessBoard implements IChessBoard {
      */
     @Override
 	public void removeEnPassantPawn(){
-		board[enPassantPawn.getFile()][enPassantPawn.getRank()] = null;
+		remove(enPassantPawn);
 	}
 
     /**
@@ -200,6 +290,7 @@ public class ChessBoard implements IChessBoard {
      */
 	@Override
 	public void setEnPassant(final BoardPosition enPassant, final BoardPosition enPassantPawn) {
+		key ^= Zobrist.enPassant(this.enPassant) ^ Zobrist.enPassant(enPassant);
 		this.enPassant = enPassant;
 		this.enPassantPawn = enPassantPawn;
 	}
@@ -219,4 +310,250 @@ public class ChessBoard implements IChessBoard {
 	public BoardPosition getEnPassant(){
 		return enPassant;
 	}
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void makeMove(final BoardPosition from, final BoardPosition to, final PieceType promotion,
+                         final MoveUndo undo) {
+        checkNotNull(from, "Argument from was null. Expected non null");
+        checkNotNull(to, "Argument to was null. Expected non null");
+        checkNotNull(undo, "Argument undo was null. Expected non null");
+
+        final IChessPiece piece = board[from.getFile()][from.getRank()];
+        checkNotNull(piece, "Piece was null. Excepted not null");
+
+        // Save the state that the move changes
+        undo.from = from;
+        undo.to = to;
+        undo.moved = piece;
+        undo.captured = board[to.getFile()][to.getRank()];
+        undo.capturedPosition = to;
+        undo.capturedIndex = listIndex[to.getFile()][to.getRank()];
+        undo.rookFrom = null;
+        undo.rookTo = null;
+        undo.enPassant = enPassant;
+        undo.enPassantPawn = enPassantPawn;
+        undo.whiteKingIsMoved = whiteKingIsMoved;
+        undo.blackKingIsMoved = blackKingIsMoved;
+        undo.turn = turn;
+        undo.key = key;
+        undo.pawnKey = pawnKey;
+        undo.score = score;
+        undo.phase = phase;
+
+        BoardPosition newEnPassant = null;
+        BoardPosition newEnPassantPawn = null;
+        if (piece.getPieceType() == PieceType.PAWN) {
+            if (to.equals(enPassant) && enPassantPawn != null) {
+                undo.captured = board[enPassantPawn.getFile()][enPassantPawn.getRank()];
+                undo.capturedPosition = enPassantPawn;
+                undo.capturedIndex = listIndex[enPassantPawn.getFile()][enPassantPawn.getRank()];
+                removeEnPassantPawn();
+            } else if (Math.abs(to.getRank() - from.getRank()) == 2) {
+                newEnPassant = BoardPosition.of(from.getFile(), (from.getRank() + to.getRank()) / 2);
+                newEnPassantPawn = to;
+            }
+        } else if (piece.getPieceType() == PieceType.KING && Math.abs(to.getFile() - from.getFile()) == 2) {
+            // Castle. The Rook ends up on the square the King passes.
+            undo.rookFrom = BoardPosition.of(to.getFile() > from.getFile()
+                    ? Constants.BOARD_MAX_POSITION : Constants.BOARD_MIN_POSITION, from.getRank());
+            undo.rookTo = BoardPosition.of((from.getFile() + to.getFile()) / 2, from.getRank());
+            move(undo.rookFrom, undo.rookTo);
+        }
+
+        move(from, to);
+        // Only a pawn reaching the last row is promoted. Other moves ignore the argument.
+        if (promotion != null && piece.getPieceType() == PieceType.PAWN
+                && (to.getRank() == Constants.WHITE_PAWN_LAST_RANK || to.getRank() == Constants.BLACK_PAWN_LAST_RANK)) {
+            setPromotion(ChessPiece.valueOf(piece.getPieceColor(), promotion), to);
+        }
+        setEnPassant(newEnPassant, newEnPassantPawn);
+        setKingMoved(to);
+        switchTurn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unmakeMove(final MoveUndo undo) {
+        checkNotNull(undo, "Argument undo was null. Expected non null");
+
+        // Taken back in the opposite order so that the piece lists end up exactly as before.
+        relocate(undo.to, undo.from);
+        board[undo.from.getFile()][undo.from.getRank()] = undo.moved;
+        if (undo.captured != null) {
+            add(undo.captured, undo.capturedPosition, undo.capturedIndex);
+        }
+        if (undo.rookFrom != null) {
+            relocate(undo.rookTo, undo.rookFrom);
+        }
+
+        enPassant = undo.enPassant;
+        enPassantPawn = undo.enPassantPawn;
+        whiteKingIsMoved = undo.whiteKingIsMoved;
+        blackKingIsMoved = undo.blackKingIsMoved;
+        turn = undo.turn;
+        key = undo.key;
+        pawnKey = undo.pawnKey;
+        score = undo.score;
+        phase = undo.phase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPieceSquareScore() {
+        return score;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardPosition getKingPosition(final PieceColor pieceColor) {
+        return kingPosition[pieceColor.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPieceCount(final PieceColor pieceColor) {
+        return pieceCount[pieceColor.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IndexOutOfBoundsException if index isn't smaller than getPieceCount.
+     */
+    @Override
+    public BoardPosition getPiecePosition(final PieceColor pieceColor, final int index) {
+        if (index < 0 || index >= pieceCount[pieceColor.ordinal()]) {
+            throw new IndexOutOfBoundsException("Index " + index + " but only "
+                    + pieceCount[pieceColor.ordinal()] + " pieces");
+        }
+        return pieceList[pieceColor.ordinal()][index];
+    }
+
+    /*
+     * Fills the piece lists and King positions from the board array. Used by the constructors.
+     */
+    private void createPieceLists() {
+        for (int file = 0; file < board.length; file++) {
+            for (int rank = 0; rank < board[file].length; rank++) {
+                final IChessPiece piece = board[file][rank];
+                if (piece != null) {
+                    add(piece, BoardPosition.of(file, rank), pieceCount[piece.getPieceColor().ordinal()]);
+                }
+            }
+        }
+    }
+
+    /*
+     * Places the piece on the empty position and inserts the position at index in the piece list.
+     * The position already on index, if any, is moved to the end of the list. This is the
+     * opposite of remove, so adding a removed piece at its old index restores the list.
+     */
+    private void add(final IChessPiece piece, final BoardPosition position, final int index) {
+        final int color = piece.getPieceColor().ordinal();
+        final BoardPosition moved = pieceList[color][index];
+        if (moved != null && index < pieceCount[color]) {
+            pieceList[color][pieceCount[color]] = moved;
+            listIndex[moved.getFile()][moved.getRank()] = pieceCount[color];
+        }
+        pieceList[color][index] = position;
+        listIndex[position.getFile()][position.getRank()] = index;
+        pieceCount[color]++;
+
+        board[position.getFile()][position.getRank()] = piece;
+        key ^= Zobrist.piece(piece, position);
+        if (piece.getPieceType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(piece, position);
+        }
+        score += PieceSquareTables.piece(piece.getPieceColor(), piece.getPieceType(), position.getIndex());
+        phase += PieceSquareTables.phase(piece.getPieceType());
+        if (piece.getPieceType() == PieceType.KING) {
+            kingPosition[color] = position;
+        }
+    }
+
+    /*
+     * Removes the piece on the position, if any. The last position in the piece list takes the
+     * place of the removed one.
+     */
+    private void remove(final BoardPosition position) {
+        final IChessPiece piece = board[position.getFile()][position.getRank()];
+        if (piece == null) {
+            return;
+        }
+        board[position.getFile()][position.getRank()] = null;
+        key ^= Zobrist.piece(piece, position);
+        if (piece.getPieceType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(piece, position);
+        }
+        score -= PieceSquareTables.piece(piece.getPieceColor(), piece.getPieceType(), position.getIndex());
+        phase -= PieceSquareTables.phase(piece.getPieceType());
+
+        final int color = piece.getPieceColor().ordinal();
+        final int index = listIndex[position.getFile()][position.getRank()];
+        final BoardPosition last = pieceList[color][--pieceCount[color]];
+        pieceList[color][index] = last;
+        listIndex[last.getFile()][last.getRank()] = index;
+        pieceList[color][pieceCount[color]] = null;
+
+        if (piece.getPieceType() == PieceType.KING && position.equals(kingPosition[color])) {
+            kingPosition[color] = null;
+        }
+    }
+
+    /*
+     * Moves the piece on from to the empty position to. The piece keeps its index in the piece list.
+     */
+    private void relocate(final BoardPosition from, final BoardPosition to) {
+        final IChessPiece piece = board[from.getFile()][from.getRank()];
+        board[from.getFile()][from.getRank()] = null;
+        board[to.getFile()][to.getRank()] = piece;
+        key ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        if (piece.getPieceType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        }
+        score += PieceSquareTables.piece(piece.getPieceColor(), piece.getPieceType(), to.getIndex())
+                - PieceSquareTables.piece(piece.getPieceColor(), piece.getPieceType(), from.getIndex());
+
+        final int color = piece.getPieceColor().ordinal();
+        final int index = listIndex[from.getFile()][from.getRank()];
+        pieceList[color][index] = to;
+        listIndex[to.getFile()][to.getRank()] = index;
+        if (piece.getPieceType() == PieceType.KING) {
+            kingPosition[color] = to;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import io.oscr.androidchess.model.pieces.ChessPiece;
 import io.oscr.androidchess.model.pieces.IChessPiece;
 import io.oscr.androidchess.model.pieces.PieceColor;
 import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.model.search.Engine;
+import io.oscr.androidchess.model.search.SearchResult;
 import io.oscr.androidchess.model.theme.FunnyTheme;
 import io.oscr.androidchess.model.theme.IChessTheme;
 import io.oscr.androidchess.model.theme.NormalTheme;
@@ -16,7 +18,8 @@ import io.oscr.androidchess.utils.Constants;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Represents the model in the MVC model.
@@ -24,15 +27,68 @@ import java.util.Set;
  */
 public class ChessModel implements IChessModel {
 	private final PropertyChangeSupport observers = new PropertyChangeSupport(this);
+	private final BoardType boardType;
 	private IChessBoard board;
-	private IChessTheme chessTheme = new NormalTheme();
+	private IChessTheme chessTheme;
 
 	private BoardPosition fromPosition;
 
+	// Reused when trying moves on the board to see if they are legal.
+	private final MoveUndo undo = new MoveUndo();
+
+	/*
+	 * The legal moves of the current player, worked out once per move by updateStatus. The entry
+	 * at the index of a BoardPosition is a bitboard of where its piece can legally move, so
+	 * selecting, validating and highlighting are single lookups.
+	 */
+	private final long[] legalTargets = new long[64];
+
+	// The keys of all positions of the game, for finding repetitions.
+	private final PositionHistory history = new PositionHistory();
+
+	// Worked out once per move by updateStatus, since they are asked for after every event.
+	private GameStatus status;
+	private String information;
+
 	private PieceColor playing = PieceColor.WHITE;
 
+	// The computer opponent and the color it plays, null if both players are human.
+	private Engine engine;
+	private PieceColor computerColor;
+
+	// Identifies the latest move asked from the engine, so that moves for older positions are dropped.
+	private int computerRequest;
+
 	public ChessModel() {
-		board = new ChessBoard();
+		this(BoardType.ARRAY);
+	}
+
+    /**
+     * Creates a model where the game is played on the specified board implementation.
+     *
+     * @throws NullPointerException if boardType is null.
+     * @param boardType what IChessBoard implementation to use.
+     */
+	public ChessModel(final BoardType boardType) {
+		this(boardType, new NormalTheme());
+	}
+
+    /**
+     * Creates a model where the game is played on the specified board implementation and drawn
+     * using the specified color theme.
+     *
+     * @throws NullPointerException if boardType or chessTheme is null.
+     * @param boardType what IChessBoard implementation to use.
+     * @param chessTheme the color theme to start with.
+     */
+	public ChessModel(final BoardType boardType, final IChessTheme chessTheme) {
+		checkNotNull(boardType, "Argument boardType was null. Expected non null");
+		checkNotNull(chessTheme, "Argument chessTheme was null. Expected non null");
+		this.boardType = boardType;
+		this.chessTheme = chessTheme;
+		board = boardType.create();
+		history.push(board.getKey(), true);
+		updateStatus();
 	}
 
     /**
@@ -56,53 +112,27 @@ public class ChessModel implements IChessModel {
      */
 	@Override
 	public void selectPosition(BoardPosition position) {
-		if (playing == board.getTurn()) {
+		if (playing == board.getTurn() && playing != computerColor && !status.isOver()) {
 			if (fromPosition == null) {
-				// Make sure it's the players own piece that's selected
-				IChessPiece piece = board.getChessPiece(position);
-				if (piece != null && piece.getPieceColor() == playing) {
+				// Only the players own pieces have legal targets, and only those that can move are selected
+				if (legalTargets[position.getIndex()] != 0) {
 					fromPosition = position;
-                    observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{fromPosition}));
+                    observers.firePropertyChange(null, false, new RedrawEvent(getRedrawPositions(0)));
 				}
 			} else {
 				if (position.equals(fromPosition)) {
+                    BoardPosition[] positions = getRedrawPositions(0);
 					fromPosition = null;
-                    observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{position}));
+                    observers.firePropertyChange(null, false, new RedrawEvent(positions));
 
 				} else {
-					Set<BoardPosition> legalMoves = MovementRules.getLegalMoves(fromPosition, board);
-					if (legalMoves.contains(position) && isValidPosition(fromPosition, position)) {
+					if ((legalTargets[fromPosition.getIndex()] & 1L << position.getIndex()) != 0) {
 
 						if (isPawnPromotion(fromPosition, position)) {
 							observers.firePropertyChange(null, false, new PromotionEvent(fromPosition, position));
 
 						} else {
-							if (isCastlingMove(fromPosition, position)) {
-								Move move = isLegalCastlingMove(fromPosition, position);
-								if (move != null) {
-									move(fromPosition, position, move);
-									// Will mark the King as moved if it's moved
-									board.setKingMoved(position);
-
-                                    BoardPosition bp = fromPosition;
-                                    fromPosition = null;
-                                    observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{bp, position, move.from, move.to}));
-								}
-
-							} else {
-								// WARNING: This method has side effects. May change game state!
-								applyPawnLogic(position);
-
-								move(fromPosition, position, null);
-								// Will mark the King as moved if it's moved
-								board.setKingMoved(position);
-
-                                // This has to be done because if the fromPosition isn't null then it will be marked as selected
-                                // when redrawing the
-                                BoardPosition bp = fromPosition;
-                                fromPosition = null;
-                                observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{bp, position}));
-							}
+							performMove(position);
 						}
 					}
 				}
@@ -122,6 +152,10 @@ public class ChessModel implements IChessModel {
 			return chessTheme.getSelectedSquare();
 		}
 
+		if (fromPosition != null && (legalTargets[fromPosition.getIndex()] & 1L << boardPosition.getIndex()) != 0) {
+			return chessTheme.getLegalTargetSquare();
+		}
+
 		if (file % 2 != 0) {
 			if (rank % 2 == 0) {
 				return chessTheme.getOddSquare();
@@ -155,11 +189,48 @@ public class ChessModel implements IChessModel {
      */
     @Override
     public void setPromotion(final PieceType type, final BoardPosition from, final BoardPosition to) {
-        PieceColor color = board.getTurn();
-        move(from, to, null);
-        board.setPromotion(new ChessPiece(color, type), to);
+        BoardPosition[] positions = getRedrawPositions(bit(from) | bit(to));
+        move(from, to, null, type);
         fromPosition = null;
-        observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{from, to}));
+        observers.firePropertyChange(null, false, new RedrawEvent(positions));
+        startComputerMove();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException if color isn't null and no engine has been set.
+     */
+    @Override
+    public void setComputerOpponent(final PieceColor color) {
+        if (color != null && engine == null) {
+            throw new IllegalStateException("No engine has been set");
+        }
+        computerColor = color;
+        // Forgets a move the engine may be thinking about for the other color.
+        computerRequest++;
+        if (engine != null) {
+            engine.stop();
+        }
+        fromPosition = null;
+        startComputerMove();
+    }
+
+    /**
+     * Sets the engine that plays as the computer opponent. The engine delivers its moves on its
+     * delivery executor, which must be the thread that the observers expect events on.
+     *
+     * @see IChessModel#setComputerOpponent(PieceColor)
+     * @param engine the engine, or null to only allow human players.
+     */
+    public void setEngine(final Engine engine) {
+        if (this.engine != null) {
+            this.engine.stop();
+        }
+        this.engine = engine;
+        computerRequest++;
+        if (engine == null) {
+            computerColor = null;
+        }
     }
 
     /**
@@ -167,10 +238,18 @@ public class ChessModel implements IChessModel {
      */
 	@Override
 	public void newGame(PieceColor white) {
-		board = new ChessBoard();
+		board = boardType.create();
+		history.clear();
+		history.push(board.getKey(), true);
+		updateStatus();
 		fromPosition = null;
 		playing = PieceColor.WHITE;
+		computerRequest++;
+		if (engine != null) {
+			engine.stop();
+		}
 		observers.firePropertyChange("", false, new RedrawAllEvent());
+		startComputerMove();
 	}
 
     /**
@@ -187,15 +266,15 @@ public class ChessModel implements IChessModel {
      */
 	@Override
 	public String getDisplayInformation() {
-		String information = "" + board.getTurn();
+		return information;
+	}
 
-		if (isCheckmate()) {
-			return information + " is checkmate!";
-		} else if (isCheck()) {
-			return information + " is check!";
-		} else {
-			return "Turn: " + information;
-		}
+    /**
+     * {@inheritDoc}
+     */
+	@Override
+	public GameStatus getGameStatus() {
+		return status;
 	}
 
     /*
@@ -205,84 +284,133 @@ public class ChessModel implements IChessModel {
      */
 
 
-	/**
-	 * Will check if the current player defined by turn is in check.
-	 *
-	 * @return true if in check, otherwise false.
-	 */
-	private boolean isCheck() {
-		// Find the King on the chess board
-		BoardPosition kingPosition = null;
-		for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
-			for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
-				IChessPiece piece = board.getChessPiece(file, rank);
-				if (piece != null && piece.getPieceType() == PieceType.KING && piece.getPieceColor() == board.getTurn()) {
-					kingPosition = new BoardPosition(file, rank);
-				}
-			}
-		}
-
-		/*
-		 * A King piece should always be found! If we can't find one there is something
-		 * is very wrong. Therefore we make sure that the game is in an correct state.
-		 */
-		if (kingPosition == null) {
-			throw new IllegalStateException("Could not find the " + board.getTurn() + " KING!!!");
+    /*
+     * Works out the legal moves, the status of the game and the text shown for it after a move.
+     * Check is only looked for once, and whether there is a legal move is read off the same pass
+     * that fills legalTargets.
+     */
+	private void updateStatus() {
+		final String turn = "" + board.getTurn();
+		final boolean inCheck = MovementRules.isCheck(board, board.getTurn());
+
+		if (!MovementRules.generateLegalTargets(board, legalTargets, undo)) {
+			status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+			information = inCheck ? turn + " is checkmate!" : "Draw by stalemate!";
+		} else if (MovementRules.isInsufficientMaterial(board)) {
+			status = GameStatus.DRAW;
+			information = "Draw by insufficient material!";
+		} else if (history.isThreefoldRepetition()) {
+			status = GameStatus.DRAW;
+			information = "Draw by threefold repetition!";
+		} else if (history.isFiftyMoveRule()) {
+			status = GameStatus.DRAW;
+			information = "Draw by the fifty-move rule!";
+		} else if (inCheck) {
+			status = GameStatus.CHECK;
+			information = turn + " is check!";
+		} else {
+			status = GameStatus.ONGOING;
+			information = "Turn: " + turn;
 		}
+	}
 
-        /*
-         * The following algorithm determines if the King is in check. It does so by checking if
-         * any opposing piece can make a move that reaches the BoardPosition where the King is
-         * placed.
-         */
-		for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
-			for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
-				IChessPiece piece = board.getChessPiece(file, rank);
-				if (piece != null && piece.getPieceColor() != board.getTurn()) {
-					if (MovementRules.getLegalMoves(new BoardPosition(file, rank), board).contains(kingPosition)) {
-						return true;
-					}
-				}
+    /*
+     * Moves the piece on fromPosition to position, which must be a legal move that isn't a pawn
+     * promotion, and lets the computer opponent answer if it plays the other color.
+     */
+	private void performMove(final BoardPosition position) {
+		if (isCastlingMove(fromPosition, position)) {
+			Move move = getCastlingRookMove(fromPosition, position);
+			if (move != null) {
+                // The highlighted targets are those of the position before the move
+                BoardPosition[] positions = getRedrawPositions(bit(position) | bit(move.from) | bit(move.to));
+				move(fromPosition, position, move, null);
+
+                fromPosition = null;
+                observers.firePropertyChange(null, false, new RedrawEvent(positions));
 			}
+
+		} else {
+            BoardPosition[] positions = getRedrawPositions(bit(position));
+
+			// WARNING: This method has side effects. May change game state!
+			applyPawnLogic(position);
+
+			move(fromPosition, position, null, null);
+
+            // This has to be done because if the fromPosition isn't null then it will be marked as selected
+            // when redrawing the
+            fromPosition = null;
+            observers.firePropertyChange(null, false, new RedrawEvent(positions));
 		}
-		return false;
+		startComputerMove();
 	}
 
-    /**
-     * Will analyze the current game board and determine if there is a move that removes the current
-     * player from check. If no such move the player is checkmate. If such a move exists the player
-     * is just in check.
-     *
-     * @return true if current player is checkmate, otherwise false.
+    /*
+     * Asks the engine for a move if it's the computer's turn. The engine searches a copy of the
+     * board on its own thread and the move is played when it's delivered.
      */
-	private boolean isCheckmate() {
-		if (isCheck()) {
-			for (int file = 0; file < 8; file++) {
-				for (int rank = 0; rank < 8; rank++) {
-					IChessPiece piece = board.getChessPiece(file, rank);
-					if (piece != null && piece.getPieceColor() == board.getTurn()) {
-						BoardPosition from = new BoardPosition(file, rank);
-						for (BoardPosition move : MovementRules.getLegalMoves(from, board)) {
-							if (isValidPosition(from, move)) {
-								return false;
-							}
-						}
-					}
+	private void startComputerMove() {
+		if (engine == null || board.getTurn() != computerColor || status.isOver()) {
+			return;
+		}
+		final int request = ++computerRequest;
+		engine.think(boardType.copy(board), new PositionHistory(history, 0), new Engine.Listener() {
+			@Override
+			public void onSearchDone(final SearchResult result) {
+				// The game may have changed while the engine was thinking.
+				if (request == computerRequest && result.move != 0 && board.getTurn() == computerColor) {
+					playComputerMove(result.move);
 				}
 			}
-			return true;
+		});
+	}
+
+    /*
+     * Plays a move found by the engine the same way a move selected by the player is played.
+     */
+	private void playComputerMove(final int move) {
+		final BoardPosition from = PackedMove.getFrom(move);
+		final BoardPosition to = PackedMove.getTo(move);
+		final PieceType promotion = PackedMove.getPromotion(move);
+		if (promotion != null) {
+			setPromotion(promotion, from, to);
+		} else {
+			fromPosition = from;
+			performMove(to);
 		}
-		return false;
 	}
 
-    // TODO
-    private void move(final BoardPosition from, final BoardPosition to, final Move rookMove) {
+    /*
+     * Finishes a move: moves the piece and the Rook of a castle, promotes a pawn, marks the King as
+     * moved, switches the turn, adds the new position to the history and updates the status. En
+     * passant is cleared unless the move is a two square pawn move, whose en passant state must
+     * already be set, so that the key of the new position is complete when it's added.
+     */
+    private void move(final BoardPosition from, final BoardPosition to, final Move rookMove,
+                      final PieceType promotion) {
+        final IChessPiece piece = board.getChessPiece(from);
+        // After a capture or a pawn move no earlier position can come again.
+        final boolean irreversible = piece.getPieceType() == PieceType.PAWN || !board.isEmpty(to);
+
+        // Castles and promotions never pass through applyPawnLogic, so en passant is cleared here.
+        if (piece.getPieceType() != PieceType.PAWN || Math.abs(to.getRank() - from.getRank()) != 2) {
+            board.setEnPassant(null, null);
+        }
+
         if(rookMove != null)
             board.move(rookMove.from, rookMove.to);
 
         board.move(from, to);
+        if (promotion != null) {
+            board.setPromotion(new ChessPiece(piece.getPieceColor(), promotion), to);
+        }
+        // Will mark the King as moved if it's moved
+        board.setKingMoved(to);
         board.switchTurn();
         playing = PieceColor.switchTurn(playing);
+        history.push(board.getKey(), irreversible);
+        updateStatus();
     }
 
     /*
@@ -305,7 +433,7 @@ public class ChessModel implements IChessModel {
              */
             // Checks if an passant is possible and sets an passant state in gameboard
             if(fromPosition.getRank() == HOME_ROW && Math.abs((fromPosition.getRank() - to.getRank())) > 1 ){
-                board.setEnPassant(new BoardPosition(to.getFile(), to.getRank() - MOVE_DELTA), to);
+                board.setEnPassant(BoardPosition.of(to.getFile(), to.getRank() - MOVE_DELTA), to);
                 // ATTENTION!
                 return;
 
@@ -319,91 +447,57 @@ public class ChessModel implements IChessModel {
                 observers.firePropertyChange(null, false, new RedrawEvent(new BoardPosition[]{bp}));
             }
         }
-        // For all moves except two square pawn move we want to remove the en passant state.
-        board.setEnPassant(null, null);
+        // For all other moves the en passant state is removed by move.
     }
 
     /*
-     * Used to see if a position is valid. In other words that the player
-     * doesn't move a piece that places the own king in check.
+     * Gives the positions to redraw when the selection changes or a move is made: those set in
+     * squares and, if a position is selected, it and its highlighted legal targets. Must be
+     * invoked before a move, since the targets change with it.
      */
-    private boolean isValidPosition(final BoardPosition from, final BoardPosition to) {
-        final ChessBoard backupBoard;
-        // Important to check for null and it's the same class before
-        // making a cast.
-        if(board != null && board.getClass() == ChessBoard.class){
-            backupBoard = new ChessBoard((ChessBoard)board);
-        } else {
-            throw new IllegalStateException("Board in unacceptable state (null or not ChessBoard class");
+    private BoardPosition[] getRedrawPositions(long squares) {
+        if (fromPosition != null) {
+            squares |= bit(fromPosition) | legalTargets[fromPosition.getIndex()];
         }
-        board.move(from, to);
-        boolean isValid = !isCheck();
-        board = backupBoard;
+        BoardPosition[] positions = new BoardPosition[Long.bitCount(squares)];
+        for (int i = 0; squares != 0; i++) {
+            positions[i] = BoardPosition.of(Long.numberOfTrailingZeros(squares));
+            squares &= squares - 1;
+        }
+        return positions;
+    }
 
-        return isValid;
+    private static long bit(final BoardPosition position) {
+        return 1L << position.getIndex();
     }
 
-    // TODO
-    private Move isLegalCastlingMove(BoardPosition from, BoardPosition to) {
+    /**
+     * Gives the Rook move that belongs to a castle. Legality is checked with legalTargets.
+     *
+     * @param from BoardPosition the King is moving from.
+     * @param to BoardPosition the King is moving to.
+     * @return the Rook move if castle move, otherwise null.
+     */
+    private Move getCastlingRookMove(BoardPosition from, BoardPosition to) {
         if (from.equals(Constants.WHITE_KING_START)) {
-            if (to.equals(Constants.W_KINGSIDE_KING)
-                    && isLegalCastle(Constants.WHITE_KING_START, Constants.W_KINGSIDE_ROOK_START, false)) {
-                return new Move(Constants.W_KINGSIDE_ROOK_START, Constants.W_KINGSIDE_ROOK_END);
+            if (to.equals(Constants.W_KINGSIDE_KING)) {
+                return Constants.W_KINGSIDE_ROOK_MOVE;
 
-            } else if (to.equals(Constants.W_QUEENSIDE_KING)
-                    && isLegalCastle(Constants.WHITE_KING_START, Constants.W_QUEENSIDE_ROOK_START, true)) {
-                return new Move(Constants.W_QUEENSIDE_ROOK_START, Constants.W_QUEENSIDE_ROOK_END);
+            } else if (to.equals(Constants.W_QUEENSIDE_KING)) {
+                return Constants.W_QUEENSIDE_ROOK_MOVE;
             }
 
         } else if (from.equals(Constants.BLACK_KING_START)) {
-            if (to.equals(Constants.B_KINGSIDE_KING)
-                    && isLegalCastle(Constants.BLACK_KING_START, Constants.B_KINGSIDE_ROOK_START, false)) {
-                return new Move(Constants.B_KINGSIDE_ROOK_START, Constants.B_KINGSIDE_ROOK_END);
+            if (to.equals(Constants.B_KINGSIDE_KING)) {
+                return Constants.B_KINGSIDE_ROOK_MOVE;
 
-            } else if (to.equals(Constants.B_QUEENSIDE_KING)
-                    && isLegalCastle(Constants.BLACK_KING_START, Constants.B_QUEENSIDE_ROOK_START, true)) {
-                return new Move(Constants.B_QUEENSIDE_ROOK_START, Constants.B_QUEENSIDE_ROOK_END);
+            } else if (to.equals(Constants.B_QUEENSIDE_KING)) {
+                return Constants.B_QUEENSIDE_ROOK_MOVE;
             }
         }
         return null;
     }
 
-    /**
-     * Ensures that no square between the King and Rook can be reached by opposing side.
-     * If an opposing piece can reach an square between it's not a legal castle.
-     * Also the King may not castle out of check.
-     *
-     * @param from BoardPosition piece moving from.
-     * @param to BoardPosition piece moving to,
-     * @param queenSide If it's Queenside castle
-     * @return true if legal castle move, otherwise false.
-     */
-    private boolean isLegalCastle(BoardPosition from, BoardPosition to, boolean queenSide) {
-        int start = Math.min(from.getFile(), to.getFile());
-        int end = Math.max(from.getFile(), to.getFile());
-
-        // It doesn't matter if the Rook can be captured. We can step forward.
-        if (queenSide) {
-            start++;
-            end++;
-        }
-
-        for (; start < end; start++) {
-            BoardPosition position = new BoardPosition(start, from.getRank());
-            for (int file = 0; file <= Constants.BOARD_MAX_POSITION; file++) {
-                for (int rank = 0; rank <= Constants.BOARD_MAX_POSITION; rank++) {
-                    IChessPiece piece = board.getChessPiece(file, rank);
-                    if (piece != null && piece.getPieceColor() != board.getTurn()) {
-                        if (MovementRules.getLegalMoves(new BoardPosition(file, rank), board).contains(position)) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
     /**
      * Will check if a castle move is being performed.
      *
@@ -412,6 +506,12 @@ public class ChessModel implements IChessModel {
      * @return true if castle move, otherwise false.
      */
     private boolean isCastlingMove(BoardPosition from, BoardPosition to) {
+        // Only the King castles. Other pieces may move between the same squares.
+        IChessPiece piece = board.getChessPiece(from);
+        if (piece == null || piece.getPieceType() != PieceType.KING) {
+            return false;
+        }
+
         if (from.equals(Constants.WHITE_KING_START)) {
             if (to.equals(Constants.W_KINGSIDE_KING)) {
                 return true;
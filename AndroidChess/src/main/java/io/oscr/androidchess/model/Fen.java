@@ -0,0 +1,216 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.ChessPiece;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+import io.oscr.androidchess.utils.Constants;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable. Marked as final.
+ *
+ * Represents a chess position written in Forsyth-Edwards Notation (FEN), for example the starting
+ * position "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1". Used to set up a board in
+ * any position and to describe the position of a board.
+ *
+ * The castling field is reduced to what IChessBoard keeps track of. If a color may castle to either
+ * side its King is considered unmoved, otherwise moved. The move counters are ignored.
+ */
+public final class Fen {
+    /**
+     * The normal starting position. The same as the position created by ChessBoard().
+     */
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Piece letters indexed by PieceType ordinal. Upper case for White.
+    private static final String PIECE_LETTERS = "PRNBQK";
+
+    private final IChessPiece[][] pieces = new IChessPiece[Constants.BOARD_SIZE][Constants.BOARD_SIZE];
+    private final PieceColor turn;
+    private final boolean whiteKingIsMoved;
+    private final boolean blackKingIsMoved;
+    private final BoardPosition enPassant;
+    private final BoardPosition enPassantPawn;
+
+    /**
+     * Parses a position written in FEN. At least the piece placement and active color fields
+     * must be given. Missing castling and en passant fields are treated as "-".
+     *
+     * @throws NullPointerException if fen is null.
+     * @throws IllegalArgumentException if fen isn't a valid position.
+     * @param fen position to parse.
+     */
+    public Fen(final String fen) {
+        checkNotNull(fen, "Argument fen was null. Expected non null");
+        final String[] fields = fen.trim().split("\\s+");
+        checkArgument(fields.length >= 2, "Argument fen is missing fields: %s", fen);
+
+        final String[] ranks = fields[0].split("/");
+        checkArgument(ranks.length == Constants.BOARD_SIZE, "Argument fen doesn't have 8 ranks: %s", fen);
+        for (int i = 0; i < ranks.length; i++) {
+            final int rank = Constants.BOARD_MAX_POSITION - i;
+            int file = 0;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    file += c - '0';
+                } else {
+                    final int type = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+                    checkArgument(type >= 0 && file < Constants.BOARD_SIZE, "Argument fen has invalid rank: %s", ranks[i]);
+                    final PieceColor color = Character.isUpperCase(c) ? PieceColor.WHITE : PieceColor.BLACK;
+                    pieces[file][rank] = ChessPiece.valueOf(color, PieceType.values()[type]);
+                    file++;
+                }
+            }
+            checkArgument(file == Constants.BOARD_SIZE, "Argument fen has invalid rank: %s", ranks[i]);
+        }
+
+        for (PieceColor color : PieceColor.values()) {
+            checkArgument(countPieces(color) <= Constants.MAX_PIECES, "Argument fen has more than 16 %s pieces: %s", color, fen);
+        }
+
+        checkArgument(fields[1].equals("w") || fields[1].equals("b"), "Argument fen has invalid color: %s", fields[1]);
+        turn = fields[1].equals("w") ? PieceColor.WHITE : PieceColor.BLACK;
+
+        final String castling = fields.length > 2 ? fields[2] : "-";
+        whiteKingIsMoved = castling.indexOf('K') < 0 && castling.indexOf('Q') < 0;
+        blackKingIsMoved = castling.indexOf('k') < 0 && castling.indexOf('q') < 0;
+
+        final String enPassantField = fields.length > 3 ? fields[3] : "-";
+        if (enPassantField.equals("-")) {
+            enPassant = null;
+            enPassantPawn = null;
+        } else {
+            enPassant = BoardPosition.of(enPassantField);
+            // The pawn that moved two squares is in front of the square it passed.
+            final int delta = enPassant.getRank() < Constants.BOARD_SIZE / 2
+                    ? Constants.WHITE_PAWN_MOVE_DELTA
+                    : Constants.BLACK_PAWN_MOVE_DELTA;
+            enPassantPawn = BoardPosition.of(enPassant.getFile(), enPassant.getRank() + delta);
+        }
+    }
+
+    /**
+     * Describes the current position of a board.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board to describe.
+     */
+    public Fen(final IChessBoard board) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        for (int file = 0; file < Constants.BOARD_SIZE; file++) {
+            for (int rank = 0; rank < Constants.BOARD_SIZE; rank++) {
+                pieces[file][rank] = board.getChessPiece(file, rank);
+            }
+        }
+        turn = board.getTurn();
+        whiteKingIsMoved = board.isKingMoved(PieceColor.WHITE);
+        blackKingIsMoved = board.isKingMoved(PieceColor.BLACK);
+        enPassant = board.getEnPassant();
+        enPassantPawn = board.getEnPassantPawn();
+    }
+
+    /**
+     * Returns the chess piece placed on the position specified by file and rank, or null if the
+     * position is empty.
+     *
+     * @param file zero indexed file.
+     * @param rank zero indexed rank.
+     * @return the piece on the position or null.
+     */
+    public IChessPiece getChessPiece(final int file, final int rank) {
+        return pieces[file][rank];
+    }
+
+    /**
+     * Returns the PieceColor of player whose turn it is.
+     *
+     * @return PieceColor whose turn it is.
+     */
+    public PieceColor getTurn() {
+        return turn;
+    }
+
+    /**
+     * Checks if the specified PieceColor's King is considered moved, which means it can't castle.
+     *
+     * @param pieceColor what PieceColor to check.
+     * @return true if the King is considered moved, otherwise false.
+     */
+    public boolean isKingMoved(final PieceColor pieceColor) {
+        return pieceColor == PieceColor.WHITE ? whiteKingIsMoved : blackKingIsMoved;
+    }
+
+    /**
+     * Gives the BoardPosition a pawn moves to when capturing en passant, or null.
+     *
+     * @return the en passant BoardPosition or null.
+     */
+    public BoardPosition getEnPassant() {
+        return enPassant;
+    }
+
+    /**
+     * Gives the BoardPosition of the pawn that can be captured en passant, or null.
+     *
+     * @return the BoardPosition of the pawn or null.
+     */
+    public BoardPosition getEnPassantPawn() {
+        return enPassantPawn;
+    }
+
+    private int countPieces(final PieceColor color) {
+        int count = 0;
+        for (IChessPiece[] file : pieces) {
+            for (IChessPiece piece : file) {
+                if (piece != null && piece.getPieceColor() == color) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gives the position in FEN. The move counters are always written as "0 1".
+     *
+     * @return position in FEN.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int rank = Constants.BOARD_MAX_POSITION; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < Constants.BOARD_SIZE; file++) {
+                final IChessPiece piece = pieces[file][rank];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                final char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+                sb.append(piece.getPieceColor() == PieceColor.WHITE ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (rank > 0) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(turn == PieceColor.WHITE ? " w " : " b ");
+        if (whiteKingIsMoved && blackKingIsMoved) {
+            sb.append('-');
+        } else {
+            sb.append(whiteKingIsMoved ? "" : "KQ").append(blackKingIsMoved ? "" : "kq");
+        }
+        sb.append(' ').append(enPassant == null ? "-" : enPassant.toString().toLowerCase());
+        return sb.append(" 0 1").toString();
+    }
+}
@@ -0,0 +1,42 @@
+package io.oscr.androidchess.model;
+
+/**
+ * The state of a game after the latest move, as seen by the player whose turn it is.
+ *
+ * @see IChessModel#getGameStatus()
+ */
+public enum GameStatus {
+    /**
+     * The player to move isn't in check and the game goes on.
+     */
+    ONGOING,
+
+    /**
+     * The player to move is in check but has a legal move.
+     */
+    CHECK,
+
+    /**
+     * The player to move is in check and has no legal move, and has lost.
+     */
+    CHECKMATE,
+
+    /**
+     * The player to move isn't in check but has no legal move, which draws the game.
+     */
+    STALEMATE,
+
+    /**
+     * The game is drawn by insufficient material, threefold repetition or the fifty-move rule.
+     */
+    DRAW;
+
+    /**
+     * Checks if the game has ended.
+     *
+     * @return true for CHECKMATE, STALEMATE and DRAW, otherwise false.
+     */
+    public boolean isOver() {
+        return this == CHECKMATE || this == STALEMATE || this == DRAW;
+    }
+}
@@ -3,6 +3,7 @@ package io.oscr.androidchess.model;
 import io.oscr.androidchess.model.pieces.ChessPiece;
 import io.oscr.androidchess.model.pieces.IChessPiece;
 import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
 
 /**
  * Specifies the behavior that is needed for the ChessBoard abstraction. It will keep the state
@@ -123,4 +124,102 @@ public interface IChessBoard {
      * @see IChessBoard#setEnPassant(BoardPosition, BoardPosition)
      */
     void removeEnPassantPawn();
-}
\ No newline at end of file
+
+    /**
+     * Gives the BoardPosition of the King of the specified color. The position is kept up to date
+     * as the King moves, so no search is needed.
+     *
+     * @param pieceColor whose King to find.
+     * @return the King's BoardPosition, or null if there is no such King.
+     */
+    BoardPosition getKingPosition(PieceColor pieceColor);
+
+    /**
+     * Gives the number of pieces of the specified color on the board. Together with
+     * getPiecePosition it allows the pieces of one color to be visited without looking at every
+     * BoardPosition.
+     *
+     * @param pieceColor whose pieces to count.
+     * @return number of pieces, at most 16.
+     */
+    int getPieceCount(PieceColor pieceColor);
+
+    /**
+     * Gives the BoardPosition of one of the pieces of the specified color. The order of the
+     * pieces is unspecified and changes when pieces are captured or promoted, but making a move
+     * with makeMove and taking it back with unmakeMove restores it. The pieces of the side to move
+     * may therefore be visited by index while moves are tried.
+     *
+     * @param pieceColor whose piece to give.
+     * @param index zero based index smaller than getPieceCount.
+     * @return the BoardPosition of the piece.
+     */
+    BoardPosition getPiecePosition(PieceColor pieceColor, int index);
+
+    /**
+     * Gives the Zobrist key of the position: the pieces, whose turn it is, which Kings have moved
+     * and the en passant position. Two boards with the same position have the same key. The key is
+     * updated as the board changes, so getting it is cheap.
+     *
+     * @see Zobrist
+     * @return 64 bit key of the position.
+     */
+    long getKey();
+
+    /**
+     * Gives the Zobrist key of the pawns only. Two boards with the same pawns have the same pawn
+     * key, whatever the other pieces are, which makes it a key for caching the evaluation of the
+     * pawn structure. Updated as the board changes, like the key.
+     *
+     * @see Zobrist#computePawnKey(IChessBoard)
+     * @return 64 bit key of the pawns, 0 without pawns.
+     */
+    long getPawnKey();
+
+    /**
+     * Gives the material and piece-square score of the position, with the middlegame and endgame
+     * scores packed as described in PieceSquareTables. White's pieces count as positive and
+     * Black's as negative. The score is updated as the board changes, so getting it is cheap.
+     *
+     * @see PieceSquareTables
+     * @return packed score of the position.
+     */
+    int getPieceSquareScore();
+
+    /**
+     * Gives the game phase of the position, how much material other than pawns is left. Updated
+     * as the board changes, like the score.
+     *
+     * @see PieceSquareTables#phase(io.oscr.androidchess.model.pieces.PieceType)
+     * @return phase, PieceSquareTables.MAX_PHASE in the starting position.
+     */
+    int getPhase();
+
+    /**
+     * Performs a complete move that can be taken back with unmakeMove. Besides moving the piece
+     * on from to the position to it will: capture en passant, move the Rook when the King moves
+     * two squares, promote a pawn if promotion isn't null, set or clear the en passant state,
+     * mark the King as moved and switch turn.
+     *
+     * Everything that is needed to take the move back is saved in undo. No other objects are
+     * created, which makes it cheap to try a move and then take it back.
+     *
+     * @throws NullPointerException if from, to or undo is null or there is no piece on from.
+     * @param from where the chess piece is currently.
+     * @param to where the chess piece should be moved to.
+     * @param promotion what a pawn reaching the last row should be promoted to. May be null in which
+     *                  case the pawn isn't promoted. Ignored for all other moves.
+     * @param undo record that will be filled with what is needed to take the move back.
+     */
+    void makeMove(BoardPosition from, BoardPosition to, PieceType promotion, MoveUndo undo);
+
+    /**
+     * Takes back a move made by makeMove. Must be invoked with the record filled in by the last
+     * makeMove that hasn't been taken back, after which the board is in the same state as before it.
+     *
+     * @see IChessBoard#makeMove(BoardPosition, BoardPosition, PieceType, MoveUndo)
+     * @throws NullPointerException if undo is null.
+     * @param undo record filled in by makeMove.
+     */
+    void unmakeMove(MoveUndo undo);
+}
@@ -11,7 +11,8 @@ import io.oscr.androidchess.model.pieces.PieceType;
 public interface IChessModel extends IObservable {
 
     /**
-     * If no position is selected prior this will set the selected position to the parameter argument.
+     * If no position is selected prior this will set the selected position to the parameter argument,
+     * if the piece on it belongs to the current player and has a legal move.
      * If a BoardPosition is selected prior then the following will happen: if it's the same BoardPosition
      * then the selection will be removed. If the selected BoardPosition and current are different then
      * an attempt to move will be performed.
@@ -23,7 +24,8 @@ public interface IChessModel extends IObservable {
 
     /**
      * Returns the background Color for a specified square. If the BoardPosition is selected the color
-     * will be that of the specified selected color. Otherwise the normal square color for that position.
+     * will be that of the specified selected color, and if the selected piece can legally move to it
+     * the color for legal targets. Otherwise the normal square color for that position.
      *
      * @see io.oscr.androidchess.model.theme.IChessTheme
      * @param boardPosition to get background color for.
@@ -56,6 +58,14 @@ public interface IChessModel extends IObservable {
      */
 	public abstract String getDisplayInformation();
 
+    /**
+     * Returns the status of the game after the latest move. The status is worked out once per
+     * move, so asking for it after every event costs nothing.
+     *
+     * @return the GameStatus.
+     */
+	public abstract GameStatus getGameStatus();
+
     /**
      * Proof of concept method shown that colors are easy to change in the game.
      *
@@ -63,6 +73,14 @@ public interface IChessModel extends IObservable {
      */
 	public abstract void changeColorTheme();
 
+    /**
+     * Lets the computer play one of the colors. When it's the computer's turn the player can't
+     * select positions, and the computer's move is played and redrawn as soon as it's found.
+     *
+     * @param color the color the computer plays, or null if both players are human.
+     */
+	public abstract void setComputerOpponent(PieceColor color);
+
     /*
      * Handles the promotion of a pawn to another piece. Invoked by the controller after
      * the user has selected what piece the pawn should be promoted to.
@@ -0,0 +1,128 @@
+package io.oscr.androidchess.model;
+
+/**
+ * Mutable. Meant to be reused.
+ *
+ * A list of moves encoded as described in PackedMove, backed by an int array. Adding, reading and
+ * clearing never creates objects, so one list per ply lets a search generate all its moves without
+ * garbage.
+ *
+ * @see MovementRules#generateMoves(IChessBoard, MoveList)
+ */
+public final class MoveList {
+    /**
+     * The most moves a list can hold. No legal chess position has more than 218 moves.
+     */
+    public static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    /**
+     * Adds a move to the end of the list.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the list already holds CAPACITY moves.
+     * @param move the encoded move.
+     */
+    public void add(final int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Gives the move at the index.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not smaller than size.
+     * @param index of the move.
+     * @return the encoded move.
+     */
+    public int get(final int index) {
+        checkIndex(index);
+        return moves[index];
+    }
+
+    /**
+     * Replaces the move at the index.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not smaller than size.
+     * @param index of the move.
+     * @param move the encoded move.
+     */
+    public void set(final int index, final int move) {
+        checkIndex(index);
+        moves[index] = move;
+    }
+
+    /**
+     * Swaps the moves at the two indexes. Used when ordering moves.
+     *
+     * @throws IndexOutOfBoundsException if an index is negative or not smaller than size.
+     * @param i index of the first move.
+     * @param j index of the second move.
+     */
+    public void swap(final int i, final int j) {
+        checkIndex(i);
+        checkIndex(j);
+        final int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    /**
+     * Gives the number of moves in the list.
+     *
+     * @return number of moves.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the list has no moves.
+     *
+     * @return true if the list is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if the list has the move.
+     *
+     * @param move the encoded move.
+     * @return true if the move is in the list, otherwise false.
+     */
+    public boolean contains(final int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all moves. The backing array is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Removes the moves after the first size moves.
+     *
+     * @throws IndexOutOfBoundsException if size is negative or greater than the current size.
+     * @param size the new size of the list.
+     */
+    public void truncate(final int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException("Size: " + size + ", current size: " + this.size);
+        }
+        this.size = size;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+
+/**
+ * Mutable. Meant to be reused.
+ *
+ * Keeps what IChessBoard#makeMove changes so that IChessBoard#unmakeMove can take the move back:
+ * the moved and captured piece, the Rook move of a castle, the en passant state, the castling
+ * state, whose turn it was, the Zobrist key and pawn key, the piece-square score and the game
+ * phase. Since only this small record is saved a move can be tried and taken back without
+ * copying the board, and by reusing the same record no objects are created.
+ *
+ * @see IChessBoard#makeMove(BoardPosition, BoardPosition, io.oscr.androidchess.model.pieces.PieceType, MoveUndo)
+ * @see IChessBoard#unmakeMove(MoveUndo)
+ */
+public final class MoveUndo {
+    // The move that was made.
+    BoardPosition from;
+    BoardPosition to;
+    IChessPiece moved;
+
+    // What was captured and where. The position differs from to when capturing en passant.
+    IChessPiece captured;
+    BoardPosition capturedPosition;
+
+    // Where the captured piece was in the piece list of ChessBoard, so it can be put back there.
+    int capturedIndex;
+
+    // The Rook move of a castle, otherwise null.
+    BoardPosition rookFrom;
+    BoardPosition rookTo;
+
+    // Board state before the move.
+    BoardPosition enPassant;
+    BoardPosition enPassantPawn;
+    boolean whiteKingIsMoved;
+    boolean blackKingIsMoved;
+    PieceColor turn;
+    long key;
+    long pawnKey;
+    int score;
+    int phase;
+
+    /**
+     * Gives the piece that was captured by the move, or null if nothing was captured.
+     *
+     * @return the captured piece or null.
+     */
+    public IChessPiece getCaptured() {
+        return captured;
+    }
+}
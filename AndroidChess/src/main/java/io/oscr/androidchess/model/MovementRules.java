@@ -5,9 +5,10 @@ import io.oscr.androidchess.model.pieces.PieceColor;
 import io.oscr.androidchess.model.pieces.PieceType;
 import io.oscr.androidchess.utils.Constants;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -17,6 +18,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * game board it will find all legal moves for the piece placed on that position.
  *
  * MovementRules is guaranteed to be side effect free. No changes will be made to the global game state.
+ * The legality checks try moves on the board with makeMove but always take them back with unmakeMove
+ * before returning.
+ *
+ * Check detection doesn't generate the moves of the opposing pieces. It looks outward from the
+ * King with isSquareAttacked instead.
  */
 public enum MovementRules {
 	;
@@ -30,6 +36,9 @@ public enum MovementRules {
      * move may place the King in check or fail to stop a check. This is not validated by this
      * method and needs to be checked separately. Since it's a set it's guaranteed to be unique.
      *
+     * The set is a BoardPositionSet and is the only object the method creates, so move generation
+     * leaves no other garbage behind.
+     *
      * The method will throw NullPointerException if the from or board parameter is null. Also
      * if there is no IChessPiece in the position specified by from in board a NullPointerException
      * will be thrown.
@@ -40,39 +49,582 @@ public enum MovementRules {
      * @return a set of legal BoardPosition.
      */
 	public static Set<BoardPosition> getLegalMoves(final BoardPosition from, final IChessBoard board) {
+		return new BoardPositionSet(getTargets(from, board));
+	}
+
+    /**
+     * Same as getLegalMoves but gives the BoardPositions as a bitboard where bit number
+     * rank * 8 + file is set for every position the piece can move to. Creates no objects.
+     *
+     * @see #getLegalMoves(BoardPosition, IChessBoard)
+     * @throws NullPointerException is from, to or the from position in board is null.
+     * @param from what position is the piece placed on.
+     * @param board the current gameboard.
+     * @return bitboard of the BoardPositions the piece can move to.
+     */
+	public static long getTargets(final BoardPosition from, final IChessBoard board) {
 		checkNotNull(from, "Argument from was null. Expected not null");
 		checkNotNull(board, "Argument board was null. Expected not null");
 
 		IChessPiece piece = board.getChessPiece(from);
         checkNotNull(piece, "Piece was null. Excepted not null");
+
+        // The bitboard implementation finds the same moves without probing square by square.
+        if (board instanceof BitboardChessBoard) {
+            return ((BitboardChessBoard) board).getTargets(from);
+        }
+
 		switch (piece.getPieceType()) {
 		case PAWN:
-			return getLegalPawnMoves(from, board);
+			return getPawnTargets(from, board);
 		case ROOK:
-			return getLegalRookMoves(from, board);
+			return getRookTargets(from, board);
 		case BISHOP:
-			return getLegalBishopMoves(from, board);
+			return getBishopTargets(from, board);
 		case KNIGHT:
-			return getLegalKnightMoves(from, board);
+			return getKnightTargets(from, board);
 		case QUEEN:
-			return getLegalQueenMoves(from, board);
+			return getQueenTargets(from, board);
 		case KING:
-			return getLegalKingMoves(from, board);
+			return getKingTargets(from, board);
 		default:
 			throw new IllegalStateException("Unknown piece type: " + piece.getPieceType());
 		}
 	}
 
+    /**
+     * Adds every move the player whose turn it is can make to the list, encoded as described in
+     * PackedMove. The moves are the ones getLegalMoves gives for each of the player's pieces, so
+     * they may leave the own King in check. A pawn reaching the last row gives one move for each
+     * piece it can be promoted to. The list is cleared first.
+     *
+     * Neither the moves nor the list are objects, so a reused list makes move generation free of
+     * garbage.
+     *
+     * @see #isLegalMove(IChessBoard, int, MoveUndo)
+     * @throws NullPointerException if board or moves is null.
+     * @param board the current gameboard.
+     * @param moves list to fill.
+     */
+    public static void generateMoves(final IChessBoard board, final MoveList moves) {
+        generate(board, moves, true, true);
+    }
+
+    /**
+     * Adds the captures and promotions the player whose turn it is can make to the list, the same
+     * moves generateMoves gives for them. The list is cleared first. Together with generateQuiets
+     * this gives every move, which lets a search generate the quiet moves only when the captures
+     * didn't cause a cutoff.
+     *
+     * @see #generateMoves(IChessBoard, MoveList)
+     * @throws NullPointerException if board or moves is null.
+     * @param board the current gameboard.
+     * @param moves list to fill.
+     */
+    public static void generateCaptures(final IChessBoard board, final MoveList moves) {
+        generate(board, moves, true, false);
+    }
+
+    /**
+     * Adds the moves the player whose turn it is can make that neither capture nor promote to the
+     * list. The list is cleared first.
+     *
+     * @see #generateCaptures(IChessBoard, MoveList)
+     * @throws NullPointerException if board or moves is null.
+     * @param board the current gameboard.
+     * @param moves list to fill.
+     */
+    public static void generateQuiets(final IChessBoard board, final MoveList moves) {
+        generate(board, moves, false, true);
+    }
+
+    /**
+     * Checks if the move is one generateMoves would give in the position, in other words if the
+     * piece of the player whose turn it is can move there and the flags and the promotion match.
+     * A move remembered from another position, like a killer move or a move from the
+     * transposition table, may be tried without generating all moves if it passes this check.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board the current gameboard.
+     * @param move encoded as described in PackedMove. 0 is never a move.
+     * @return true if generateMoves would give the move, otherwise false.
+     */
+    public static boolean isPseudoLegal(final IChessBoard board, final int move) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        if (move == 0) {
+            return false;
+        }
+        final BoardPosition from = PackedMove.getFrom(move);
+        final BoardPosition to = PackedMove.getTo(move);
+        final IChessPiece piece = board.getChessPiece(from);
+        if (piece == null || piece.getPieceColor() != board.getTurn()
+                || (getTargets(from, board) & 1L << to.getIndex()) == 0) {
+            return false;
+        }
+
+        final PieceType type = piece.getPieceType();
+        final PieceType promotion = PackedMove.getPromotion(move);
+        if (promotion != null && (type != PieceType.PAWN || !isLastRank(to))) {
+            return false;
+        }
+        if (promotion == null && type == PieceType.PAWN && isLastRank(to)) {
+            return false;
+        }
+        return move == PackedMove.encode(from, to, promotion, getFlags(board, from, to, type));
+    }
+
+    /*
+     * Adds the moves of the player whose turn it is. Captures, en passant included, and promotions
+     * are added if noisy is true, the rest if quiet is true.
+     */
+    private static void generate(final IChessBoard board, final MoveList moves, final boolean noisy,
+                                 final boolean quiet) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        checkNotNull(moves, "Argument moves was null. Expected not null");
+        moves.clear();
+
+        final PieceColor color = board.getTurn();
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            final BoardPosition from = board.getPiecePosition(color, i);
+            final PieceType type = board.getChessPiece(from).getPieceType();
+
+            long targets = getTargets(from, board);
+            while (targets != 0) {
+                final int square = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                final BoardPosition to = BoardPosition.of(square);
+
+                final int flags = getFlags(board, from, to, type);
+                final boolean promotes = type == PieceType.PAWN && isLastRank(to);
+                final boolean isNoisy = promotes || (flags & PackedMove.CAPTURE) != 0;
+                if (isNoisy ? !noisy : !quiet) {
+                    continue;
+                }
+                if (promotes) {
+                    for (PieceType promotion : PackedMove.PROMOTIONS) {
+                        moves.add(PackedMove.encode(from, to, promotion, flags));
+                    }
+                } else {
+                    moves.add(PackedMove.encode(from, to, null, flags));
+                }
+            }
+        }
+    }
+
+    /*
+     * Gives the PackedMove flags of a move generateMoves gives.
+     */
+    private static int getFlags(final IChessBoard board, final BoardPosition from, final BoardPosition to,
+                                final PieceType type) {
+        int flags = board.isEmpty(to) ? 0 : PackedMove.CAPTURE;
+        if (type == PieceType.PAWN) {
+            if (board.getEnPassantPawn() != null && to == board.getEnPassant()) {
+                flags |= PackedMove.CAPTURE | PackedMove.EN_PASSANT;
+            } else if (Math.abs(to.getRank() - from.getRank()) == 2) {
+                flags |= PackedMove.DOUBLE_PUSH;
+            }
+        } else if (type == PieceType.KING && Math.abs(to.getFile() - from.getFile()) == 2) {
+            flags |= PackedMove.CASTLE;
+        }
+        return flags;
+    }
+
+    private static boolean isLastRank(final BoardPosition position) {
+        return position.getRank() == Constants.WHITE_PAWN_LAST_RANK
+                || position.getRank() == Constants.BLACK_PAWN_LAST_RANK;
+    }
+
+    /**
+     * Adds every legal move the player whose turn it is can make to the list. The same as
+     * generateMoves followed by removing the moves isLegalMove rejects.
+     *
+     * @see #generateMoves(IChessBoard, MoveList)
+     * @throws NullPointerException if any argument is null.
+     * @param board the current gameboard.
+     * @param moves list to fill.
+     * @param undo record used when trying the moves.
+     */
+    public static void generateLegalMoves(final IChessBoard board, final MoveList moves, final MoveUndo undo) {
+        generateMoves(board, moves);
+        int legal = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (isLegalMove(board, move, undo)) {
+                moves.set(legal++, move);
+            }
+        }
+        moves.truncate(legal);
+    }
+
+    /**
+     * Fills a table with the legal moves of the player whose turn it is. For every BoardPosition
+     * with a piece that can move, the entry at its index is a bitboard of the positions it can
+     * legally move to, like the one getTargets gives. The other entries are set to 0. Looking a
+     * move up in the table is then a single bit test. Without a legal move the player is checkmate
+     * if in check, otherwise stalemate.
+     *
+     * @see #getTargets(BoardPosition, IChessBoard)
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException if targets doesn't have 64 entries.
+     * @param board the current gameboard.
+     * @param targets table to fill, indexed by BoardPosition#getIndex of the from position.
+     * @param undo record used when trying the moves.
+     * @return true if the player has any legal move, otherwise false.
+     */
+    public static boolean generateLegalTargets(final IChessBoard board, final long[] targets, final MoveUndo undo) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        checkNotNull(targets, "Argument targets was null. Expected not null");
+        checkNotNull(undo, "Argument undo was null. Expected not null");
+        checkArgument(targets.length == 64, "Argument targets didn't have 64 entries");
+        Arrays.fill(targets, 0);
+
+        boolean hasLegalMove = false;
+        final PieceColor color = board.getTurn();
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            final BoardPosition from = board.getPiecePosition(color, i);
+            long legal = 0;
+            long remaining = getTargets(from, board);
+            while (remaining != 0) {
+                final int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                if (isLegalMove(board, from, BoardPosition.of(square), undo)) {
+                    legal |= 1L << square;
+                }
+            }
+            targets[from.getIndex()] = legal;
+            hasLegalMove |= legal != 0;
+        }
+        return hasLegalMove;
+    }
+
+    /**
+     * Checks if neither player has the pieces left to checkmate the other, whatever moves are
+     * made, which draws the game. That is the case with
+     *
+     * - King against King,
+     * - King and Bishop or King and Knight against King,
+     * - King and Bishop against King and Bishop with the Bishops on squares of the same color.
+     *
+     * The piece counts of each color rule out every other position first, so with more pieces on
+     * the board no BoardPosition is looked at.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board the current gameboard.
+     * @return true if the material is insufficient, otherwise false.
+     */
+    public static boolean isInsufficientMaterial(final IChessBoard board) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+
+        final int white = board.getPieceCount(PieceColor.WHITE);
+        final int black = board.getPieceCount(PieceColor.BLACK);
+        if (white > 2 || black > 2) {
+            return false;
+        }
+        final BoardPosition whiteMinor = getMinorPiece(board, PieceColor.WHITE);
+        final BoardPosition blackMinor = getMinorPiece(board, PieceColor.BLACK);
+        if ((white == 2 && whiteMinor == null) || (black == 2 && blackMinor == null)) {
+            return false;
+        }
+        if (whiteMinor == null || blackMinor == null) {
+            return true;
+        }
+        return board.getChessPiece(whiteMinor).getPieceType() == PieceType.BISHOP
+                && board.getChessPiece(blackMinor).getPieceType() == PieceType.BISHOP
+                && (whiteMinor.getFile() + whiteMinor.getRank()) % 2 == (blackMinor.getFile() + blackMinor.getRank()) % 2;
+    }
+
+    /*
+     * Gives the BoardPosition of a Bishop or Knight of the color, or null if it has none.
+     */
+    private static BoardPosition getMinorPiece(final IChessBoard board, final PieceColor color) {
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            final BoardPosition position = board.getPiecePosition(color, i);
+            final PieceType type = board.getChessPiece(position).getPieceType();
+            if (type == PieceType.BISHOP || type == PieceType.KNIGHT) {
+                return position;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the King of the specified color is in check, in other words if its BoardPosition
+     * is attacked by any opposing piece.
+     *
+     * @see #isSquareAttacked(IChessBoard, BoardPosition, PieceColor)
+     * @throws NullPointerException if board or color is null.
+     * @throws IllegalStateException if there is no King of the specified color on the board.
+     * @param board the current gameboard.
+     * @param color whose King to check.
+     * @return true if in check, otherwise false.
+     */
+    public static boolean isCheck(final IChessBoard board, final PieceColor color) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        checkNotNull(color, "Argument color was null. Expected not null");
+
+        if (board instanceof BitboardChessBoard) {
+            final BitboardChessBoard bitboard = (BitboardChessBoard) board;
+            final int square = bitboard.getKingSquare(color);
+            if (square < 0) {
+                throw new IllegalStateException("Could not find the " + color + " KING!!!");
+            }
+            return bitboard.isSquareAttacked(square, PieceColor.switchTurn(color), -1);
+        }
+
+        /*
+         * A King piece should always be found! If we can't find one there is something
+         * is very wrong. Therefore we make sure that the game is in an correct state.
+         */
+        final BoardPosition kingPosition = board.getKingPosition(color);
+        if (kingPosition == null) {
+            throw new IllegalStateException("Could not find the " + color + " KING!!!");
+        }
+        return isAttacked(board, kingPosition.getFile(), kingPosition.getRank(), PieceColor.switchTurn(color), -1, -1);
+    }
+
+    /**
+     * Checks if any piece of the color byColor attacks the square, in other words could capture a
+     * piece of the other color placed there. Instead of generating the moves of every opposing
+     * piece it looks outward from the square along the lines a Rook, Bishop, Knight, Pawn or King
+     * would attack from and stops at the first attacker found.
+     *
+     * The piece on the square itself is not considered.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @param board the current gameboard.
+     * @param square the BoardPosition to check.
+     * @param byColor the color of the attacking pieces.
+     * @return true if the square is attacked, otherwise false.
+     */
+    public static boolean isSquareAttacked(final IChessBoard board, final BoardPosition square,
+                                           final PieceColor byColor) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        checkNotNull(square, "Argument square was null. Expected not null");
+        checkNotNull(byColor, "Argument byColor was null. Expected not null");
+        return isAttacked(board, square.getFile(), square.getRank(), byColor, -1, -1);
+    }
+
+    /**
+     * Gives all pieces of both colors that attack the square, looking outward from it like
+     * isSquareAttacked. Pieces on the squares in ignore are treated as if they weren't on the
+     * board, so a Rook behind a Queen that is ignored is found attacking through it. That makes it
+     * possible to play out a capture sequence without making the moves.
+     *
+     * The piece on the square itself is not considered.
+     *
+     * @throws NullPointerException if board or square is null.
+     * @param board the current gameboard.
+     * @param square the BoardPosition to check.
+     * @param ignore bitboard of squares, bit rank * 8 + file, whose pieces are disregarded.
+     * @return bitboard of the squares of the attacking pieces.
+     */
+    public static long getAttackers(final IChessBoard board, final BoardPosition square, final long ignore) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        checkNotNull(square, "Argument square was null. Expected not null");
+        final int file = square.getFile();
+        final int rank = square.getRank();
+
+        long attackers = 0;
+        for (int[] delta : Constants.KNIGHT_MOVE_DELTA) {
+            final int f = file + delta[0];
+            final int r = rank + delta[1];
+            if (BoardPosition.isOnBoard(f, r) && (ignore & bit(f, r)) == 0) {
+                final IChessPiece piece = board.getChessPiece(f, r);
+                if (piece != null && piece.getPieceType() == PieceType.KNIGHT) {
+                    attackers |= bit(f, r);
+                }
+            }
+        }
+        for (int[] delta : Constants.ROOK_MOVE_DELTA) {
+            attackers |= getAttackerAlong(board, file, rank, delta[0], delta[1], PieceType.ROOK, ignore);
+        }
+        for (int[] delta : Constants.BISHOP_MOVE_DELTA) {
+            attackers |= getAttackerAlong(board, file, rank, delta[0], delta[1], PieceType.BISHOP, ignore);
+        }
+        return attackers;
+    }
+
+    /**
+     * Checks if a move given by getLegalMoves may be played by the player whose turn it is. The
+     * move may not leave the own King in check. A castle may in addition not start in check or pass
+     * a square that is attacked.
+     *
+     * King moves are decided by looking at the attacks on the squares involved. Other moves are
+     * tried on the board with makeMove and taken back with unmakeMove, so the board is in the same
+     * state when the method returns. The argument undo is overwritten.
+     *
+     * @see #getLegalMoves(BoardPosition, IChessBoard)
+     * @throws NullPointerException if any argument is null or there is no piece on from.
+     * @param board the current gameboard.
+     * @param from what position is the piece placed on.
+     * @param to what position the piece moves to. Should be one of the positions given by getLegalMoves.
+     * @param undo record used when trying the move.
+     * @return true if the move is legal, otherwise false.
+     */
+    public static boolean isLegalMove(final IChessBoard board, final BoardPosition from, final BoardPosition to,
+                                      final MoveUndo undo) {
+        checkNotNull(board, "Argument board was null. Expected not null");
+        final PieceColor color = board.getTurn();
+        final PieceColor opponent = PieceColor.switchTurn(color);
+        final IChessPiece piece = board.getChessPiece(from);
+        checkNotNull(piece, "Piece was null. Excepted not null");
+
+        if (piece.getPieceType() == PieceType.KING) {
+            if (Math.abs(to.getFile() - from.getFile()) == 2) {
+                // The King may not castle out of check, nor pass the square the Rook ends up on if attacked
+                if (isAttacked(board, from.getFile(), from.getRank(), opponent, -1, -1)
+                        || isAttacked(board, (from.getFile() + to.getFile()) / 2, from.getRank(), opponent, -1, -1)) {
+                    return false;
+                }
+            }
+
+            /*
+             * Only the King's new square matters. The King is disregarded so that it doesn't
+             * shield the square from a piece attacking along the line the King moves on.
+             */
+            return !isAttacked(board, to.getFile(), to.getRank(), opponent, from.getFile(), from.getRank());
+        }
+
+        board.makeMove(from, to, null, undo);
+        final boolean isLegal = !isCheck(board, color);
+        board.unmakeMove(undo);
+        return isLegal;
+    }
+
+    /**
+     * Same as isLegalMove(IChessBoard, BoardPosition, BoardPosition, MoveUndo) for a move encoded
+     * as described in PackedMove.
+     *
+     * @see #isLegalMove(IChessBoard, BoardPosition, BoardPosition, MoveUndo)
+     * @param board the current gameboard.
+     * @param move the encoded move. Should be one of the moves given by generateMoves.
+     * @param undo record used when trying the move.
+     * @return true if the move is legal, otherwise false.
+     */
+    public static boolean isLegalMove(final IChessBoard board, final int move, final MoveUndo undo) {
+        return isLegalMove(board, PackedMove.getFrom(move), PackedMove.getTo(move), undo);
+    }
+
+    /*
+     * Checks if the square given by file and rank is attacked by byColor. The piece on ignoreFile
+     * and ignoreRank is treated as if it wasn't on the board. Pass -1 to not ignore any piece.
+     */
+    private static boolean isAttacked(final IChessBoard board, final int file, final int rank,
+                                      final PieceColor byColor, final int ignoreFile, final int ignoreRank) {
+        if (board instanceof BitboardChessBoard) {
+            final int ignore = BoardPosition.isOnBoard(ignoreFile, ignoreRank)
+                    ? BitboardChessBoard.square(ignoreFile, ignoreRank)
+                    : -1;
+            return ((BitboardChessBoard) board).isSquareAttacked(BitboardChessBoard.square(file, rank), byColor, ignore);
+        }
+
+        for (int[] delta : Constants.KNIGHT_MOVE_DELTA) {
+            final int f = file + delta[0];
+            final int r = rank + delta[1];
+            if (BoardPosition.isOnBoard(f, r)) {
+                final IChessPiece piece = board.getChessPiece(f, r);
+                if (piece != null && piece.getPieceColor() == byColor && piece.getPieceType() == PieceType.KNIGHT) {
+                    return true;
+                }
+            }
+        }
+
+        for (int[] delta : Constants.ROOK_MOVE_DELTA) {
+            if (isAttackedAlong(board, file, rank, delta[0], delta[1], byColor, PieceType.ROOK, ignoreFile, ignoreRank)) {
+                return true;
+            }
+        }
+
+        for (int[] delta : Constants.BISHOP_MOVE_DELTA) {
+            if (isAttackedAlong(board, file, rank, delta[0], delta[1], byColor, PieceType.BISHOP, ignoreFile, ignoreRank)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows the line from the square given by file and rank in the direction DELTA_FILE and
+     * DELTA_RANK until it reaches the edge of the board or a piece. The square is attacked if that
+     * piece belongs to byColor and either is a Queen or the sliding piece moving along such lines,
+     * or is right next to the square and is a King or a Pawn capturing in that direction.
+     *
+     * @param board the current GameBoard.
+     * @param file the file of the square to check.
+     * @param rank the rank of the square to check.
+     * @param DELTA_FILE the change in file for each step.
+     * @param DELTA_RANK the change in rank for each step.
+     * @param byColor the color of the attacking pieces.
+     * @param slider ROOK for ranks and files, BISHOP for diagonals.
+     * @param ignoreFile the file of a piece to disregard, or -1.
+     * @param ignoreRank the rank of a piece to disregard, or -1.
+     * @return true if attacked along the line, otherwise false.
+     */
+    private static boolean isAttackedAlong(final IChessBoard board, final int file, final int rank,
+                                           final int DELTA_FILE, final int DELTA_RANK, final PieceColor byColor,
+                                           final PieceType slider, final int ignoreFile, final int ignoreRank) {
+        for (int f = file + DELTA_FILE, r = rank + DELTA_RANK; BoardPosition.isOnBoard(f, r);
+             f += DELTA_FILE, r += DELTA_RANK) {
+
+            final IChessPiece piece = board.getChessPiece(f, r);
+            if (piece == null || (f == ignoreFile && r == ignoreRank)) {
+                continue;
+            }
+            if (piece.getPieceColor() != byColor) {
+                return false;
+            }
+
+            final PieceType type = piece.getPieceType();
+            if (type == slider || type == PieceType.QUEEN) {
+                return true;
+            }
+
+            // Only the first step along the line can be reached by a King or Pawn.
+            final boolean isAdjacent = f == file + DELTA_FILE && r == rank + DELTA_RANK;
+            return isAdjacent && (type == PieceType.KING
+                    || (type == PieceType.PAWN && slider == PieceType.BISHOP
+                        && rank - r == Constants.getMoveDelta(byColor)));
+        }
+        return false;
+    }
+
+    /*
+     * Same as isAttackedAlong but for pieces of both colors, skipping the ignored squares. Gives
+     * the bit of the first piece on the line if it attacks the square, otherwise 0.
+     */
+    private static long getAttackerAlong(final IChessBoard board, final int file, final int rank,
+                                         final int DELTA_FILE, final int DELTA_RANK, final PieceType slider,
+                                         final long ignore) {
+        for (int f = file + DELTA_FILE, r = rank + DELTA_RANK; BoardPosition.isOnBoard(f, r);
+             f += DELTA_FILE, r += DELTA_RANK) {
+
+            final IChessPiece piece = board.getChessPiece(f, r);
+            if (piece == null || (ignore & bit(f, r)) != 0) {
+                continue;
+            }
+
+            final PieceType type = piece.getPieceType();
+            final boolean isAdjacent = f == file + DELTA_FILE && r == rank + DELTA_RANK;
+            if (type == slider || type == PieceType.QUEEN || (isAdjacent && (type == PieceType.KING
+                    || (type == PieceType.PAWN && slider == PieceType.BISHOP
+                        && rank - r == Constants.getMoveDelta(piece.getPieceColor()))))) {
+                return bit(f, r);
+            }
+            return 0;
+        }
+        return 0;
+    }
+
     /**
      * Performs the task of calculating all legal moves for the King. The method checks if a castle
      * is possible to perform and adds it if it is.
      *
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-	private static Set<BoardPosition> getLegalKingMoves(final BoardPosition from, final IChessBoard board) {
-		final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+	private static long getKingTargets(final BoardPosition from, final IChessBoard board) {
+		long lm = 0;
 
         /*
          * Represents the "box" of moves the King can perform around itself.
@@ -86,7 +638,7 @@ public enum MovementRules {
             for (int j = KING_MOVE_SQUARE_START; j <= KING_MOVE_SQUARE_END; j++) {
 				int file = from.getFile() + i;
 				int rank = from.getRank() + j;
-				addPositionIfValid(board, lm, from, file, rank);
+				lm |= getTargetIfValid(board, from, file, rank);
 			}
 		}
 
@@ -109,7 +661,7 @@ public enum MovementRules {
 						&& rookPiece.getPieceType() == PieceType.ROOK
 						&& board.isEmpty(Constants.W_KINGSIDE_SECOND_EMPTY)
 						&& board.isEmpty(Constants.W_KINGSIDE_FIRST_EMPTY)) {
-					lm.add(Constants.W_KINGSIDE_KING);
+					lm |= bit(Constants.W_KINGSIDE_KING);
 				}
 
                 // Handles white castle queen side.
@@ -119,7 +671,7 @@ public enum MovementRules {
 						&& board.isEmpty(Constants.W_QUEENSIDE_FIRST_EMPTY)
 						&& board.isEmpty(Constants.W_QUEENSIDE_SECOND_EMPTY)
 						&& board.isEmpty(Constants.W_QUEENSIDE_THIRD_EMPTY)) {
-					lm.add(Constants.W_QUEENSIDE_KING);
+					lm |= bit(Constants.W_QUEENSIDE_KING);
 				}
 
             // In case King is Black
@@ -130,7 +682,7 @@ public enum MovementRules {
 						&& rookPiece.getPieceType() == PieceType.ROOK
 						&& board.isEmpty(Constants.B_KINGSIDE_FIRST_EMPTY)
 						&& board.isEmpty(Constants.B_KINGSIDE_SECOND_EMPTY)) {
-					lm.add(Constants.B_KINGSIDE_KING);
+					lm |= bit(Constants.B_KINGSIDE_KING);
 				}
 
                 // Handles black castle queen side.
@@ -140,7 +692,7 @@ public enum MovementRules {
 						&& board.isEmpty(Constants.B_QUEENSIDE_FIRST_EMPTY)
 						&& board.isEmpty(Constants.B_QUEENSIDE_SECOND_EMPTY)
 						&& board.isEmpty(Constants.B_QUEENSIDE_THIRD_EMPTY)) {
-					lm.add(Constants.B_QUEENSIDE_KING);
+					lm |= bit(Constants.B_QUEENSIDE_KING);
 				}
 			}
 		}
@@ -153,21 +705,21 @@ public enum MovementRules {
      *
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-	private static Set<BoardPosition> getLegalQueenMoves(final BoardPosition from, final IChessBoard board) {
-        final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+	private static long getQueenTargets(final BoardPosition from, final IChessBoard board) {
+        long lm = 0;
 
         // Add all legal Bishop moves
 		for (int[] delta : Constants.BISHOP_MOVE_DELTA) {
 			// The order of the delta content doesn't matter really
-			addAllPosition(lm, board, from, delta[0], delta[1]);
+			lm |= getLineTargets(board, from, delta[0], delta[1]);
 		}
 
         // Add all legal Rook moves
 		for (int[] delta : Constants.ROOK_MOVE_DELTA) {
 			// The order of the delta content doesn't matter really
-			addAllPosition(lm, board, from, delta[0], delta[1]);
+			lm |= getLineTargets(board, from, delta[0], delta[1]);
 		}
 		return lm;
 	}
@@ -177,14 +729,14 @@ public enum MovementRules {
      *
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-	private static Set<BoardPosition> getLegalRookMoves(final BoardPosition from, final IChessBoard board) {
-        final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+	private static long getRookTargets(final BoardPosition from, final IChessBoard board) {
+        long lm = 0;
 
 		for (int[] delta : Constants.ROOK_MOVE_DELTA) {
 			// The order of the delta content doesn't matter really
-			addAllPosition(lm, board, from, delta[0], delta[1]);
+			lm |= getLineTargets(board, from, delta[0], delta[1]);
 		}
 		return lm;
 	}
@@ -194,14 +746,14 @@ public enum MovementRules {
      *
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-    private static Set<BoardPosition> getLegalBishopMoves(final BoardPosition from, final IChessBoard board) {
-        final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+    private static long getBishopTargets(final BoardPosition from, final IChessBoard board) {
+        long lm = 0;
 
         for (int[] delta : Constants.BISHOP_MOVE_DELTA) {
             // The order of the delta content doesn't matter really
-            addAllPosition(lm, board, from, delta[0], delta[1]);
+            lm |= getLineTargets(board, from, delta[0], delta[1]);
         }
         return lm;
     }
@@ -215,36 +767,36 @@ public enum MovementRules {
      *
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-	private static Set<BoardPosition> getLegalKnightMoves(final BoardPosition from, final IChessBoard board) {
-        final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+	private static long getKnightTargets(final BoardPosition from, final IChessBoard board) {
+        long lm = 0;
 		final int rank = from.getRank();
 		final int file = from.getFile();
 
 		// Upper left
-		addPositionIfValid(board, lm, from, file - 1, rank + 2);
+		lm |= getTargetIfValid(board, from, file - 1, rank + 2);
 
 		// Upper right
-		addPositionIfValid(board, lm, from, file + 1, rank + 2);
+		lm |= getTargetIfValid(board, from, file + 1, rank + 2);
 
 		// Left Upper
-		addPositionIfValid(board, lm, from, file - 2, rank + 1);
+		lm |= getTargetIfValid(board, from, file - 2, rank + 1);
 
 		// Left Lower
-		addPositionIfValid(board, lm, from, file - 2, rank - 1);
+		lm |= getTargetIfValid(board, from, file - 2, rank - 1);
 
 		// Lower Left
-		addPositionIfValid(board, lm, from, file - 1, rank - 2);
+		lm |= getTargetIfValid(board, from, file - 1, rank - 2);
 
 		// Lower Right
-		addPositionIfValid(board, lm, from, file + 1, rank - 2);
+		lm |= getTargetIfValid(board, from, file + 1, rank - 2);
 
 		// Right Upper
-		addPositionIfValid(board, lm, from, file + 2, rank + 1);
+		lm |= getTargetIfValid(board, from, file + 2, rank + 1);
 
 		// Right Lower
-		addPositionIfValid(board, lm, from, file + 2, rank - 1);
+		lm |= getTargetIfValid(board, from, file + 2, rank - 1);
 		return lm;
 	}
 
@@ -264,10 +816,10 @@ public enum MovementRules {
      * </ul>
      * @param from what position is the piece placed on.
      * @param board the current GameBoard.
-     * @return a set of legal BoardPosition.
+     * @return bitboard of the BoardPositions the piece can move to.
      */
-	private static Set<BoardPosition> getLegalPawnMoves(final BoardPosition from, final IChessBoard board) {
-		final Set<BoardPosition> lm = new HashSet<BoardPosition>();
+	private static long getPawnTargets(final BoardPosition from, final IChessBoard board) {
+		long lm = 0;
 
         final PieceColor color = board.getChessPiece(from).getPieceColor();
         final int HOME_ROW = Constants.getHomeRow(color);
@@ -289,18 +841,18 @@ public enum MovementRules {
 					// Calculates if the difference in file is 1 either positive or negative.
 					// If that is the case we can capture en passant!
 					&& (Math.abs(from.getFile() - position.getFile()) == 1)){
-				lm.add(board.getEnPassant());
+				lm |= bit(board.getEnPassant());
 			}
 		}
 
 		// Check if square in front is available
 		if (board.isEmpty(FILE, RANK + MOVE_DELTA)) {
-			lm.add(new BoardPosition(FILE, RANK + MOVE_DELTA));
+			lm |= bit(FILE, RANK + MOVE_DELTA);
 
 			// If we are on the starting row and nothing is in the way we can
 			// take two steps forward
 			if (RANK == HOME_ROW && board.isEmpty(FILE, RANK + 2 * MOVE_DELTA)) {
-				lm.add(new BoardPosition(FILE, RANK + 2 * MOVE_DELTA));
+				lm |= bit(FILE, RANK + 2 * MOVE_DELTA);
 			}
 		}
 
@@ -308,7 +860,7 @@ public enum MovementRules {
 		if (FILE > 0) {
 			IChessPiece left = board.getChessPiece(FILE - 1, RANK + MOVE_DELTA);
 			if (left != null && left.getPieceColor() != color) {
-				lm.add(new BoardPosition(FILE - 1, RANK + MOVE_DELTA));
+				lm |= bit(FILE - 1, RANK + MOVE_DELTA);
 			}
 		}
 
@@ -316,15 +868,15 @@ public enum MovementRules {
 		if (FILE < 7) {
 			IChessPiece right = board.getChessPiece(FILE + 1, RANK + MOVE_DELTA);
 			if (right != null && right.getPieceColor() != color) {
-				lm.add(new BoardPosition(FILE + 1, RANK + MOVE_DELTA));
+				lm |= bit(FILE + 1, RANK + MOVE_DELTA);
 			}
 		}
 		return lm;
 	}
 
     /**
-     * Will add the BoardPosition to that is represented by the toFile and toRank arguments to the
-     * legalMoves Set if it's a valid position. In order to validate that it is a valid position
+     * Gives the BoardPosition that is represented by the toFile and toRank arguments as a bitboard
+     * if it's a valid position, otherwise 0. In order to validate that it is a valid position
      * the following things are checked:
      * <ul>
      * <li>That the toFile and toRank is withing the board limitations.</li>
@@ -332,62 +884,57 @@ public enum MovementRules {
      * </ul>
      *
      * @param board current GameBoard.
-     * @param legalMoves Set to add BoardPosition to if legal move.
      * @param from What BoardPosition piece is moving from.
      * @param toFile The file of the to BoardPosition.
      * @param toRank The rank of the to BoardPosition.
+     * @return bitboard with the to position set if legal move, otherwise 0.
      */
-	private static void addPositionIfValid(final IChessBoard board, final Set<BoardPosition> legalMoves,
-			final BoardPosition from, final int toFile, final int toRank) {
-		try {
-            // Will throw IllegalArgumentException if invalid position.
-			BoardPosition to = new BoardPosition(toFile, toRank);
-
-            // Add position if either empty or contains piece of opposite color
-            IChessPiece piece = board.getChessPiece(to);
-            if (piece == null || piece.getPieceColor() != board.getChessPiece(from).getPieceColor()) {
-                legalMoves.add(to);
-            }
-        } catch (IllegalArgumentException iae) {
-            // There is nothing we can to here.
+	private static long getTargetIfValid(final IChessBoard board, final BoardPosition from,
+			final int toFile, final int toRank) {
+        // Positions outside the board are skipped before they are looked up.
+        if (!BoardPosition.isOnBoard(toFile, toRank)) {
+            return 0;
+        }
+
+        // Add position if either empty or contains piece of opposite color
+        IChessPiece piece = board.getChessPiece(toFile, toRank);
+        if (piece == null || piece.getPieceColor() != board.getChessPiece(from).getPieceColor()) {
+            return bit(toFile, toRank);
         }
+        return 0;
 	}
 
     /**
-     * Adds all BoardPositions beginning from a BoardPosition from until it either finds the edge of
+     * Gives all BoardPositions beginning from a BoardPosition from until it either finds the edge of
      * the board or another chess piece. The direction of the BoardPositions to add is given by the
      * DELTA_FILE and DELTA_RANK parameters. These specify how the movement should change for each
      * step.
      *
-     * @param lm set to add all valid BoardPositions to.
      * @param board the current GameBoard.
      * @param from BoardPosition to start from.
      * @param DELTA_FILE the change in file for each step.
      * @param DELTA_RANK the change in rank for each step.
+     * @return bitboard of all valid BoardPositions.
      */
-    private static void addAllPosition(final Set<BoardPosition> lm, final IChessBoard board, final BoardPosition from,
+    private static long getLineTargets(final IChessBoard board, final BoardPosition from,
                                        final int DELTA_FILE, final int DELTA_RANK) {
+        long lm = 0;
+
+        // Stops at the edge of the board. Checked before the position is looked up.
         for (int file = from.getFile() + DELTA_FILE, rank = from.getRank() + DELTA_RANK;
-            ; file += DELTA_FILE, rank += DELTA_RANK) {
-
-            // Check if current position is within board limitations
-            BoardPosition to;
-            try {
-                to = new BoardPosition(file, rank);
-            } catch (IllegalArgumentException iae) {
-                // Otherwise return
-                return;
-            }
+            BoardPosition.isOnBoard(file, rank); file += DELTA_FILE, rank += DELTA_RANK) {
+
+            IChessPiece piece = board.getChessPiece(file, rank);
 
             // If the position is empty then we can check next square.
-            if (board.isEmpty(to)) {
-                lm.add(to);
+            if (piece == null) {
+                lm |= bit(file, rank);
                 continue;
             }
 
             // If not square isn't empty, then compare color of the two pieces.
-            if (board.getChessPiece(to).getPieceColor() != board.getChessPiece(from).getPieceColor()) {
-                lm.add(to);
+            if (piece.getPieceColor() != board.getChessPiece(from).getPieceColor()) {
+                lm |= bit(file, rank);
             }
 
             /*
@@ -396,5 +943,17 @@ public enum MovementRules {
              */
             break;
         }
+        return lm;
+    }
+
+    /*
+     * Gives a bitboard with only the bit for the position set.
+     */
+    private static long bit(final BoardPosition position) {
+        return 1L << position.getIndex();
+    }
+
+    private static long bit(final int file, final int rank) {
+        return 1L << (rank * Constants.BOARD_SIZE + file);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Encodes a move in a single int so that moves can be generated, stored and compared without
+ * creating objects. The bits are used as follows:
+ * <ul>
+ * <li>0-5: the from position number rank * 8 + file.</li>
+ * <li>6-11: the to position number.</li>
+ * <li>12-14: the piece a pawn is promoted to as PieceType ordinal + 1, or 0 if no promotion.</li>
+ * <li>15-18: the flags CAPTURE, DOUBLE_PUSH, EN_PASSANT and CASTLE.</li>
+ * </ul>
+ *
+ * The flags only describe the move, the board decides what the move actually does when it's made.
+ *
+ * @see MovementRules#generateMoves(IChessBoard, MoveList)
+ */
+public enum PackedMove {
+    ;
+
+    /**
+     * Set if the move captures a piece, including en passant.
+     */
+    public static final int CAPTURE = 1 << 15;
+
+    /**
+     * Set if a pawn moves two steps forward.
+     */
+    public static final int DOUBLE_PUSH = 1 << 16;
+
+    /**
+     * Set if a pawn captures en passant.
+     */
+    public static final int EN_PASSANT = 1 << 17;
+
+    /**
+     * Set if the King castles.
+     */
+    public static final int CASTLE = 1 << 18;
+
+    /**
+     * The pieces a pawn can be promoted to, most valuable first.
+     */
+    static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int FLAG_MASK = CAPTURE | DOUBLE_PUSH | EN_PASSANT | CASTLE;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    /**
+     * Encodes a move.
+     *
+     * @throws IllegalArgumentException if flags contains bits other than the flags of this class.
+     * @param from where the piece is placed.
+     * @param to where the piece should be moved.
+     * @param promotion what a pawn is promoted to, or null if no promotion.
+     * @param flags any of the flags of this class combined with or.
+     * @return the encoded move.
+     */
+    public static int encode(final BoardPosition from, final BoardPosition to, final PieceType promotion,
+                             final int flags) {
+        if ((flags & ~FLAG_MASK) != 0) {
+            throw new IllegalArgumentException("Argument flags contains unknown bits: " + flags);
+        }
+        final int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from.getIndex() | to.getIndex() << TO_SHIFT | promotionBits << PROMOTION_SHIFT | flags;
+    }
+
+    /**
+     * Gives where the piece is moved from.
+     *
+     * @param move the encoded move.
+     * @return the from position.
+     */
+    public static BoardPosition getFrom(final int move) {
+        return BoardPosition.of(move & SQUARE_MASK);
+    }
+
+    /**
+     * Gives where the piece is moved to.
+     *
+     * @param move the encoded move.
+     * @return the to position.
+     */
+    public static BoardPosition getTo(final int move) {
+        return BoardPosition.of(move >>> TO_SHIFT & SQUARE_MASK);
+    }
+
+    /**
+     * Gives the piece a pawn is promoted to.
+     *
+     * @param move the encoded move.
+     * @return the piece type or null if the move isn't a promotion.
+     */
+    public static PieceType getPromotion(final int move) {
+        final int promotion = move >>> PROMOTION_SHIFT & PROMOTION_MASK;
+        return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    /**
+     * Checks if the move captures a piece.
+     *
+     * @param move the encoded move.
+     * @return true if the CAPTURE flag is set, otherwise false.
+     */
+    public static boolean isCapture(final int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Checks if the move is a pawn moving two steps forward.
+     *
+     * @param move the encoded move.
+     * @return true if the DOUBLE_PUSH flag is set, otherwise false.
+     */
+    public static boolean isDoublePush(final int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * Checks if the move is a pawn capturing en passant.
+     *
+     * @param move the encoded move.
+     * @return true if the EN_PASSANT flag is set, otherwise false.
+     */
+    public static boolean isEnPassant(final int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * Checks if the move is the King castling.
+     *
+     * @param move the encoded move.
+     * @return true if the CASTLE flag is set, otherwise false.
+     */
+    public static boolean isCastle(final int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Plays the move on the board.
+     *
+     * @see IChessBoard#makeMove(BoardPosition, BoardPosition, PieceType, MoveUndo)
+     * @param board the board to play the move on.
+     * @param move the encoded move.
+     * @param undo record filled with what is needed to take the move back.
+     */
+    public static void make(final IChessBoard board, final int move, final MoveUndo undo) {
+        board.makeMove(getFrom(move), getTo(move), getPromotion(move), undo);
+    }
+
+    /**
+     * Gives the move as from and to in lower case followed by the promotion, for example "e7e8q".
+     *
+     * @param move the encoded move.
+     * @return the move as text.
+     */
+    public static String toString(final int move) {
+        final String text = (getFrom(move).toString() + getTo(move).toString()).toLowerCase();
+        final PieceType promotion = getPromotion(move);
+        if (promotion == null) {
+            return text;
+        }
+        return text + (promotion == PieceType.KNIGHT ? "n" : promotion.name().substring(0, 1).toLowerCase());
+    }
+}
@@ -0,0 +1,254 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Material and piece-square tables for evaluating positions. Every piece type has a value and a
+ * bonus for every square, both for the middlegame and for the endgame, and the score of a
+ * position is the sum over all pieces, White's positive and Black's negative. Since the sum only
+ * changes with the pieces that move, a board keeps it up to date like the Zobrist key instead of
+ * looking at the whole board.
+ *
+ * The middlegame and endgame scores are packed in one int, so that one addition updates both.
+ * The game phase tells how much material other than pawns is left, and taper blends the two
+ * scores by it: with all pieces on the board only the middlegame score counts, with only Kings
+ * and pawns only the endgame score.
+ *
+ * The tables are based on the Simplified Evaluation Function by Tomasz Michniewski, with endgame
+ * tables added for the pawn and the King.
+ *
+ * @see IChessBoard#getPieceSquareScore()
+ * @see IChessBoard#getPhase()
+ */
+public enum PieceSquareTables {
+    ;
+
+    /**
+     * The phase with all pieces on the board. Higher phases, after promotions, count as this.
+     */
+    public static final int MAX_PHASE = 24;
+
+    private static final int SQUARES = 64;
+    private static final int PIECE_TYPES = PieceType.values().length;
+
+    // Indexed by PieceType ordinal: PAWN, ROOK, KNIGHT, BISHOP, QUEEN, KING.
+    private static final int[] MIDDLEGAME_VALUE = {100, 500, 320, 330, 900, 0};
+    private static final int[] ENDGAME_VALUE = {120, 520, 300, 320, 900, 0};
+    private static final int[] PHASE = {0, 2, 1, 1, 4, 0};
+
+    /*
+     * The tables are written as seen by White with the eighth rank first, so White's square
+     * rank * 8 + file is found at index square ^ 56, and Black's mirrored square at index square.
+     */
+    private static final int[] PAWN = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0};
+
+    // In the endgame only how far a pawn has come matters.
+    private static final int[] PAWN_ENDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0};
+
+    private static final int[] ROOK = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0};
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20};
+
+    // In the middlegame the King hides behind its pawns.
+    private static final int[] KING = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20};
+
+    // In the endgame the King belongs in the center.
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    // Indexed by PieceType ordinal.
+    private static final int[][] MIDDLEGAME_TABLES = {PAWN, ROOK, KNIGHT, BISHOP, QUEEN, KING};
+    private static final int[][] ENDGAME_TABLES = {PAWN_ENDGAME, ROOK, KNIGHT, BISHOP, QUEEN, KING_ENDGAME};
+
+    // Packed scores indexed by color ordinal * 6 + type ordinal and square.
+    private static final int[][] PIECES = new int[PieceColor.values().length * PIECE_TYPES][SQUARES];
+
+    static {
+        for (int type = 0; type < PIECE_TYPES; type++) {
+            for (int square = 0; square < SQUARES; square++) {
+                final int white = square ^ 56;
+                PIECES[type][square] = pack(MIDDLEGAME_VALUE[type] + MIDDLEGAME_TABLES[type][white],
+                        ENDGAME_VALUE[type] + ENDGAME_TABLES[type][white]);
+                PIECES[PIECE_TYPES + type][square] = pack(-MIDDLEGAME_VALUE[type] - MIDDLEGAME_TABLES[type][square],
+                        -ENDGAME_VALUE[type] - ENDGAME_TABLES[type][square]);
+            }
+        }
+    }
+
+    /**
+     * Gives the packed score of a piece on a square: positive for White, negative for Black.
+     *
+     * @param color of the piece.
+     * @param type of the piece.
+     * @param square position number rank * 8 + file.
+     * @return the packed score to add when the piece is placed and subtract when it's removed.
+     */
+    public static int piece(final PieceColor color, final PieceType type, final int square) {
+        return PIECES[color.ordinal() * PIECE_TYPES + type.ordinal()][square];
+    }
+
+    /**
+     * Gives how much a piece type counts towards the game phase.
+     *
+     * @param type of the piece.
+     * @return 4 for a Queen, 2 for a Rook, 1 for a Bishop or Knight and 0 otherwise.
+     */
+    public static int phase(final PieceType type) {
+        return PHASE[type.ordinal()];
+    }
+
+    /**
+     * Gives the middlegame material value of a piece type. The King has no value since it's never
+     * captured.
+     *
+     * @param type of the piece.
+     * @return the value in centipawns.
+     */
+    public static int value(final PieceType type) {
+        return MIDDLEGAME_VALUE[type.ordinal()];
+    }
+
+    /**
+     * Packs a middlegame and an endgame score into one int. Packed scores can be added and
+     * subtracted as ints as long as both halves stay within the range of a short.
+     *
+     * @param middlegame score in centipawns.
+     * @param endgame score in centipawns.
+     * @return the packed score.
+     */
+    public static int pack(final int middlegame, final int endgame) {
+        return (endgame << 16) + middlegame;
+    }
+
+    /**
+     * @param score packed score.
+     * @return the middlegame half.
+     */
+    public static int middlegame(final int score) {
+        return (short) score;
+    }
+
+    /**
+     * @param score packed score.
+     * @return the endgame half.
+     */
+    public static int endgame(final int score) {
+        // A negative middlegame half borrows one from the endgame half, adding half the range first
+        // gives it back.
+        return (score + 0x8000) >> 16;
+    }
+
+    /**
+     * Blends the middlegame and endgame scores by the game phase.
+     *
+     * @param score packed score.
+     * @param phase game phase, between 0 and MAX_PHASE or above.
+     * @return the tapered score in centipawns.
+     */
+    public static int taper(final int score, final int phase) {
+        final int middlegame = Math.min(phase, MAX_PHASE);
+        return (middlegame(score) * middlegame + endgame(score) * (MAX_PHASE - middlegame)) / MAX_PHASE;
+    }
+
+    /**
+     * Computes the packed score of the position on the board from scratch. The boards use it
+     * when they are created, after that the score is kept up to date as the board changes.
+     *
+     * @param board the position.
+     * @return the packed score, positive when White is better.
+     */
+    public static int compute(final IChessBoard board) {
+        int score = 0;
+        for (PieceColor color : PieceColor.values()) {
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                final BoardPosition position = board.getPiecePosition(color, i);
+                score += piece(color, board.getChessPiece(position).getPieceType(), position.getIndex());
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Computes the game phase of the position on the board from scratch.
+     *
+     * @param board the position.
+     * @return the phase, MAX_PHASE in the starting position.
+     */
+    public static int computePhase(final IChessBoard board) {
+        int phase = 0;
+        for (PieceColor color : PieceColor.values()) {
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                phase += phase(board.getChessPiece(board.getPiecePosition(color, i)).getPieceType());
+            }
+        }
+        return phase;
+    }
+}
@@ -0,0 +1,192 @@
+package io.oscr.androidchess.model;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Mutable. Meant to be reused, but by one thread at a time.
+ *
+ * The Zobrist keys of the positions of a game, oldest first, together with the halfmove clock:
+ * the number of moves since the last capture or pawn move. Such a move can't be taken back, so no
+ * position before it can come again, and finding out if the latest position is a repetition only
+ * means comparing the keys since then instead of whole boards.
+ *
+ * ChessModel pushes the key of every position of the game. Search continues from a copy of it and
+ * pushes and pops the positions of the line it's searching, so that repetitions of positions from
+ * the game are found too.
+ *
+ * @see IChessBoard#getKey()
+ */
+public final class PositionHistory {
+    /**
+     * Moves by both players without a capture or pawn move after which the game is drawn.
+     */
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private long[] keys;
+    private int[] clocks;
+    private int size;
+
+    /**
+     * Creates an empty history.
+     */
+    public PositionHistory() {
+        keys = new long[INITIAL_CAPACITY];
+        clocks = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a copy of the history with room for pushing extra positions without growing.
+     *
+     * @throws NullPointerException if other is null.
+     * @throws IllegalArgumentException if extra is negative.
+     * @param other the history to copy.
+     * @param extra number of positions that can be pushed before the copy grows.
+     */
+    public PositionHistory(final PositionHistory other, final int extra) {
+        keys = new long[0];
+        clocks = new int[0];
+        copyFrom(other, extra);
+    }
+
+    /**
+     * Replaces the positions with those of the other history, with room for pushing extra
+     * positions without growing. Only allocates if there isn't room already, so a reused history
+     * soon stops allocating.
+     *
+     * @throws NullPointerException if other is null.
+     * @throws IllegalArgumentException if extra is negative.
+     * @param other the history to copy.
+     * @param extra number of positions that can be pushed before the history grows.
+     */
+    public void copyFrom(final PositionHistory other, final int extra) {
+        checkNotNull(other, "Argument other was null. Expected non null");
+        checkArgument(extra >= 0, "Argument extra was negative: %s", extra);
+        if (keys.length < other.size + extra) {
+            keys = new long[other.size + extra];
+            clocks = new int[other.size + extra];
+        }
+        System.arraycopy(other.keys, 0, keys, 0, other.size);
+        System.arraycopy(other.clocks, 0, clocks, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * Removes all positions.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds the position reached by a move.
+     *
+     * @param key the Zobrist key of the position.
+     * @param irreversible true if the move was a capture or a pawn move, or if it's the first
+     *                     position, otherwise false.
+     */
+    public void push(final long key, final boolean irreversible) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(2 * size, INITIAL_CAPACITY));
+            clocks = Arrays.copyOf(clocks, Math.max(2 * size, INITIAL_CAPACITY));
+        }
+        keys[size] = key;
+        clocks[size] = irreversible || size == 0 ? 0 : clocks[size - 1] + 1;
+        size++;
+    }
+
+    /**
+     * Removes the latest position, when the move to it is taken back.
+     *
+     * @throws IllegalStateException if the history is empty.
+     */
+    public void pop() {
+        checkState(size > 0, "The history is empty");
+        size--;
+    }
+
+    /**
+     * Gives the number of positions.
+     *
+     * @return number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the key of the latest position.
+     *
+     * @throws IllegalStateException if the history is empty.
+     * @return the Zobrist key.
+     */
+    public long getKey() {
+        checkState(size > 0, "The history is empty");
+        return keys[size - 1];
+    }
+
+    /**
+     * Gives the number of moves since the last capture or pawn move, 0 if the history is empty.
+     *
+     * @return the halfmove clock.
+     */
+    public int getHalfmoveClock() {
+        return size == 0 ? 0 : clocks[size - 1];
+    }
+
+    /**
+     * Counts how many times the latest position has been seen before. Only the positions since the
+     * last capture or pawn move with the same player to move are compared, which is every second
+     * one going back.
+     *
+     * @return number of earlier times, 0 if the history is empty.
+     */
+    public int countRepetitions() {
+        if (size == 0) {
+            return 0;
+        }
+        final long key = keys[size - 1];
+        final int oldest = size - 1 - clocks[size - 1];
+        int count = 0;
+        for (int i = size - 3; i >= oldest; i -= 2) {
+            if (keys[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the latest position has been seen at least once before. A search scores this as a
+     * draw, since if repeating it was good once it's good again.
+     *
+     * @return true if the position is a repetition, otherwise false.
+     */
+    public boolean isRepetition() {
+        return countRepetitions() > 0;
+    }
+
+    /**
+     * Checks if the latest position has come three times, which draws the game.
+     *
+     * @return true if the position is a threefold repetition, otherwise false.
+     */
+    public boolean isThreefoldRepetition() {
+        return countRepetitions() >= 2;
+    }
+
+    /**
+     * Checks if fifty moves by each player have been made without a capture or pawn move, which
+     * draws the game.
+     *
+     * @return true if the fifty-move rule applies, otherwise false.
+     */
+    public boolean isFiftyMoveRule() {
+        return getHalfmoveClock() >= FIFTY_MOVE_PLIES;
+    }
+}
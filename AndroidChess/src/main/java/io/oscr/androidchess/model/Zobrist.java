@@ -0,0 +1,148 @@
+package io.oscr.androidchess.model;
+
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+import java.util.Random;
+
+/**
+ * Zobrist hashing of chess positions. Every piece on every square, black to move, each King
+ * having moved and each en passant square has its own random 64 bit number, and the key of a
+ * position is all numbers that apply to it combined with xor. Since xor is its own inverse a
+ * board can keep the key up to date by xoring in and out the numbers of what changes, instead of
+ * looking at the whole board.
+ *
+ * The numbers are generated from a fixed seed, so a position has the same key in every run and
+ * on every IChessBoard implementation.
+ *
+ * @see IChessBoard#getKey()
+ */
+public enum Zobrist {
+    ;
+
+    private static final long SEED = 0x5DEECE66DL;
+    private static final int SQUARES = 64;
+    private static final int PIECE_TYPES = PieceType.values().length;
+
+    // Indexed by color ordinal * 6 + type ordinal and square.
+    private static final long[][] PIECES = new long[PieceColor.values().length * PIECE_TYPES][SQUARES];
+    private static final long BLACK_TO_MOVE;
+    private static final long[] KING_MOVED = new long[PieceColor.values().length];
+    private static final long[] EN_PASSANT = new long[SQUARES];
+
+    static {
+        final Random random = new Random(SEED);
+        for (long[] squares : PIECES) {
+            for (int square = 0; square < SQUARES; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for (int color = 0; color < KING_MOVED.length; color++) {
+            KING_MOVED[color] = random.nextLong();
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            EN_PASSANT[square] = random.nextLong();
+        }
+    }
+
+    /**
+     * Gives the number for a piece placed on a position.
+     *
+     * @param piece the piece.
+     * @param position where the piece is placed.
+     * @return the number to xor with the key when the piece is placed or removed.
+     */
+    public static long piece(final IChessPiece piece, final BoardPosition position) {
+        return piece(piece.getPieceColor(), piece.getPieceType(), position.getIndex());
+    }
+
+    /**
+     * Same as piece(IChessPiece, BoardPosition) but takes the color and type of the piece and the
+     * position number rank * 8 + file.
+     *
+     * @param color of the piece.
+     * @param type of the piece.
+     * @param square position number of the piece.
+     * @return the number to xor with the key when the piece is placed or removed.
+     */
+    public static long piece(final PieceColor color, final PieceType type, final int square) {
+        return PIECES[color.ordinal() * PIECE_TYPES + type.ordinal()][square];
+    }
+
+    /**
+     * Gives the number to xor with the key when the turn switches.
+     *
+     * @return the number for black to move.
+     */
+    public static long turn() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Gives the number for the King of the specified color having moved.
+     *
+     * @param color whose King.
+     * @return the number to xor with the key when the King is marked as moved.
+     */
+    public static long kingMoved(final PieceColor color) {
+        return KING_MOVED[color.ordinal()];
+    }
+
+    /**
+     * Gives the number for an en passant position.
+     *
+     * @param enPassant the position a pawn moves to when capturing en passant. May be null.
+     * @return the number to xor with the key, or 0 if enPassant is null.
+     */
+    public static long enPassant(final BoardPosition enPassant) {
+        return enPassant == null ? 0 : EN_PASSANT[enPassant.getIndex()];
+    }
+
+    /**
+     * Computes the key of the position on the board from scratch. The boards use it when they are
+     * created, after that the key is kept up to date as the board changes. Also useful to verify
+     * that the key of a board is correct.
+     *
+     * @param board the position.
+     * @return the key.
+     */
+    public static long compute(final IChessBoard board) {
+        long key = 0;
+        for (PieceColor color : PieceColor.values()) {
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                final BoardPosition position = board.getPiecePosition(color, i);
+                key ^= piece(board.getChessPiece(position), position);
+            }
+            if (board.isKingMoved(color)) {
+                key ^= kingMoved(color);
+            }
+        }
+        if (board.getTurn() == PieceColor.BLACK) {
+            key ^= BLACK_TO_MOVE;
+        }
+        return key ^ enPassant(board.getEnPassant());
+    }
+
+    /**
+     * Computes the pawn key of the position on the board from scratch: the numbers of the pawns
+     * only, so that positions with the same pawns have the same pawn key.
+     *
+     * @param board the position.
+     * @return the pawn key, 0 without pawns.
+     */
+    public static long computePawnKey(final IChessBoard board) {
+        long key = 0;
+        for (PieceColor color : PieceColor.values()) {
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                final BoardPosition position = board.getPiecePosition(color, i);
+                final IChessPiece piece = board.getChessPiece(position);
+                if (piece.getPieceType() == PieceType.PAWN) {
+                    key ^= piece(piece, position);
+                }
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,266 @@
+package io.oscr.androidchess.model.perft;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a given depth, which is known as perft. The
+ * counts for well known positions are published, so comparing against them verifies that the move
+ * generation in MovementRules and the legality checks are correct. Timing the count measures how
+ * fast they are.
+ *
+ * Moves are generated with MovementRules#generateLegalMoves into one reused MoveList per ply, so
+ * counting creates no objects. A pawn reaching the last row counts as four moves, one for each
+ * piece it can be promoted to.
+ *
+ * With a PerftCache the count below every position at least two moves from the leaves is
+ * remembered, and a position reached again by another move order isn't counted again. How often
+ * that happened is given by getCacheHits.
+ *
+ * The board is changed while counting but is back in its original state when a count returns.
+ */
+public final class Perft {
+    private final IChessBoard board;
+
+    // Null when counting without a cache.
+    private final PerftCache cache;
+    private long cacheProbes;
+    private long cacheHits;
+
+    // Used when checking if a move is legal.
+    private final MoveUndo check = new MoveUndo();
+
+    // One record and one move list per ply, grown when a deeper count is requested.
+    private MoveUndo[] undo = new MoveUndo[0];
+    private MoveList[] moves = new MoveList[0];
+
+    /**
+     * Creates a perft counter for the position on the board.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board position to count from.
+     */
+    public Perft(final IChessBoard board) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        this.board = board;
+        this.cache = null;
+    }
+
+    /**
+     * Creates a perft counter for the position on the board that remembers counts in the cache.
+     * The cache may be shared with counters on other threads.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @param board position to count from.
+     * @param cache where counts are remembered.
+     */
+    public Perft(final IChessBoard board, final PerftCache cache) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(cache, "Argument cache was null. Expected non null");
+        this.board = board;
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the number of leaf nodes depth moves from the current position.
+     *
+     * @throws IllegalArgumentException if depth is negative.
+     * @param depth number of moves to look ahead.
+     * @return number of leaf nodes.
+     */
+    public long perft(final int depth) {
+        checkArgument(depth >= 0, "Argument depth was negative: %s", depth);
+        ensurePlies(depth);
+        cacheProbes = 0;
+        cacheHits = 0;
+        return count(depth, 0);
+    }
+
+    /**
+     * Counts the leaf nodes below each legal move from the current position. Comparing the result
+     * with another move generator shows which move has a wrong count, and by playing that move and
+     * dividing again the error can be found.
+     *
+     * Moves are written as from and to in lower case followed by the promotion, for example "e7e8q".
+     *
+     * @throws IllegalArgumentException if depth is smaller than 1.
+     * @param depth number of moves to look ahead, including the divided move.
+     * @return the leaf node count for each move sorted by move.
+     */
+    public Map<String, Long> divide(final int depth) {
+        checkArgument(depth >= 1, "Argument depth was smaller than 1: %s", depth);
+        ensurePlies(depth);
+        cacheProbes = 0;
+        cacheHits = 0;
+
+        final Map<String, Long> result = new TreeMap<String, Long>();
+        final MoveList list = moves[0];
+        MovementRules.generateLegalMoves(board, list, check);
+        for (int i = 0; i < list.size(); i++) {
+            final int move = list.get(i);
+            PackedMove.make(board, move, undo[0]);
+            result.put(PackedMove.toString(move), count(depth - 1, 1));
+            board.unmakeMove(undo[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Gives how many times the last count looked for a position in the cache.
+     *
+     * @return number of lookups, 0 without a cache.
+     */
+    public long getCacheProbes() {
+        return cacheProbes;
+    }
+
+    /**
+     * Gives how many times the last count found a position in the cache.
+     *
+     * @return number of lookups that found the count.
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /*
+     * Counts the leaf nodes depth moves ahead. Ply is how deep into the tree we are and selects
+     * what undo record and move list to use.
+     */
+    private long count(final int depth, final int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        // Counting one move ahead is as fast as looking it up.
+        final boolean cached = cache != null && depth >= 2;
+        final long key = board.getKey();
+        if (cached) {
+            cacheProbes++;
+            final long nodes = cache.probe(key, depth);
+            if (nodes != PerftCache.NOT_FOUND) {
+                cacheHits++;
+                return nodes;
+            }
+        }
+
+        final MoveList list = moves[ply];
+        MovementRules.generateLegalMoves(board, list, check);
+        // The last move doesn't have to be played, we only need to know it's legal.
+        if (depth == 1) {
+            return list.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            PackedMove.make(board, list.get(i), undo[ply]);
+            nodes += count(depth - 1, ply + 1);
+            board.unmakeMove(undo[ply]);
+        }
+        if (cached) {
+            cache.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    private void ensurePlies(final int depth) {
+        if (undo.length < depth) {
+            undo = new MoveUndo[depth];
+            moves = new MoveList[depth];
+            for (int i = 0; i < depth; i++) {
+                undo[i] = new MoveUndo();
+                moves[i] = new MoveList();
+            }
+        }
+    }
+
+    /**
+     * Headless perft runner. Prints the node count, the time it took and the number of nodes per
+     * second. With -divide the count below each move is printed as well. With -hash counts are
+     * remembered in a cache of the given number of megabytes, and the cache hit rate is printed.
+     *
+     * Usage: Perft [-divide] [-bitboard] [-hash megabytes] depth [fen]
+     *
+     * Without a fen the count starts from the normal starting position.
+     *
+     * @param args command line arguments as described above.
+     */
+    public static void main(final String[] args) {
+        boolean divide = false;
+        BoardType type = BoardType.ARRAY;
+        int megabytes = 0;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            if (args[i].equals("-divide")) {
+                divide = true;
+            } else if (args[i].equals("-bitboard")) {
+                type = BoardType.BITBOARD;
+            } else if (args[i].equals("-hash") && i + 1 < args.length) {
+                megabytes = Integer.parseInt(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (i >= args.length) {
+            System.err.println("Usage: Perft [-divide] [-bitboard] [-hash megabytes] depth [fen]");
+            return;
+        }
+
+        final int depth = Integer.parseInt(args[i++]);
+        final StringBuilder fen = new StringBuilder();
+        for (; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final IChessBoard board = fen.length() == 0 ? type.create() : type.create(new Fen(fen.toString()));
+        final Perft perft = megabytes == 0 ? new Perft(board) : new Perft(board, new PerftCache(megabytes));
+
+        final long start = System.nanoTime();
+        long nodes = 0;
+        Map<String, Long> moves = null;
+        if (divide) {
+            moves = perft.divide(depth);
+            for (long count : moves.values()) {
+                nodes += count;
+            }
+        } else {
+            nodes = perft.perft(depth);
+        }
+        final long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        if (moves != null) {
+            for (Map.Entry<String, Long> entry : moves.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+            }
+            System.out.println("Moves: " + moves.size());
+        }
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + millis + " ms");
+        System.out.println("Nodes per second: " + nodes * 1000 / millis);
+        if (megabytes != 0) {
+            System.out.println(cacheStatistics(perft.getCacheHits(), perft.getCacheProbes()));
+        }
+    }
+
+    /**
+     * Describes the cache hit rate for printing.
+     *
+     * @param hits lookups that found the count.
+     * @param probes all lookups.
+     * @return the description.
+     */
+    public static String cacheStatistics(final long hits, final long probes) {
+        final double rate = probes == 0 ? 0 : 100.0 * hits / probes;
+        return String.format("Cache hits: %d of %d (%.1f%%)", hits, probes, rate);
+    }
+}
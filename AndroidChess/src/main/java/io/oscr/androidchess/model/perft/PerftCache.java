@@ -0,0 +1,115 @@
+package io.oscr.androidchess.model.perft;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Thread safe without locks. May be shared by perft counters on several threads.
+ *
+ * Remembers the leaf node count below positions, keyed by the Zobrist key of IChessBoard and
+ * the remaining depth, so that a subtree reached by transposition is counted only once. The
+ * cache has a fixed size set in megabytes and is lossy: when it's full old counts are replaced
+ * and have to be counted again.
+ *
+ * Like TranspositionTable every entry is two longs, the data and the key xor the data, so an
+ * entry that is torn by another thread's write is detected and treated as a miss. The data is
+ * the count shifted left eight bits with the depth in the low bits.
+ *
+ * Entries are grouped in buckets of two. The first entry keeps the deepest count, which saves the
+ * most work, and is only replaced by a count at least as deep. The second entry is always
+ * replaced, so that the most recent counts are kept as well.
+ *
+ * @see io.oscr.androidchess.model.IChessBoard#getKey()
+ */
+public final class PerftCache {
+    /**
+     * Returned by probe when the count isn't in the cache.
+     */
+    public static final long NOT_FOUND = -1;
+
+    /**
+     * The highest depth that can be stored.
+     */
+    public static final int MAX_DEPTH = 0xFF;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BUCKET_LONGS = 2 * LONGS_PER_ENTRY;
+    private static final int DEPTH_BITS = 8;
+
+    private final long[] table;
+    private final int bucketMask;
+
+    /**
+     * Creates an empty cache that uses at most the given number of megabytes. The number of
+     * entries is the largest power of two that fits.
+     *
+     * @throws IllegalArgumentException if megabytes isn't between 1 and 1024.
+     * @param megabytes size of the cache.
+     */
+    public PerftCache(final int megabytes) {
+        checkArgument(megabytes >= 1 && megabytes <= 1024, "Argument megabytes was %s. Expected 1 to 1024", megabytes);
+        final long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BUCKET_LONGS * 8));
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up the count below a position.
+     *
+     * @param key the Zobrist key of the position.
+     * @param depth the remaining depth the count is for.
+     * @return the leaf node count or NOT_FOUND.
+     */
+    public long probe(final long key, final int depth) {
+        final int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == key && (int) (data & MAX_DEPTH) == depth && data != 0) {
+                return data >>> DEPTH_BITS;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores the count below a position.
+     *
+     * @throws IllegalArgumentException if depth isn't between 1 and MAX_DEPTH or nodes is negative.
+     * @param key the Zobrist key of the position.
+     * @param depth the remaining depth the count is for.
+     * @param nodes the leaf node count.
+     */
+    public void store(final long key, final int depth, final long nodes) {
+        if (depth < 1 || depth > MAX_DEPTH || nodes < 0) {
+            throw new IllegalArgumentException("Argument depth was " + depth + " and nodes " + nodes);
+        }
+        final int bucket = bucketIndex(key);
+        final long data = nodes << DEPTH_BITS | depth;
+        final int deepest = (int) (table[bucket + 1] & MAX_DEPTH);
+        final int i = depth >= deepest ? bucket : bucket + LONGS_PER_ENTRY;
+        table[i] = key ^ data;
+        table[i + 1] = data;
+    }
+
+    /**
+     * Removes all counts. Must not be invoked while a counter uses the cache.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * Gives the number of entries in the cache.
+     *
+     * @return number of entries.
+     */
+    public int capacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    private int bucketIndex(final long key) {
+        // The high bits select the bucket, so the low bits of the key still tell entries apart.
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_LONGS;
+    }
+}
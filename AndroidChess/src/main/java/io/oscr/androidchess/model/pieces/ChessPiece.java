@@ -6,9 +6,33 @@ package io.oscr.androidchess.model.pieces;
  * Represents a chess piece on the board.
  */
 public final class ChessPiece implements IChessPiece {
+    // One shared instance for every combination of color and type. Used by valueOf.
+    private static final ChessPiece[][] PIECES = new ChessPiece[PieceColor.values().length][PieceType.values().length];
+
+    static {
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
 	private final PieceColor color;
 	private final PieceType type;
 
+    /**
+     * Returns a shared ChessPiece of the given color and type. Since ChessPiece is immutable the
+     * same instance can be placed on any number of boards, which avoids creating new pieces
+     * when for example promoting a pawn.
+     *
+     * @param color what color the piece has.
+     * @param type what type of piece it is.
+     * @return the shared ChessPiece with the specified color and type.
+     */
+    public static ChessPiece valueOf(final PieceColor color, final PieceType type) {
+        return PIECES[color.ordinal()][type.ordinal()];
+    }
+
     /**
      * Creates a new ChessPiece.
      *
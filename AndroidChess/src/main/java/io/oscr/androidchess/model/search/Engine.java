@@ -0,0 +1,151 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.PositionHistory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Computer opponent. Searches for a move on a background thread and hands the result to a
+ * listener on the delivery executor, which for an Android app should run it on the UI thread.
+ * The thread that asks for a move is never blocked.
+ *
+ * Only one search runs at a time. Asking for a new move stops the running search, whose move is
+ * then still delivered, so the listener must know if it's still interested in it. Requests that
+ * haven't started when a new one is made are dropped.
+ */
+public final class Engine {
+
+    /**
+     * Receives the move found by the engine.
+     */
+    public interface Listener {
+        /**
+         * Invoked on the delivery executor when the search is done.
+         *
+         * @param result the move found by the search. The move is 0 if there is no legal move.
+         */
+        void onSearchDone(SearchResult result);
+    }
+
+    private final ParallelSearch search;
+    private final SearchLimits limits;
+    private final Executor delivery;
+
+    // Incremented for every request so that a request can see if a newer one has been made.
+    private final AtomicInteger requests = new AtomicInteger();
+
+    // Incremented by stop so that a request can see if it was stopped before its search started.
+    private final AtomicInteger stops = new AtomicInteger();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Engine");
+            // The search must not keep the application from exiting.
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Creates an engine that searches with one thread.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @param table where the searched positions are remembered.
+     * @param limits how long to search for every move.
+     * @param delivery runs the listeners with the found moves.
+     */
+    public Engine(final TranspositionTable table, final SearchLimits limits, final Executor delivery) {
+        this(table, limits, delivery, 1);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @throws NullPointerException if any of table, limits or delivery is null.
+     * @throws IllegalArgumentException if threads isn't between 1 and ParallelSearch.MAX_THREADS.
+     * @param table where the searched positions are remembered.
+     * @param limits how long to search for every move.
+     * @param delivery runs the listeners with the found moves.
+     * @param threads number of threads to search with.
+     */
+    public Engine(final TranspositionTable table, final SearchLimits limits, final Executor delivery,
+                  final int threads) {
+        checkNotNull(table, "Argument table was null. Expected non null");
+        checkNotNull(limits, "Argument limits was null. Expected non null");
+        checkNotNull(delivery, "Argument delivery was null. Expected non null");
+        this.search = new ParallelSearch(table, threads);
+        this.limits = limits;
+        this.delivery = delivery;
+    }
+
+    /**
+     * Starts searching for the best move of the player whose turn it is and returns at once. The
+     * board is used by the search thread until the move is delivered, so it must be a copy that
+     * nothing else changes.
+     *
+     * @throws NullPointerException if board or listener is null.
+     * @param board copy of the position to search.
+     * @param listener receives the move.
+     */
+    public void think(final IChessBoard board, final Listener listener) {
+        think(board, new PositionHistory(), listener);
+    }
+
+    /**
+     * Same as think(IChessBoard, Listener), but the search also knows the earlier positions of
+     * the game, so it can avoid or aim for a draw by repetition. Like the board, the history must
+     * be a copy that nothing else changes.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @param board copy of the position to search.
+     * @param history copy of the positions of the game, ending with the one on the board.
+     * @param listener receives the move.
+     */
+    public void think(final IChessBoard board, final PositionHistory history, final Listener listener) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(history, "Argument history was null. Expected non null");
+        checkNotNull(listener, "Argument listener was null. Expected non null");
+        final int request = requests.incrementAndGet();
+        final int stop = stops.get();
+        search.stop();
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                /*
+                 * The stop flag is cleared before the checks. A newer request or a stop that
+                 * comes after them sets it again, and one that came before is seen here.
+                 */
+                search.prepare();
+                if (request != requests.get()) {
+                    return;
+                }
+                if (stop != stops.get()) {
+                    search.stop();
+                }
+                final SearchResult result = search.run(board, history, limits);
+                delivery.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSearchDone(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops the running search, if any. Its move is delivered as soon as the search returns.
+     */
+    public void stop() {
+        stops.incrementAndGet();
+        search.stop();
+    }
+}
@@ -0,0 +1,108 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.PieceSquareTables;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Static evaluation of chess positions used by Search. Scores are in centipawns, where a pawn is
+ * worth 100, and are given from the point of view of the player whose turn it is.
+ *
+ * The evaluation is material, piece-square tables and the pawn structure, tapered between
+ * middlegame and endgame as described in PieceSquareTables. The boards keep the piece-square
+ * score up to date as they change, and the pawn structure score is taken from a PawnCache when
+ * one is given, so evaluating a position rarely looks at the pieces at all.
+ */
+public enum Evaluation {
+    ;
+
+    // Size of the pawn cache used for one batch.
+    private static final int BATCH_PAWN_ENTRIES = 1 << 10;
+
+    /**
+     * Gives the material value of a piece type. The King has no material value since it's never
+     * captured.
+     *
+     * @param type the piece type.
+     * @return the value in centipawns.
+     */
+    public static int value(final PieceType type) {
+        return PieceSquareTables.value(type);
+    }
+
+    /**
+     * Evaluates the position from the point of view of the player whose turn it is.
+     *
+     * @param board the position.
+     * @return the score in centipawns.
+     */
+    public static int evaluate(final IChessBoard board) {
+        return evaluate(board, PawnStructure.evaluate(board));
+    }
+
+    /**
+     * Same as evaluate(IChessBoard) but takes the pawn structure score from the cache.
+     *
+     * @param board the position.
+     * @param pawns cache of pawn structure scores.
+     * @return the score in centipawns.
+     */
+    public static int evaluate(final IChessBoard board, final PawnCache pawns) {
+        return evaluate(board, pawns.evaluate(board));
+    }
+
+    private static int evaluate(final IChessBoard board, final int pawnScore) {
+        final int score = PieceSquareTables.taper(board.getPieceSquareScore() + pawnScore, board.getPhase());
+        return board.getTurn() == PieceColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Evaluates many positions in one call, for analysis.
+     *
+     * @throws NullPointerException if boards, scores or any of the boards is null.
+     * @throws IllegalArgumentException if scores is shorter than boards.
+     * @param boards the positions.
+     * @param scores where the score of each board is written, at the same index.
+     */
+    public static void evaluate(final IChessBoard[] boards, final int[] scores) {
+        checkNotNull(boards, "Argument boards was null. Expected non null");
+        checkNotNull(scores, "Argument scores was null. Expected non null");
+        checkArgument(scores.length >= boards.length, "Argument scores was shorter than boards");
+        final PawnCache pawns = new PawnCache(BATCH_PAWN_ENTRIES);
+        for (int i = 0; i < boards.length; i++) {
+            scores[i] = evaluate(boards[i], pawns);
+        }
+    }
+
+    /**
+     * Evaluates the position after each of the moves, for analysis. Every move is made and taken
+     * back again, so only the pieces it moves are looked at. Scores are from the point of view of
+     * the player making the moves.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException if scores is shorter than the move list.
+     * @param board the position the moves are made in. Unchanged when the method returns.
+     * @param moves legal moves encoded as described in PackedMove.
+     * @param scores where the score after each move is written, at the same index.
+     */
+    public static void evaluate(final IChessBoard board, final MoveList moves, final int[] scores) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(moves, "Argument moves was null. Expected non null");
+        checkNotNull(scores, "Argument scores was null. Expected non null");
+        checkArgument(scores.length >= moves.size(), "Argument scores was shorter than moves");
+        final MoveUndo undo = new MoveUndo();
+        final PawnCache pawns = new PawnCache(BATCH_PAWN_ENTRIES);
+        for (int i = 0; i < moves.size(); i++) {
+            PackedMove.make(board, moves.get(i), undo);
+            scores[i] = -evaluate(board, pawns);
+            board.unmakeMove(undo);
+        }
+    }
+}
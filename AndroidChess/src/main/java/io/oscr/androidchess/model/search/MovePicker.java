@@ -0,0 +1,279 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Mutable. Meant to be reused, but by one thread at a time.
+ *
+ * Gives the moves of a position one at a time in the order a search wants to try them:
+ *
+ * 1. the move from the transposition table,
+ * 2. captures and promotions that don't lose material, most valuable victim first and then least
+ *    valuable attacker,
+ * 3. the two killer moves,
+ * 4. the rest of the quiet moves, by history,
+ * 5. captures that lose material according to StaticExchange, those losing the least first.
+ *
+ * Every stage is generated when the one before it runs out, so after a cutoff on the move from
+ * the table nothing is generated at all, and after a cutoff on a capture the quiet moves aren't.
+ * The moves are picked one at a time instead of sorted, for the same reason.
+ *
+ * The move from the table and the killer moves were found in other positions, and are only given
+ * if MovementRules#isPseudoLegal accepts them. No move is given twice. Like the moves of
+ * MovementRules#generateMoves, the moves may leave the own King in check.
+ */
+public final class MovePicker {
+    /**
+     * Given by next when there are no more moves.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The number of rows of the history table: one for every color and from square.
+     */
+    public static final int HISTORY_ROWS = 2 * 64;
+
+    // The stages, in the order they are gone through.
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int BAD_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    private final int[][] history;
+    private final MoveList captures = new MoveList();
+    private final int[] captureOrder = new int[MoveList.CAPACITY];
+    private final MoveList quiets = new MoveList();
+    private final int[] quietOrder = new int[MoveList.CAPACITY];
+
+    private IChessBoard board;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private boolean capturesOnly;
+    private int stage = DONE;
+
+    // The next capture to pick. Good captures are picked first, and the bad ones are what's left.
+    private int captureIndex;
+    private int quietIndex;
+
+    /**
+     * Creates a picker that orders quiet moves by the history table. The table is only read, so
+     * the searcher may keep changing it between positions.
+     *
+     * @throws NullPointerException if history is null.
+     * @throws IllegalArgumentException if history doesn't have HISTORY_ROWS rows.
+     * @param history counts indexed by historyIndex and then by the to square.
+     */
+    public MovePicker(final int[][] history) {
+        checkNotNull(history, "Argument history was null. Expected non null");
+        checkArgument(history.length == HISTORY_ROWS, "Argument history didn't have HISTORY_ROWS rows");
+        this.history = history;
+    }
+
+    /**
+     * Starts giving all moves of the position, in the order described above.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board the position. Must not change until the picker is reset, except for moves
+     *              that are taken back before next is invoked again.
+     * @param hashMove the move from the transposition table, or NONE.
+     * @param firstKiller the latest killer move of the ply, or NONE.
+     * @param secondKiller the killer move before that, or NONE.
+     */
+    public void reset(final IChessBoard board, final int hashMove, final int firstKiller, final int secondKiller) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.capturesOnly = false;
+        this.stage = HASH_MOVE;
+    }
+
+    /**
+     * Starts giving only the captures and promotions of the position that don't lose material,
+     * which is what a quiescence search tries.
+     *
+     * @throws NullPointerException if board is null.
+     * @param board the position, with the same restrictions as for reset.
+     */
+    public void resetCaptures(final IChessBoard board) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        this.board = board;
+        this.hashMove = NONE;
+        this.firstKiller = NONE;
+        this.secondKiller = NONE;
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * Gives the next move, generating the next stage when the current one runs out.
+     *
+     * @return the move encoded as described in PackedMove, or NONE when there are no more.
+     */
+    public int next() {
+        switch (stage) {
+            case HASH_MOVE:
+                stage = GENERATE_CAPTURES;
+                if (MovementRules.isPseudoLegal(board, hashMove)) {
+                    return hashMove;
+                }
+                // Falls through
+            case GENERATE_CAPTURES:
+                MovementRules.generateCaptures(board, captures);
+                scoreCaptures();
+                captureIndex = 0;
+                stage = GOOD_CAPTURES;
+                // Falls through
+            case GOOD_CAPTURES:
+                while (captureIndex < captures.size()) {
+                    final int move = pick(captures, captureOrder, captureIndex);
+                    // The rest lose material.
+                    if (captureOrder[captureIndex] < 0) {
+                        break;
+                    }
+                    captureIndex++;
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                if (capturesOnly) {
+                    stage = DONE;
+                    return NONE;
+                }
+                stage = FIRST_KILLER;
+                // Falls through
+            case FIRST_KILLER:
+                stage = SECOND_KILLER;
+                if (isKiller(firstKiller)) {
+                    return firstKiller;
+                }
+                // Falls through
+            case SECOND_KILLER:
+                stage = GENERATE_QUIETS;
+                if (secondKiller != firstKiller && isKiller(secondKiller)) {
+                    return secondKiller;
+                }
+                // Falls through
+            case GENERATE_QUIETS:
+                MovementRules.generateQuiets(board, quiets);
+                scoreQuiets();
+                quietIndex = 0;
+                stage = QUIETS;
+                // Falls through
+            case QUIETS:
+                while (quietIndex < quiets.size()) {
+                    final int move = pick(quiets, quietOrder, quietIndex++);
+                    if (move != hashMove && move != firstKiller && move != secondKiller) {
+                        return move;
+                    }
+                }
+                stage = BAD_CAPTURES;
+                // Falls through
+            case BAD_CAPTURES:
+                while (captureIndex < captures.size()) {
+                    final int move = pick(captures, captureOrder, captureIndex++);
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                stage = DONE;
+                // Falls through
+            default:
+                return NONE;
+        }
+    }
+
+    /**
+     * Gives the row of the history table for a move of the player of the color.
+     *
+     * @param color of the player making the move.
+     * @param move encoded as described in PackedMove.
+     * @return the row, below HISTORY_ROWS.
+     */
+    public static int historyIndex(final PieceColor color, final int move) {
+        return color.ordinal() * 64 + PackedMove.getFrom(move).getIndex();
+    }
+
+    /*
+     * A killer move is a quiet move from another position at the same ply, so it's only given if
+     * it's still a quiet move here.
+     */
+    private boolean isKiller(final int move) {
+        return move != NONE && move != hashMove && !PackedMove.isCapture(move)
+                && PackedMove.getPromotion(move) == null && MovementRules.isPseudoLegal(board, move);
+    }
+
+    /*
+     * Orders captures by most valuable victim and then least valuable attacker, and promotions by
+     * the piece promoted to. Captures that lose material according to StaticExchange get how much
+     * they lose, which is negative.
+     */
+    private void scoreCaptures() {
+        for (int i = 0; i < captures.size(); i++) {
+            final int move = captures.get(i);
+            final PieceType promotion = PackedMove.getPromotion(move);
+            int score = promotion == null ? 0 : Evaluation.value(promotion);
+            if (PackedMove.isCapture(move)) {
+                final IChessPiece victim = board.getChessPiece(PackedMove.getTo(move));
+                // The victim of en passant isn't on the to square.
+                final int victimValue = victim == null
+                        ? Evaluation.value(PieceType.PAWN)
+                        : Evaluation.value(victim.getPieceType());
+                final int attackerValue = Evaluation.value(board.getChessPiece(PackedMove.getFrom(move)).getPieceType());
+                score += 10 * victimValue - attackerValue / 10;
+
+                // Taking a piece worth at least the attacker can't lose material.
+                if (promotion == null && victimValue < attackerValue) {
+                    final int exchange = StaticExchange.see(board, move);
+                    if (exchange < 0) {
+                        score = exchange;
+                    }
+                }
+            }
+            captureOrder[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        final PieceColor color = board.getTurn();
+        for (int i = 0; i < quiets.size(); i++) {
+            final int move = quiets.get(i);
+            quietOrder[i] = history[historyIndex(color, move)][PackedMove.getTo(move).getIndex()];
+        }
+    }
+
+    /*
+     * Moves the move with the highest order among those from index i to index i and gives it.
+     */
+    private static int pick(final MoveList list, final int[] order, final int i) {
+        int best = i;
+        for (int j = i + 1; j < list.size(); j++) {
+            if (order[j] > order[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            list.swap(i, best);
+            final int score = order[i];
+            order[i] = order[best];
+            order[best] = score;
+        }
+        return list.get(i);
+    }
+}
@@ -0,0 +1,177 @@
+package io.oscr.androidchess.model.search;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.PositionHistory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Lazy SMP search. All threads search the same root position and share one TranspositionTable,
+ * which is what makes them help each other: a helper that has searched a position leaves its
+ * score and best move in the table for the others. Every thread has its own killer and history
+ * tables, and the helpers skip some of the iterations so that they are at different depths.
+ *
+ * The main search runs in the calling thread with the given limits and its move is the result.
+ * The helpers run until the main search is done. Each helper searches its own copy of the board.
+ *
+ * Not thread safe, except for stop, which may be called from any thread.
+ */
+public final class ParallelSearch {
+    /**
+     * The most threads a search may use.
+     */
+    public static final int MAX_THREADS = 64;
+
+    // The helpers are stopped by the main search, so they aren't limited themselves.
+    private static final SearchLimits HELPER_LIMITS =
+            new SearchLimits(Search.MAX_PLY, SearchLimits.UNLIMITED, SearchLimits.UNLIMITED);
+
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    /**
+     * Creates a search using the given number of threads, the calling thread included. With one
+     * thread it's the same as a Search.
+     *
+     * @throws NullPointerException if table is null.
+     * @throws IllegalArgumentException if threads isn't between 1 and MAX_THREADS.
+     * @param table where the searched positions are remembered, shared by all threads.
+     * @param threads number of threads to search with.
+     */
+    public ParallelSearch(final TranspositionTable table, final int threads) {
+        checkNotNull(table, "Argument table was null. Expected non null");
+        checkArgument(threads >= 1 && threads <= MAX_THREADS, "Argument threads was %s", threads);
+        this.table = table;
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table, i, SearchOptions.ALL);
+        }
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "Search helper " + (++count));
+                // The search must not keep the application from exiting.
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Searches for the best move of the player whose turn it is. Returns when the main search
+     * reaches one of the limits or is stopped, and the helpers have stopped too. The board is
+     * the same as before when the search returns. Every search is a new search of the table, so
+     * the entries of earlier searches are replaced first.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException if board isn't of any BoardType.
+     * @param board the position to search.
+     * @param limits when to stop.
+     * @return the move found by the main search, with the nodes of all threads.
+     */
+    public SearchResult search(final IChessBoard board, final SearchLimits limits) {
+        return search(board, new PositionHistory(), limits);
+    }
+
+    /**
+     * Same as search(IChessBoard, SearchLimits), but also scores positions that repeat those of
+     * the game as draws. Every thread continues from its own copy of the history.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException if board isn't of any BoardType.
+     * @param board the position to search.
+     * @param history the positions of the game, ending with the one on the board. Only read, and
+     *                must not change during the search.
+     * @param limits when to stop.
+     * @return the move found by the main search, with the nodes of all threads.
+     */
+    public SearchResult search(final IChessBoard board, final PositionHistory history, final SearchLimits limits) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(history, "Argument history was null. Expected non null");
+        checkNotNull(limits, "Argument limits was null. Expected non null");
+        prepare();
+        return run(board, history, limits);
+    }
+
+    /*
+     * Clears the stop flag of the main search. Done by search before it starts, or by Engine
+     * before it checks that the search is still wanted, so that a stop that comes before the
+     * search starts isn't lost.
+     */
+    void prepare() {
+        searches[0].prepare();
+    }
+
+    /*
+     * Same as search but doesn't clear the stop flag of the main search.
+     */
+    SearchResult run(final IChessBoard board, final PositionHistory history, final SearchLimits limits) {
+        // Before the helpers start, since the table must not change age during the search.
+        table.newSearch();
+        if (helpers == null) {
+            return searches[0].run(board, history, limits);
+        }
+
+        final BoardType type = BoardType.of(board);
+        final CountDownLatch done = new CountDownLatch(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            final Search helper = searches[i];
+            final IChessBoard copy = type.copy(board);
+            helper.prepare();
+            helpers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        helper.run(copy, history, HELPER_LIMITS);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        final SearchResult result;
+        try {
+            result = searches[0].run(board, history, limits);
+        } finally {
+            for (int i = 1; i < searches.length; i++) {
+                searches[i].stop();
+            }
+            Uninterruptibles.awaitUninterruptibly(done);
+        }
+
+        long nodes = result.nodes;
+        for (int i = 1; i < searches.length; i++) {
+            nodes += searches[i].getNodes();
+        }
+        return new SearchResult(result.move, result.score, result.depth, nodes);
+    }
+
+    /**
+     * Stops the search as soon as possible. May be called from any thread.
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * @return the number of threads the search uses.
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+}
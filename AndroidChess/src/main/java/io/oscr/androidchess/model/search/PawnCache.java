@@ -0,0 +1,77 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.IChessBoard;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Not thread safe. Every search thread has its own cache.
+ *
+ * Remembers the PawnStructure score of positions by their pawn key. Pawns move in few of the
+ * positions a search visits, so nearly all evaluations find the score here instead of analysing
+ * the pawns again. The cache has a fixed number of entries and an entry is simply replaced when
+ * another pawn structure needs it.
+ *
+ * @see IChessBoard#getPawnKey()
+ */
+public final class PawnCache {
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @throws IllegalArgumentException if entries isn't a power of two.
+     * @param entries number of pawn structures the cache can hold.
+     */
+    public PawnCache(final int entries) {
+        checkArgument(entries > 0 && Integer.bitCount(entries) == 1, "Argument entries was %s. Expected a power of two", entries);
+        this.keys = new long[entries];
+        this.scores = new int[entries];
+        this.mask = entries - 1;
+        // An empty entry has key 0, which is the pawn key without pawns, and score 0, which is
+        // also the right score without pawns.
+    }
+
+    /**
+     * Gives the pawn structure score of the position, from the cache if it's there.
+     *
+     * @param board the position.
+     * @return packed score as given by PawnStructure#evaluate(IChessBoard).
+     */
+    public int evaluate(final IChessBoard board) {
+        final long key = board.getPawnKey();
+        final int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key) {
+            hits++;
+            return scores[index];
+        }
+        final int score = PawnStructure.evaluate(board);
+        keys[index] = key;
+        scores[index] = score;
+        return score;
+    }
+
+    /**
+     * Gives how many times the cache was asked for a score since it was created.
+     *
+     * @return number of lookups.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Gives how many times the score was found in the cache since it was created.
+     *
+     * @return number of lookups that found the score.
+     */
+    public long getHits() {
+        return hits;
+    }
+}
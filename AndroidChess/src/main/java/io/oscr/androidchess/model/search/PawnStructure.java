@@ -0,0 +1,146 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.PieceSquareTables;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Evaluation of the pawn structure: doubled, isolated, backward and passed pawns. The score only
+ * depends on where the pawns are, so it can be cached by the pawn key of the board.
+ *
+ * Scores are packed middlegame and endgame scores as described in PieceSquareTables, positive
+ * when White's pawn structure is better.
+ *
+ * @see PawnCache
+ */
+public enum PawnStructure {
+    ;
+
+    private static final int SQUARES = 64;
+    private static final int WHITE = PieceColor.WHITE.ordinal();
+    private static final int BLACK = PieceColor.BLACK.ordinal();
+
+    // A pawn with a pawn of the same color in front of it on the same file.
+    private static final int DOUBLED = PieceSquareTables.pack(-10, -20);
+
+    // A pawn without pawns of the same color on the files next to it.
+    private static final int ISOLATED = PieceSquareTables.pack(-10, -15);
+
+    // A pawn that can't be defended by other pawns and can't advance without being taken.
+    private static final int BACKWARD = PieceSquareTables.pack(-8, -10);
+
+    // A pawn that no enemy pawn can stop, by how many rows it has advanced.
+    private static final int[] PASSED = {
+            0,
+            PieceSquareTables.pack(5, 10),
+            PieceSquareTables.pack(10, 15),
+            PieceSquareTables.pack(15, 25),
+            PieceSquareTables.pack(25, 45),
+            PieceSquareTables.pack(40, 70),
+            PieceSquareTables.pack(60, 110),
+            0};
+
+    // Indexed by file.
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    // Indexed by color ordinal and square.
+    private static final long[][] FRONT = new long[2][SQUARES];
+    private static final long[][] PASSED_SPAN = new long[2][SQUARES];
+    private static final long[][] SUPPORT_SPAN = new long[2][SQUARES];
+
+    // Where the enemy pawns attack the square from.
+    private static final long[][] ATTACKERS = new long[2][SQUARES];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? fileMask(file - 1) : 0) | (file < 7 ? fileMask(file + 1) : 0);
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            final int file = square % 8;
+            final int rank = square / 8;
+            for (int r = 0; r < 8; r++) {
+                final long row = 0xFFL << (r * 8);
+                final long adjacent = ADJACENT_FILES[file] & row;
+                final long same = fileMask(file) & row;
+                if (r > rank) {
+                    FRONT[WHITE][square] |= same;
+                    PASSED_SPAN[WHITE][square] |= same | adjacent;
+                } else {
+                    SUPPORT_SPAN[WHITE][square] |= adjacent;
+                }
+                if (r < rank) {
+                    FRONT[BLACK][square] |= same;
+                    PASSED_SPAN[BLACK][square] |= same | adjacent;
+                } else {
+                    SUPPORT_SPAN[BLACK][square] |= adjacent;
+                }
+                if (r == rank + 1) {
+                    ATTACKERS[WHITE][square] = adjacent;
+                }
+                if (r == rank - 1) {
+                    ATTACKERS[BLACK][square] = adjacent;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the pawn structure of the position on the board.
+     *
+     * @param board the position.
+     * @return packed score, positive when White's pawns are better.
+     */
+    public static int evaluate(final IChessBoard board) {
+        final long white = pawns(board, PieceColor.WHITE);
+        final long black = pawns(board, PieceColor.BLACK);
+        return evaluate(white, black, WHITE) - evaluate(black, white, BLACK);
+    }
+
+    /*
+     * Sums the terms for the pawns of one color, as a positive score.
+     */
+    private static int evaluate(final long own, final long enemy, final int color) {
+        int score = 0;
+        for (long remaining = own; remaining != 0; remaining &= remaining - 1) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            final int file = square % 8;
+            final boolean doubled = (own & FRONT[color][square]) != 0;
+
+            if (doubled) {
+                score += DOUBLED;
+            }
+            if ((own & ADJACENT_FILES[file]) == 0) {
+                score += ISOLATED;
+            } else if ((own & SUPPORT_SPAN[color][square]) == 0) {
+                // Backward if the enemy pawns guard the square in front of it.
+                final int stop = color == WHITE ? square + 8 : square - 8;
+                if ((enemy & ATTACKERS[color][stop]) != 0) {
+                    score += BACKWARD;
+                }
+            }
+            if (!doubled && (enemy & PASSED_SPAN[color][square]) == 0) {
+                score += PASSED[color == WHITE ? square / 8 : 7 - square / 8];
+            }
+        }
+        return score;
+    }
+
+    private static long pawns(final IChessBoard board, final PieceColor color) {
+        long pawns = 0;
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            final BoardPosition position = board.getPiecePosition(color, i);
+            final IChessPiece piece = board.getChessPiece(position);
+            if (piece.getPieceType() == PieceType.PAWN) {
+                pawns |= 1L << position.getIndex();
+            }
+        }
+        return pawns;
+    }
+
+    private static long fileMask(final int file) {
+        return 0x0101010101010101L << file;
+    }
+}
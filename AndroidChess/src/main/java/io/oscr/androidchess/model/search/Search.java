@@ -0,0 +1,644 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.PositionHistory;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Mutable. Meant to be reused, but by one thread at a time.
+ *
+ * Finds the best move in a position with a principal variation alpha-beta search. The search is
+ * repeated with increasing depth until the SearchLimits are reached, and the result of the deepest
+ * completed iteration is given. The transposition table remembers the best move of every position
+ * between iterations, which makes the earlier iterations order the moves of the later ones.
+ *
+ * At the end of every line captures and promotions are searched until the position is quiet, so
+ * that a capture that loses the piece back isn't scored as a win. Captures that lose material in
+ * the static exchange on their square are left out there.
+ *
+ * The search is selective: null-move pruning, late-move reductions, futility pruning and
+ * aspiration windows make it search far fewer nodes to the same depth. Each of them can be turned
+ * off with SearchOptions, to measure what it gives.
+ *
+ * The moves of every position are given in stages by a MovePicker. Quiet moves are ordered by
+ * killer moves, quiet moves that caused a cutoff at the same ply, and then by a history of how
+ * often a move caused cutoffs anywhere. Both tables belong to the search, so searches running in
+ * parallel with a shared table order their moves differently.
+ *
+ * A position that repeats one from earlier in the line or in the game, or that comes after fifty
+ * moves by each player without a capture or pawn move, is scored as a draw. The positions are
+ * kept in a PositionHistory continuing the game's.
+ *
+ * All move pickers, undo records and the pawn cache are allocated when the search is created. The
+ * board is changed while searching and is back in its original state when search returns.
+ *
+ * @see ParallelSearch for searching with several threads.
+ */
+public final class Search {
+    /**
+     * Score of being checkmated at the root. A mate found n plies from the root scores MATE - n.
+     */
+    public static final int MATE = 30000;
+
+    /**
+     * The deepest line the search will follow, including captures at the end of lines.
+     */
+    public static final int MAX_PLY = 64;
+
+    private static final int INFINITY = MATE + 1;
+
+    // Scores at least this high are mates. Those are stored relative to the position in the table.
+    private static final int MATE_BOUND = MATE - MAX_PLY;
+
+    // The limits are checked every this many nodes. Must be a power of two minus one.
+    private static final int CHECK_INTERVAL = 1023;
+
+    // History is kept below this by halving it.
+    private static final int HISTORY_MAX = 1 << 14;
+
+    // Null-move pruning is tried from this depth, and searches the null move this much shallower.
+    private static final int NULL_MOVE_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int DEEP_NULL_MOVE_REDUCTION = 3;
+    private static final int DEEP_NULL_MOVE_DEPTH = 7;
+
+    // Quiet moves are reduced from this depth, after this many moves have been searched.
+    private static final int REDUCTION_DEPTH = 3;
+    private static final int REDUCTION_MOVES = 3;
+
+    // What a quiet move can at most be expected to gain, indexed by the depth left.
+    private static final int[] FUTILITY_MARGIN = {0, 200, 350};
+
+    // The first aspiration window is this far on either side of the last score.
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_DEPTH = 4;
+
+    // 4096 entries take 48 kB.
+    private static final int PAWN_CACHE_ENTRIES = 1 << 12;
+
+    /*
+     * Helper searches skip some depths of the iterative deepening so that the threads search
+     * different depths at the same time. Helper i skips depth d if
+     * ((d + SKIP_PHASE[i]) / SKIP_SIZE[i]) is odd, with i counted modulo the table length.
+     */
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final TranspositionTable table;
+    private final SearchOptions options;
+
+    // 0 for the main search, otherwise which helper this is.
+    private final int helper;
+
+    // One of each per ply.
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final MoveUndo[] undo = new MoveUndo[MAX_PLY + 1];
+
+    // The en passant state a null move clears, and if the move to the ply was a null move.
+    private final BoardPosition[] nullEnPassant = new BoardPosition[MAX_PLY + 1];
+    private final BoardPosition[] nullEnPassantPawn = new BoardPosition[MAX_PLY + 1];
+    private final boolean[] afterNullMove = new boolean[MAX_PLY + 1];
+
+    // The positions of the game and of the line being searched.
+    private final PositionHistory positions = new PositionHistory();
+
+    // The legal moves at the root.
+    private final MoveList rootMoves = new MoveList();
+
+    // Used when checking if a castle is legal.
+    private final MoveUndo check = new MoveUndo();
+
+    // Two killer moves per ply, and history indexed by MovePicker#historyIndex and to.
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[MovePicker.HISTORY_ROWS][64];
+
+    // Pawn structure scores, kept between searches since the pawns change slowly.
+    private final PawnCache pawns = new PawnCache(PAWN_CACHE_ENTRIES);
+
+    private IChessBoard board;
+    private long nodes;
+    private long maxNodes;
+    private boolean timed;
+    private long deadline;
+    private volatile boolean stopped;
+
+    // Best move of the current iteration at the root.
+    private int rootMove;
+
+    /**
+     * Creates a search that shares the transposition table.
+     *
+     * @throws NullPointerException if table is null.
+     * @param table where positions are remembered. May be shared with other searches.
+     */
+    public Search(final TranspositionTable table) {
+        this(table, SearchOptions.ALL);
+    }
+
+    /**
+     * Creates a search that shares the transposition table and only uses some of the selective
+     * techniques, for measuring them.
+     *
+     * @throws NullPointerException if table or options is null.
+     * @param table where positions are remembered. May be shared with other searches.
+     * @param options the techniques to use.
+     */
+    public Search(final TranspositionTable table, final SearchOptions options) {
+        this(table, 0, options);
+    }
+
+    /**
+     * Creates a search that shares the transposition table. Used by ParallelSearch, where every
+     * helper skips a different set of depths.
+     *
+     * @throws NullPointerException if table or options is null.
+     * @param table where positions are remembered. Shared with the other searches.
+     * @param helper 0 for a search that doesn't skip any depth, otherwise the helper number.
+     * @param options the techniques to use.
+     */
+    Search(final TranspositionTable table, final int helper, final SearchOptions options) {
+        checkNotNull(table, "Argument table was null. Expected non null");
+        checkNotNull(options, "Argument options was null. Expected non null");
+        this.table = table;
+        this.options = options;
+        this.helper = helper;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(history);
+            undo[ply] = new MoveUndo();
+        }
+    }
+
+    /**
+     * Searches for the best move of the player whose turn it is. Blocks until a limit is reached,
+     * the position is solved or stop is invoked from another thread.
+     *
+     * @throws NullPointerException if board or limits is null.
+     * @param board the position. Changed during the search but restored before returning.
+     * @param limits when to stop.
+     * @return the best move found.
+     */
+    public SearchResult search(final IChessBoard board, final SearchLimits limits) {
+        prepare();
+        return run(board, null, limits);
+    }
+
+    /**
+     * Same as search(IChessBoard, SearchLimits), but also scores positions that repeat those of
+     * the game as draws.
+     *
+     * @throws NullPointerException if any argument is null.
+     * @param board the position. Changed during the search but restored before returning.
+     * @param history the positions of the game, ending with the one on the board. Only read, and
+     *                must not change during the search.
+     * @param limits when to stop.
+     * @return the best move found.
+     */
+    public SearchResult search(final IChessBoard board, final PositionHistory history, final SearchLimits limits) {
+        checkNotNull(history, "Argument history was null. Expected non null");
+        prepare();
+        return run(board, history, limits);
+    }
+
+    /*
+     * Clears the stop flag. Done by search before it starts, or by ParallelSearch before it hands
+     * the search to a helper thread, so that a stop that comes before the helper starts isn't lost.
+     */
+    void prepare() {
+        stopped = false;
+    }
+
+    /*
+     * Same as search but doesn't clear the stop flag. The game history may be null.
+     */
+    SearchResult run(final IChessBoard board, final PositionHistory game, final SearchLimits limits) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(limits, "Argument limits was null. Expected non null");
+        this.board = board;
+        if (game == null) {
+            positions.clear();
+        } else {
+            positions.copyFrom(game, MAX_PLY + 1);
+        }
+        // A history that doesn't end with the position on the board is from another game.
+        if (positions.size() == 0 || positions.getKey() != board.getKey()) {
+            positions.clear();
+            positions.push(board.getKey(), true);
+        }
+        this.nodes = 0;
+        this.maxNodes = limits.maxNodes;
+        final long start = System.nanoTime();
+        this.timed = limits.maxMillis != SearchLimits.UNLIMITED;
+        this.deadline = start + limits.maxMillis * 1000000;
+        for (int[] killer : killers) {
+            killer[0] = 0;
+            killer[1] = 0;
+        }
+        // What caused cutoffs in the last position is still useful, but less so.
+        for (int[] counts : history) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] /= 2;
+            }
+        }
+
+        // Without a legal move there is nothing to search.
+        MovementRules.generateLegalMoves(board, rootMoves, check);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(0, MovementRules.isCheck(board, board.getTurn()) ? -MATE : 0, 0, 0);
+        }
+
+        afterNullMove[0] = false;
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completed = 0;
+        for (int depth = 1; depth <= limits.maxDepth; depth++) {
+            if (isSkipped(helper, depth)) {
+                continue;
+            }
+            rootMove = 0;
+            final int score = aspiration(depth, bestScore);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootMove;
+            bestScore = score;
+            completed = depth;
+
+            // A found mate can't get better, and another iteration likely doesn't finish in time.
+            if (Math.abs(score) >= MATE_BOUND || (timed && (System.nanoTime() - start) / 1000000 > limits.maxMillis / 2)) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completed, nodes);
+    }
+
+    /**
+     * Makes a running search return as soon as possible. May be invoked from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Gives the number of positions visited by the last or running search. Only exact when read
+     * by the searching thread or after the search has returned.
+     *
+     * @return number of positions.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /*
+     * Searches the root to depth with a window around the score of the last iteration, widening
+     * it on the side the score falls outside of until the score is inside. Mate scores and the
+     * first iterations, whose scores jump, are searched with the full window.
+     */
+    private int aspiration(final int depth, final int lastScore) {
+        if (!options.aspirationWindows || depth < ASPIRATION_DEPTH || Math.abs(lastScore) >= MATE_BOUND) {
+            return search(depth, 0, -INFINITY, INFINITY);
+        }
+        int window = ASPIRATION_WINDOW;
+        int alpha = lastScore - window;
+        int beta = lastScore + window;
+        while (true) {
+            final int score = search(depth, 0, alpha, beta);
+            if (stopped || (score > alpha && score < beta)) {
+                return score;
+            }
+            window *= 2;
+            if (score <= alpha) {
+                alpha = Math.max(score - window, -INFINITY);
+            } else {
+                beta = Math.min(score + window, INFINITY);
+            }
+        }
+    }
+
+    /**
+     * Checks if the search with the helper number skips the iteration to depth. The main search,
+     * number 0, never skips, and helpers with different numbers skip different depths, up to as
+     * many helpers as there are patterns.
+     *
+     * @param helper the number of the search, 0 for the main search.
+     * @param depth the depth of the iteration.
+     * @return true if the iteration is skipped, otherwise false.
+     */
+    public static boolean isSkipped(final int helper, final int depth) {
+        if (helper == 0) {
+            return false;
+        }
+        final int i = (helper - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    /*
+     * Alpha-beta search of the current position to depth. The first move is searched with the full
+     * window, the rest with a null window to prove they are worse, and only those that aren't are
+     * searched again with the full window.
+     */
+    private int search(int depth, final int ply, int alpha, final int beta) {
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(board, pawns);
+        }
+        // Checked before the table, whose scores don't depend on how the position was reached.
+        if (ply > 0 && (positions.isRepetition() || positions.isFiftyMoveRule())) {
+            return 0;
+        }
+
+        final long key = board.getKey();
+        int hashMove = 0;
+        final long entry = table.probe(key);
+        if (entry != TranspositionTable.NOT_FOUND) {
+            hashMove = TranspositionTable.getMove(entry);
+            // At the root the move is needed, and in the principal variation the exact score.
+            if (ply > 0 && beta - alpha == 1 && TranspositionTable.getDepth(entry) >= depth) {
+                final int score = fromTable(TranspositionTable.getScore(entry), ply);
+                final int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        final boolean inCheck = MovementRules.isCheck(board, board.getTurn());
+        // Searching checks one ply deeper keeps a line from ending right after a check.
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (count()) {
+            return 0;
+        }
+
+        // Only null window searches, outside the principal variation, are pruned.
+        final boolean pruning = ply > 0 && beta - alpha == 1 && !inCheck;
+        final int staticEval = pruning ? Evaluation.evaluate(board, pawns) : 0;
+
+        if (pruning && options.nullMove && depth >= NULL_MOVE_DEPTH && !afterNullMove[ply]
+                && staticEval >= beta && Math.abs(beta) < MATE_BOUND && hasPieces(board.getTurn())) {
+            final int reduction = depth >= DEEP_NULL_MOVE_DEPTH ? DEEP_NULL_MOVE_REDUCTION : NULL_MOVE_REDUCTION;
+            makeNullMove(ply);
+            final int score = -search(depth - 1 - reduction, ply + 1, -beta, -beta + 1);
+            unmakeNullMove(ply);
+            if (stopped) {
+                return 0;
+            }
+            // A mate found after passing isn't proven, since passing isn't a move.
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        final boolean futile = pruning && options.futilityPruning && depth < FUTILITY_MARGIN.length
+                && staticEval + FUTILITY_MARGIN[depth] <= alpha;
+
+        final MovePicker picker = pickers[ply];
+        picker.reset(board, hashMove, killers[ply][0], killers[ply][1]);
+
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        int legal = 0;
+        int move;
+        while ((move = picker.next()) != MovePicker.NONE) {
+            if (!makeLegal(move, ply)) {
+                continue;
+            }
+            legal++;
+            afterNullMove[ply + 1] = false;
+
+            // Only quiet moves that don't give check are pruned or reduced.
+            final boolean late = legal > 1 && (futile || (options.lateMoveReductions && !inCheck
+                    && depth >= REDUCTION_DEPTH && legal > REDUCTION_MOVES));
+            final boolean quiet = late && !PackedMove.isCapture(move) && PackedMove.getPromotion(move) == null
+                    && move != hashMove && move != killers[ply][0] && move != killers[ply][1]
+                    && !MovementRules.isCheck(board, board.getTurn());
+
+            // A quiet move can't lift the score above alpha. Counts as searched, so it's no stalemate.
+            if (futile && quiet) {
+                board.unmakeMove(undo[ply]);
+                bestScore = Math.max(bestScore, staticEval + FUTILITY_MARGIN[depth]);
+                continue;
+            }
+            positions.push(board.getKey(), isIrreversible(move));
+
+            int score;
+            if (legal == 1) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                int reduction = 0;
+                if (quiet) {
+                    reduction = legal > 2 * REDUCTION_MOVES + 3 && depth > REDUCTION_DEPTH + 2 ? 2 : 1;
+                }
+                score = -search(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+                // A reduced move that looks better than expected is searched again to full depth.
+                if (reduction > 0 && score > alpha) {
+                    score = -search(depth - 1, ply + 1, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            positions.pop();
+            board.unmakeMove(undo[ply]);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!PackedMove.isCapture(move) && PackedMove.getPromotion(move) == null) {
+                            rememberCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        final int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /*
+     * Searches only captures and promotions until the position is quiet. The player to move may
+     * also choose to capture nothing, so the static evaluation is a lower bound of the score.
+     */
+    private int quiescence(final int ply, int alpha, final int beta) {
+        if (count()) {
+            return 0;
+        }
+        final int standPat = Evaluation.evaluate(board, pawns);
+        if (ply >= MAX_PLY || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        final MovePicker picker = pickers[ply];
+        picker.resetCaptures(board);
+
+        int bestScore = standPat;
+        int move;
+        while ((move = picker.next()) != MovePicker.NONE) {
+            if (!makeLegal(move, ply)) {
+                continue;
+            }
+            final int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(undo[ply]);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /*
+     * Counts a node and checks the limits. Returns true if the search should stop.
+     */
+    private boolean count() {
+        nodes++;
+        if (nodes >= maxNodes || (timed && (nodes & CHECK_INTERVAL) == 0 && System.nanoTime() - deadline > 0)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /*
+     * Makes the move if it's legal. Returns false, with the board unchanged, if it isn't.
+     */
+    private boolean makeLegal(final int move, final int ply) {
+        // A castle must also not start in or pass through check, which is more than where the King ends up.
+        if (PackedMove.isCastle(move) && !MovementRules.isLegalMove(board, move, check)) {
+            return false;
+        }
+        final PieceColor color = board.getTurn();
+        PackedMove.make(board, move, undo[ply]);
+        if (MovementRules.isCheck(board, color)) {
+            board.unmakeMove(undo[ply]);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Passes the move to the opponent. Only the turn and the en passant state change, both of which
+     * the board keeps in the key.
+     */
+    private void makeNullMove(final int ply) {
+        nullEnPassant[ply] = board.getEnPassant();
+        nullEnPassantPawn[ply] = board.getEnPassantPawn();
+        board.setEnPassant(null, null);
+        board.switchTurn();
+        afterNullMove[ply + 1] = true;
+        // Passing isn't a move, so no position before it counts as repeated.
+        positions.push(board.getKey(), true);
+    }
+
+    private void unmakeNullMove(final int ply) {
+        positions.pop();
+        board.switchTurn();
+        board.setEnPassant(nullEnPassant[ply], nullEnPassantPawn[ply]);
+    }
+
+    /*
+     * Checks if the move that was just made was a capture or a pawn move.
+     */
+    private boolean isIrreversible(final int move) {
+        return PackedMove.isCapture(move) || PackedMove.getPromotion(move) != null
+                || board.getChessPiece(PackedMove.getTo(move)).getPieceType() == PieceType.PAWN;
+    }
+
+    /*
+     * Checks if the player has a piece other than pawns and the King. Without one, passing may be
+     * the only move that doesn't make the position worse, so a null move proves nothing.
+     */
+    private boolean hasPieces(final PieceColor color) {
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+            final PieceType type = board.getChessPiece(board.getPiecePosition(color, i)).getPieceType();
+            if (type != PieceType.PAWN && type != PieceType.KING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Remembers a quiet move that caused a cutoff as a killer of the ply and in the history.
+     */
+    private void rememberCutoff(final int move, final int depth, final int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        final int[] counts = history[MovePicker.historyIndex(board.getTurn(), move)];
+        final int to = PackedMove.getTo(move).getIndex();
+        counts[to] += depth * depth;
+        if (counts[to] >= HISTORY_MAX) {
+            for (int[] c : history) {
+                for (int i = 0; i < c.length; i++) {
+                    c[i] /= 2;
+                }
+            }
+        }
+    }
+
+    /*
+     * Mate scores are stored as the distance from the stored position instead of from the root,
+     * since the position may be reached at another ply later.
+     */
+    private static int toTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        } else if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        } else if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,68 @@
+package io.oscr.androidchess.model.search;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Immutable. Marked as final.
+ *
+ * How much a Search may do before it has to give its best move: a maximum depth, a time budget and
+ * a node budget. The search stops at whichever limit is reached first.
+ */
+public final class SearchLimits {
+    /**
+     * Used for a limit that isn't set.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    public final int maxDepth;
+    public final long maxMillis;
+    public final long maxNodes;
+
+    /**
+     * Creates the limits.
+     *
+     * @throws IllegalArgumentException if any of the arguments isn't positive.
+     * @param maxDepth deepest iteration to search, at most Search.MAX_PLY.
+     * @param maxMillis time budget in milliseconds, or UNLIMITED.
+     * @param maxNodes node budget, or UNLIMITED.
+     */
+    public SearchLimits(final int maxDepth, final long maxMillis, final long maxNodes) {
+        checkArgument(maxDepth > 0 && maxDepth <= Search.MAX_PLY, "Argument maxDepth was %s", maxDepth);
+        checkArgument(maxMillis > 0, "Argument maxMillis was %s", maxMillis);
+        checkArgument(maxNodes > 0, "Argument maxNodes was %s", maxNodes);
+        this.maxDepth = maxDepth;
+        this.maxMillis = maxMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Limits the search to the given time.
+     *
+     * @param millis time budget in milliseconds.
+     * @return the limits.
+     */
+    public static SearchLimits time(final long millis) {
+        return new SearchLimits(Search.MAX_PLY, millis, UNLIMITED);
+    }
+
+    /**
+     * Limits the search to the given number of nodes. Gives the same move every time for the same
+     * position, which time limits don't.
+     *
+     * @param nodes node budget.
+     * @return the limits.
+     */
+    public static SearchLimits nodes(final long nodes) {
+        return new SearchLimits(Search.MAX_PLY, UNLIMITED, nodes);
+    }
+
+    /**
+     * Limits the search to the given depth.
+     *
+     * @param depth deepest iteration to search.
+     * @return the limits.
+     */
+    public static SearchLimits depth(final int depth) {
+        return new SearchLimits(depth, UNLIMITED, UNLIMITED);
+    }
+}
@@ -0,0 +1,60 @@
+package io.oscr.androidchess.model.search;
+
+/**
+ * Immutable. Marked as final.
+ *
+ * Which of the selective techniques a Search uses. Every technique searches fewer nodes to the
+ * same depth at the risk of missing something, so they can be turned off one at a time to
+ * measure what each of them gives.
+ */
+public final class SearchOptions {
+    /**
+     * Everything on, which is what the engine uses.
+     */
+    public static final SearchOptions ALL = new SearchOptions(true, true, true, true);
+
+    /**
+     * Everything off, a plain alpha-beta search.
+     */
+    public static final SearchOptions NONE = new SearchOptions(false, false, false, false);
+
+    /**
+     * Passing the move to the opponent and searching shallower. If the position is still too good
+     * for the opponent to allow, the real moves don't need to be searched.
+     */
+    public final boolean nullMove;
+
+    /**
+     * Searching quiet moves late in the move order shallower, and only to full depth again if
+     * they turn out better than expected.
+     */
+    public final boolean lateMoveReductions;
+
+    /**
+     * Skipping quiet moves right before the quiescence search when the position is so bad that
+     * not even a good quiet move would make up for it.
+     */
+    public final boolean futilityPruning;
+
+    /**
+     * Searching every iteration with a narrow window around the score of the last one, and again
+     * with a wider window only if the score falls outside it.
+     */
+    public final boolean aspirationWindows;
+
+    /**
+     * Creates the options.
+     *
+     * @param nullMove if null-move pruning is used.
+     * @param lateMoveReductions if late-move reductions are used.
+     * @param futilityPruning if futility pruning is used.
+     * @param aspirationWindows if aspiration windows are used.
+     */
+    public SearchOptions(final boolean nullMove, final boolean lateMoveReductions, final boolean futilityPruning,
+                         final boolean aspirationWindows) {
+        this.nullMove = nullMove;
+        this.lateMoveReductions = lateMoveReductions;
+        this.futilityPruning = futilityPruning;
+        this.aspirationWindows = aspirationWindows;
+    }
+}
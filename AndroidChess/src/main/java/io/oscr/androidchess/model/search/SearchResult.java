@@ -0,0 +1,44 @@
+package io.oscr.androidchess.model.search;
+
+/**
+ * Immutable. Marked as final.
+ *
+ * What a Search found: the best move, its score and how much work it took.
+ */
+public final class SearchResult {
+    /**
+     * The best move encoded as described in PackedMove, or 0 if there is no legal move.
+     */
+    public final int move;
+
+    /**
+     * Score of the best move in centipawns from the point of view of the player to move. Mate
+     * scores are close to Search.MATE.
+     */
+    public final int score;
+
+    /**
+     * The deepest iteration that was completed.
+     */
+    public final int depth;
+
+    /**
+     * Number of positions visited.
+     */
+    public final long nodes;
+
+    /**
+     * Creates a result.
+     *
+     * @param move the best move or 0.
+     * @param score score of the best move.
+     * @param depth deepest completed iteration.
+     * @param nodes number of positions visited.
+     */
+    public SearchResult(final int move, final int score, final int depth, final long nodes) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+}
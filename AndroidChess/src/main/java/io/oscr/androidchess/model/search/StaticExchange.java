@@ -0,0 +1,129 @@
+package io.oscr.androidchess.model.search;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Static exchange evaluation. Works out what a capture wins or loses when both players keep
+ * capturing on the square with their least valuable piece, and may stop capturing whenever that
+ * is better for them. The board isn't changed: the attackers are found with
+ * MovementRules#getAttackers, ignoring the pieces that have already captured, which also finds
+ * the pieces attacking through them.
+ *
+ * Only the pieces attacking the square count, so pins, checks and promotions after the first move
+ * are not seen. That is good enough for ordering captures and for skipping those that lose
+ * material.
+ */
+public enum StaticExchange {
+    ;
+
+    // More than all other pieces together, so that the King never captures a defended piece.
+    private static final int KING_VALUE = 10000;
+
+    /**
+     * Gives the material the player making the move wins when the capture sequence it starts on
+     * the to square is played out. A quiet move gives how much the moved piece loses if it can be
+     * taken.
+     *
+     * @throws NullPointerException if board is null or there is no piece on the from square.
+     * @param board the position.
+     * @param move encoded as described in PackedMove.
+     * @return the material won in centipawns, negative if material is lost.
+     */
+    public static int see(final IChessBoard board, final int move) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        final BoardPosition from = PackedMove.getFrom(move);
+        final BoardPosition to = PackedMove.getTo(move);
+        final IChessPiece moved = board.getChessPiece(from);
+        checkNotNull(moved, "Piece was null. Excepted not null");
+
+        long used = 1L << from.getIndex();
+        int captured = 0;
+        if (PackedMove.isEnPassant(move)) {
+            captured = Evaluation.value(PieceType.PAWN);
+            used |= 1L << board.getEnPassantPawn().getIndex();
+        } else if (board.getChessPiece(to) != null) {
+            captured = value(board.getChessPiece(to).getPieceType());
+        }
+        int onSquare = value(moved.getPieceType());
+        final PieceType promotion = PackedMove.getPromotion(move);
+        if (promotion != null) {
+            captured += Evaluation.value(promotion) - Evaluation.value(PieceType.PAWN);
+            onSquare = Evaluation.value(promotion);
+        }
+        return captured - exchange(board, to, used, onSquare, PieceColor.switchTurn(moved.getPieceColor()));
+    }
+
+    /**
+     * Checks if the opponent of the piece on the position wins material by capturing it, which
+     * makes it a hint about a hanging piece.
+     *
+     * @throws NullPointerException if board or position is null.
+     * @param board the position.
+     * @param position where the piece is.
+     * @return true if capturing the piece wins material, false if it doesn't or there is no piece.
+     */
+    public static boolean isHanging(final IChessBoard board, final BoardPosition position) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkNotNull(position, "Argument position was null. Expected non null");
+        final IChessPiece piece = board.getChessPiece(position);
+        if (piece == null || piece.getPieceType() == PieceType.KING) {
+            return false;
+        }
+        final PieceColor opponent = PieceColor.switchTurn(piece.getPieceColor());
+        final long attackers = MovementRules.getAttackers(board, position, 0);
+        final int attacker = leastValuable(board, attackers, opponent);
+        if (attacker < 0) {
+            return false;
+        }
+        final int onSquare = value(board.getChessPiece(BoardPosition.of(attacker)).getPieceType());
+        return value(piece.getPieceType()) - exchange(board, position, 1L << attacker, onSquare, piece.getPieceColor()) > 0;
+    }
+
+    /*
+     * Gives what side wins by capturing the piece worth onSquare on the square, with the pieces on
+     * used already gone, if it captures at all. Capturing with the least valuable piece is best
+     * and side only captures if it wins more than the opponent wins back, so the result is never
+     * negative. The recursion is at most as deep as there are pieces.
+     */
+    private static int exchange(final IChessBoard board, final BoardPosition square, final long used,
+                                final int onSquare, final PieceColor side) {
+        final int attacker = leastValuable(board, MovementRules.getAttackers(board, square, used), side);
+        if (attacker < 0) {
+            return 0;
+        }
+        final int value = value(board.getChessPiece(BoardPosition.of(attacker)).getPieceType());
+        return Math.max(0, onSquare - exchange(board, square, used | 1L << attacker, value, PieceColor.switchTurn(side)));
+    }
+
+    /*
+     * Gives the square of the least valuable piece of the color among the attackers, or -1.
+     */
+    private static int leastValuable(final IChessBoard board, final long attackers, final PieceColor color) {
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+        for (long remaining = attackers; remaining != 0; remaining &= remaining - 1) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            final IChessPiece piece = board.getChessPiece(BoardPosition.of(square));
+            if (piece.getPieceColor() == color) {
+                final int value = value(piece.getPieceType());
+                if (value < bestValue) {
+                    best = square;
+                    bestValue = value;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int value(final PieceType type) {
+        return type == PieceType.KING ? KING_VALUE : Evaluation.value(type);
+    }
+}
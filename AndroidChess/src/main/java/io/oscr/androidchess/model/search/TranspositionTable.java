@@ -0,0 +1,255 @@
+package io.oscr.androidchess.model.search;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Thread safe without locks. Meant to be shared by all search threads.
+ *
+ * Remembers what a search found out about positions, keyed by the Zobrist key of IChessBoard:
+ * the best move, the score, the depth it was searched to and if the score is exact or a bound.
+ * The table has a fixed size set in megabytes when it's created and is stored in one long array,
+ * so it creates no objects while searching.
+ *
+ * Every entry is two longs, the data and the key xor the data. Threads read and write the two
+ * longs without synchronization, which means an entry may be read while another thread has
+ * written only one of them. Such a torn entry is detected when the stored key xor the data
+ * doesn't give the probed key, and it's then treated as a miss.
+ *
+ * Entries are grouped in buckets of four that share a cache line. A position may be stored in
+ * any entry of its bucket. When the bucket is full the entry with the lowest depth is replaced,
+ * where entries from earlier searches count as less deep the older they are. newSearch should
+ * therefore be invoked before every search.
+ *
+ * The data of an entry is a long that is read with the static getters, for example
+ * getMove(entry). Scores are stored as given, so mate scores should be made relative to the
+ * position before they are stored.
+ *
+ * @see io.oscr.androidchess.model.IChessBoard#getKey()
+ */
+public final class TranspositionTable {
+    /**
+     * The score is exact.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The score is a lower bound, the search failed high.
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The score is an upper bound, the search failed low.
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * Returned by probe when the position isn't in the table. No stored entry is 0 since the bound
+     * is never 0.
+     */
+    public static final long NOT_FOUND = 0;
+
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * 8;
+
+    // Depth an entry loses for every search it's older than the current one when replacing.
+    private static final int AGE_PENALTY = 8;
+
+    /*
+     * Layout of the data long: move in bits 0-18 (PackedMove needs 19 bits), score in bits 19-34
+     * as a signed 16 bit value, depth in bits 35-42, bound in bits 43-44 and age in bits 45-52.
+     */
+    private static final long MOVE_MASK = (1L << 19) - 1;
+    private static final int SCORE_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 35;
+    private static final int BOUND_SHIFT = 43;
+    private static final int AGE_SHIFT = 45;
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The highest depth that can be stored. Deeper searches are stored with this depth.
+     */
+    public static final int MAX_DEPTH = BYTE_MASK;
+
+    private final long[] table;
+    private final int bucketMask;
+
+    // Changed by newSearch. Read by all threads, written only between searches.
+    private volatile int age;
+
+    /**
+     * Creates an empty table that uses at most the given number of megabytes. The number of
+     * entries is the largest power of two that fits.
+     *
+     * @throws IllegalArgumentException if megabytes isn't between 1 and 1024.
+     * @param megabytes size of the table.
+     */
+    public TranspositionTable(final int megabytes) {
+        checkArgument(megabytes >= 1 && megabytes <= 1024, "Argument megabytes was %s. Expected 1 to 1024", megabytes);
+        final long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BYTES_PER_ENTRY * BUCKET_ENTRIES));
+        table = new long[(int) buckets * BUCKET_ENTRIES * LONGS_PER_ENTRY];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the Zobrist key of the position.
+     * @return the entry data or NOT_FOUND if the position isn't in the table.
+     */
+    public long probe(final long key) {
+        final int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + BUCKET_ENTRIES * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != NOT_FOUND) {
+                return data;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores what a search found out about a position. An entry for the same position is kept if
+     * it's from the current search, deeper and the new score isn't exact. Otherwise the least
+     * valuable entry of the bucket is replaced.
+     *
+     * @throws IllegalArgumentException if bound isn't EXACT, LOWER or UPPER.
+     * @param key the Zobrist key of the position.
+     * @param move the best move encoded as described in PackedMove, or 0 if not known. When 0 the
+     *             move of an existing entry for the position is kept.
+     * @param score the score of the position, between Short.MIN_VALUE and Short.MAX_VALUE.
+     * @param depth what depth the position was searched to. Limited to MAX_DEPTH.
+     * @param bound EXACT, LOWER or UPPER.
+     */
+    public void store(final long key, int move, final int score, final int depth, final int bound) {
+        if (bound < EXACT || bound > UPPER) {
+            throw new IllegalArgumentException("Argument bound was " + bound + ". Expected EXACT, LOWER or UPPER");
+        }
+        final int currentAge = age;
+        final int bucket = bucketIndex(key);
+
+        int replace = bucket;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_ENTRIES * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != NOT_FOUND) {
+                if (getAge(data) == currentAge && getDepth(data) > depth && bound != EXACT) {
+                    return;
+                }
+                if (move == 0) {
+                    move = getMove(data);
+                }
+                replace = i;
+                break;
+            }
+
+            final int value = data == NOT_FOUND ? Integer.MIN_VALUE : getDepth(data) - AGE_PENALTY * ((currentAge - getAge(data)) & BYTE_MASK);
+            if (value < lowest) {
+                lowest = value;
+                replace = i;
+            }
+        }
+
+        final long data = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF)) << SCORE_SHIFT
+                | ((long) Math.min(Math.max(depth, 0), MAX_DEPTH)) << DEPTH_SHIFT
+                | ((long) bound) << BOUND_SHIFT
+                | ((long) currentAge) << AGE_SHIFT;
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search. Entries stored by earlier searches are then replaced before
+     * those of the new search.
+     */
+    public void newSearch() {
+        age = (age + 1) & BYTE_MASK;
+    }
+
+    /**
+     * Removes all entries. Must not be invoked while a search uses the table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        age = 0;
+    }
+
+    /**
+     * Gives the number of entries in the table.
+     *
+     * @return number of entries.
+     */
+    public int capacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Gives how many per thousand of the first thousand entries are used by the current search.
+     * A cheap estimate of how full the table is.
+     *
+     * @return used entries per thousand.
+     */
+    public int hashfull() {
+        final int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if (data != NOT_FOUND && getAge(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    /**
+     * Gives the best move of an entry.
+     *
+     * @param entry data returned by probe.
+     * @return the move encoded as described in PackedMove, or 0 if not known.
+     */
+    public static int getMove(final long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    /**
+     * Gives the score of an entry.
+     *
+     * @param entry data returned by probe.
+     * @return the score.
+     */
+    public static int getScore(final long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    /**
+     * Gives the depth the position of an entry was searched to.
+     *
+     * @param entry data returned by probe.
+     * @return the depth.
+     */
+    public static int getDepth(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & BYTE_MASK;
+    }
+
+    /**
+     * Gives if the score of an entry is exact or a bound.
+     *
+     * @param entry data returned by probe.
+     * @return EXACT, LOWER or UPPER.
+     */
+    public static int getBound(final long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getAge(final long entry) {
+        return (int) (entry >>> AGE_SHIFT) & BYTE_MASK;
+    }
+
+    private int bucketIndex(final long key) {
+        // The high bits select the bucket, so the low bits of the key still tell entries apart.
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_ENTRIES * LONGS_PER_ENTRY;
+    }
+}
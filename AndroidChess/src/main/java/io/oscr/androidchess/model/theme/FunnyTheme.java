@@ -15,6 +15,11 @@ public class FunnyTheme implements IChessTheme {
      */
     private final ColorDrawable selectedColor = new ColorDrawable(Color.YELLOW);
 
+    /**
+     * Color for the legal targets of the selected BoardPosition.
+     */
+    private final ColorDrawable legalTargetColor = new ColorDrawable(Color.BLUE);
+
     /**
      * Color for odd squares.
      */
@@ -33,6 +38,14 @@ public class FunnyTheme implements IChessTheme {
         return selectedColor;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ColorDrawable getLegalTargetSquare() {
+        return legalTargetColor;
+    }
+
     /**
      * {@inheritDoc}
      */
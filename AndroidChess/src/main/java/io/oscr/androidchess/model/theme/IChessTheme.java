@@ -7,9 +7,9 @@ import io.oscr.androidchess.model.pieces.IChessPiece;
 /**
  * Specifies the functionality of color themes.
  *
- * These are a type of configuration objects that keep the colors for the chess board, color for
- * the selected board position and name of image resources for chess pieces. Thus allowing the
- * ChessModel to change color theme in a simple way.
+ * These are a type of configuration objects that keep the colors for the chess board, colors for
+ * the selected board position and its legal targets and name of image resources for chess pieces.
+ * Thus allowing the ChessModel to change color theme in a simple way.
  */
 public interface IChessTheme {
 
@@ -20,6 +20,13 @@ public interface IChessTheme {
      */
     public ColorDrawable getSelectedSquare();
 
+    /**
+     * Gives the color for the squares the piece on the selected square can legally move to.
+     *
+     * @return ColorDrawable for the legal targets of the selected BoardPosition.
+     */
+    public ColorDrawable getLegalTargetSquare();
+
     /**
      * Gives the color for odd squares. Provides one of the two chessboard colors.
      *
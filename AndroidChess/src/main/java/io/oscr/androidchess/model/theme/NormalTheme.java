@@ -15,6 +15,11 @@ public class NormalTheme implements IChessTheme {
      */
     private final ColorDrawable selectedColor = new ColorDrawable(Color.YELLOW);
 
+    /**
+     * Color for the legal targets of the selected BoardPosition.
+     */
+    private final ColorDrawable legalTargetColor = new ColorDrawable(Color.CYAN);
+
     /**
      * Color for odd squares.
      */
@@ -33,6 +38,14 @@ public class NormalTheme implements IChessTheme {
 		return selectedColor;
 	}
 
+    /**
+     * {@inheritDoc}
+     */
+	@Override
+	public ColorDrawable getLegalTargetSquare() {
+		return legalTargetColor;
+	}
+
     /**
      * {@inheritDoc}
      */
@@ -1,6 +1,7 @@
 package io.oscr.androidchess.utils;
 
 import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.Move;
 import io.oscr.androidchess.model.pieces.PieceColor;
 
 /**
@@ -18,6 +19,9 @@ public enum Constants {
 
     public static final int BOARD_SIZE = 8;
 
+    // The most pieces one color can have on the board.
+    public static final int MAX_PIECES = 16;
+
     // Defines home row for pawns
 	public static final int WHITE_HOME_ROW = 1;
 	public static final int BLACK_HOME_ROW = 6;
@@ -31,6 +35,9 @@ public enum Constants {
 
     // Move delta for Bishops
     public static final int[][] BISHOP_MOVE_DELTA = {{-1, 1},{1, -1},{1, 1},{-1, -1}};
+
+    // Move delta for Knights
+    public static final int[][] KNIGHT_MOVE_DELTA = {{-1, 2},{1, 2},{-2, 1},{-2, -1},{-1, -2},{1, -2},{2, 1},{2, -1}};
 	
 	// Needed for Pawn promotion
 	public static final int WHITE_PAWN_LAST_RANK = 7;
@@ -38,36 +45,42 @@ public enum Constants {
 	
     // Needed for implementing the castle rule
 	// Constants for Black castle
-	public static final BoardPosition BLACK_KING_START = new BoardPosition("E8");
-    public static final BoardPosition B_KINGSIDE_KING = new BoardPosition("G8");
-    public static final BoardPosition B_QUEENSIDE_KING = new BoardPosition("C8");
-    public static final BoardPosition B_KINGSIDE_ROOK_END = new BoardPosition("F8");
-    public static final BoardPosition B_QUEENSIDE_ROOK_END = new BoardPosition("D8");
-    public static final BoardPosition B_KINGSIDE_ROOK_START = new BoardPosition("H8");
-    public static final BoardPosition B_QUEENSIDE_ROOK_START = new BoardPosition("A8");
+	public static final BoardPosition BLACK_KING_START = BoardPosition.of("E8");
+    public static final BoardPosition B_KINGSIDE_KING = BoardPosition.of("G8");
+    public static final BoardPosition B_QUEENSIDE_KING = BoardPosition.of("C8");
+    public static final BoardPosition B_KINGSIDE_ROOK_END = BoardPosition.of("F8");
+    public static final BoardPosition B_QUEENSIDE_ROOK_END = BoardPosition.of("D8");
+    public static final BoardPosition B_KINGSIDE_ROOK_START = BoardPosition.of("H8");
+    public static final BoardPosition B_QUEENSIDE_ROOK_START = BoardPosition.of("A8");
 
-    public static final BoardPosition B_KINGSIDE_SECOND_EMPTY = new BoardPosition("G8");
-    public static final BoardPosition B_KINGSIDE_FIRST_EMPTY = new BoardPosition("F8");
+    public static final BoardPosition B_KINGSIDE_SECOND_EMPTY = BoardPosition.of("G8");
+    public static final BoardPosition B_KINGSIDE_FIRST_EMPTY = BoardPosition.of("F8");
     
-    public static final BoardPosition B_QUEENSIDE_FIRST_EMPTY = new BoardPosition("B8");
-    public static final BoardPosition B_QUEENSIDE_SECOND_EMPTY = new BoardPosition("C8");
-    public static final BoardPosition B_QUEENSIDE_THIRD_EMPTY = new BoardPosition("D8");
+    public static final BoardPosition B_QUEENSIDE_FIRST_EMPTY = BoardPosition.of("B8");
+    public static final BoardPosition B_QUEENSIDE_SECOND_EMPTY = BoardPosition.of("C8");
+    public static final BoardPosition B_QUEENSIDE_THIRD_EMPTY = BoardPosition.of("D8");
     
     // Constants for White castle
-    public static final BoardPosition W_KINGSIDE_FIRST_EMPTY = new BoardPosition("G1");
-    public static final BoardPosition W_KINGSIDE_SECOND_EMPTY = new BoardPosition("F1");
+    public static final BoardPosition W_KINGSIDE_FIRST_EMPTY = BoardPosition.of("G1");
+    public static final BoardPosition W_KINGSIDE_SECOND_EMPTY = BoardPosition.of("F1");
     
-    public static final BoardPosition W_QUEENSIDE_FIRST_EMPTY = new BoardPosition("B1");
-    public static final BoardPosition W_QUEENSIDE_SECOND_EMPTY = new BoardPosition("C1");
-    public static final BoardPosition W_QUEENSIDE_THIRD_EMPTY = new BoardPosition("D1");
+    public static final BoardPosition W_QUEENSIDE_FIRST_EMPTY = BoardPosition.of("B1");
+    public static final BoardPosition W_QUEENSIDE_SECOND_EMPTY = BoardPosition.of("C1");
+    public static final BoardPosition W_QUEENSIDE_THIRD_EMPTY = BoardPosition.of("D1");
     
-    public static final BoardPosition WHITE_KING_START = new BoardPosition("E1");
-    public static final BoardPosition W_KINGSIDE_KING = new BoardPosition("G1");
-    public static final BoardPosition W_QUEENSIDE_KING = new BoardPosition("C1");
-    public static final BoardPosition W_KINGSIDE_ROOK_END = new BoardPosition("F1");
-    public static final BoardPosition W_QUEENSIDE_ROOK_END = new BoardPosition("D1");
-    public static final BoardPosition W_KINGSIDE_ROOK_START = new BoardPosition("H1");
-    public static final BoardPosition W_QUEENSIDE_ROOK_START = new BoardPosition("A1");
+    public static final BoardPosition WHITE_KING_START = BoardPosition.of("E1");
+    public static final BoardPosition W_KINGSIDE_KING = BoardPosition.of("G1");
+    public static final BoardPosition W_QUEENSIDE_KING = BoardPosition.of("C1");
+    public static final BoardPosition W_KINGSIDE_ROOK_END = BoardPosition.of("F1");
+    public static final BoardPosition W_QUEENSIDE_ROOK_END = BoardPosition.of("D1");
+    public static final BoardPosition W_KINGSIDE_ROOK_START = BoardPosition.of("H1");
+    public static final BoardPosition W_QUEENSIDE_ROOK_START = BoardPosition.of("A1");
+
+    // The Rook moves performed as part of each castle
+    public static final Move W_KINGSIDE_ROOK_MOVE = new Move(W_KINGSIDE_ROOK_START, W_KINGSIDE_ROOK_END);
+    public static final Move W_QUEENSIDE_ROOK_MOVE = new Move(W_QUEENSIDE_ROOK_START, W_QUEENSIDE_ROOK_END);
+    public static final Move B_KINGSIDE_ROOK_MOVE = new Move(B_KINGSIDE_ROOK_START, B_KINGSIDE_ROOK_END);
+    public static final Move B_QUEENSIDE_ROOK_MOVE = new Move(B_QUEENSIDE_ROOK_START, B_QUEENSIDE_ROOK_END);
 
     /**
      * Returns the home row for a pawn. This is needed when determining if the pawn has moved before
@@ -0,0 +1,84 @@
+package io.oscr.androidchess.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.utils.Constants;
+
+/**
+ * Measures obtaining BoardPositions and using them as hash keys. Every benchmark goes through all
+ * 64 squares, so the reported time is for 64 operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardPositionBenchmark {
+    private final BoardPosition[] positions = new BoardPosition[Constants.BOARD_SIZE * Constants.BOARD_SIZE];
+    private final String[] names = new String[positions.length];
+    private final Set<BoardPosition> set = new HashSet<BoardPosition>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = BoardPosition.of(i % Constants.BOARD_SIZE, i / Constants.BOARD_SIZE);
+            names[i] = positions[i].toString();
+            // Half of the squares, so that lookups both hit and miss.
+            if (i % 2 == 0) {
+                set.add(positions[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void createFromFileAndRank(Blackhole blackhole) {
+        for (int file = 0; file < Constants.BOARD_SIZE; file++) {
+            for (int rank = 0; rank < Constants.BOARD_SIZE; rank++) {
+                blackhole.consume(BoardPosition.of(file, rank));
+            }
+        }
+    }
+
+    @Benchmark
+    public void createFromString(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(BoardPosition.of(name));
+        }
+    }
+
+    @Benchmark
+    public int hashCodes() {
+        int hash = 0;
+        for (BoardPosition position : positions) {
+            hash += position.hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int setContains() {
+        int found = 0;
+        for (BoardPosition position : positions) {
+            if (set.contains(position)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
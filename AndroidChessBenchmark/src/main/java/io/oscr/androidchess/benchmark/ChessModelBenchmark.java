@@ -0,0 +1,90 @@
+package io.oscr.androidchess.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+
+/**
+ * Measures the work ChessModel does once after every move to work out the game status: finding
+ * out if the player to move is in check, filling the table of legal moves, which also tells if
+ * the player has any, and checking for insufficient material. getDisplayInformation only reads
+ * the result, so it costs nothing by itself.
+ *
+ * In check most moves are rejected by trying them on the board, which makes these the expensive
+ * cases.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessModelBenchmark {
+    /**
+     * The games played to reach the measured positions, as pairs of from and to positions.
+     */
+    public enum Game {
+        /**
+         * Black is in check from the Queen on H5 but can block it.
+         */
+        CHECK("E2", "E4", "F7", "F5", "D1", "H5"),
+
+        /**
+         * Fool's mate. White is checkmate.
+         */
+        CHECKMATE("F2", "F3", "E7", "E5", "G2", "G4", "D8", "H4");
+
+        private final String[] positions;
+
+        Game(String... positions) {
+            this.positions = positions;
+        }
+    }
+
+    @Param({"CHECK", "CHECKMATE"})
+    public Game game;
+
+    @Param({"ARRAY", "BITBOARD"})
+    public BoardType boardType;
+
+    private IChessBoard board;
+    private final long[] legalTargets = new long[64];
+    private final MoveUndo undo = new MoveUndo();
+
+    @Setup
+    public void setUp() {
+        board = boardType.create();
+        for (int i = 0; i < game.positions.length; i += 2) {
+            board.makeMove(BoardPosition.of(game.positions[i]), BoardPosition.of(game.positions[i + 1]), null,
+                    new MoveUndo());
+        }
+    }
+
+    /*
+     * The same calls as ChessModel#updateStatus, without the position history, which only
+     * compares a few keys.
+     */
+    @Benchmark
+    public int updateStatus() {
+        final boolean inCheck = MovementRules.isCheck(board, board.getTurn());
+        final boolean hasLegalMove = MovementRules.generateLegalTargets(board, legalTargets, undo);
+        final boolean insufficient = MovementRules.isInsufficientMaterial(board);
+        return (inCheck ? 1 : 0) | (hasLegalMove ? 2 : 0) | (insufficient ? 4 : 0);
+    }
+}
@@ -0,0 +1,58 @@
+package io.oscr.androidchess.benchmark;
+
+import android.graphics.drawable.ColorDrawable;
+
+import io.oscr.androidchess.model.pieces.IChessPiece;
+import io.oscr.androidchess.model.pieces.PieceColor;
+import io.oscr.androidchess.model.theme.IChessTheme;
+
+/**
+ * Color theme without colors. The Android stub jar throws when a ColorDrawable is created, so
+ * a ChessModel that runs on the plain JVM has to use this theme.
+ */
+public class HeadlessTheme implements IChessTheme {
+
+    /**
+     * Always null.
+     */
+    @Override
+    public ColorDrawable getSelectedSquare() {
+        return null;
+    }
+
+    /**
+     * Always null.
+     */
+    @Override
+    public ColorDrawable getLegalTargetSquare() {
+        return null;
+    }
+
+    /**
+     * Always null.
+     */
+    @Override
+    public ColorDrawable getOddSquare() {
+        return null;
+    }
+
+    /**
+     * Always null.
+     */
+    @Override
+    public ColorDrawable getEvenSquare() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getPieceString(IChessPiece chessPiece) {
+        if (chessPiece == null) {
+            return null;
+        }
+        String colorPrefix = chessPiece.getPieceColor() == PieceColor.WHITE ? "w" : "b";
+        return colorPrefix + chessPiece.getPieceType().name().toLowerCase();
+    }
+}
@@ -0,0 +1,77 @@
+package io.oscr.androidchess.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardPosition;
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.pieces.PieceType;
+
+/**
+ * Measures MovementRules#getLegalMoves for each piece type. The White piece of the type is taken
+ * from the middlegame position, where every piece type has several moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementRulesBenchmark {
+    @Param({"PAWN", "ROOK", "KNIGHT", "BISHOP", "QUEEN", "KING"})
+    public PieceType pieceType;
+
+    @Param({"ARRAY", "BITBOARD"})
+    public BoardType boardType;
+
+    private IChessBoard board;
+    private BoardPosition from;
+
+    @Setup
+    public void setUp() {
+        board = boardType.create(new Fen(Positions.MIDDLEGAME));
+        from = BoardPosition.of(getSquare(pieceType));
+    }
+
+    @Benchmark
+    public Set<BoardPosition> getLegalMoves() {
+        return MovementRules.getLegalMoves(from, board);
+    }
+
+    /*
+     * Gives the square of a White piece of the type in the middlegame position.
+     */
+    private static String getSquare(PieceType type) {
+        switch (type) {
+            case PAWN:
+                return "D5";
+            case ROOK:
+                return "A1";
+            case KNIGHT:
+                return "E5";
+            case BISHOP:
+                return "E2";
+            case QUEEN:
+                return "F3";
+            case KING:
+                return "E1";
+            default:
+                throw new IllegalArgumentException("Unknown piece type: " + type);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package io.oscr.androidchess.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.MoveList;
+import io.oscr.androidchess.model.MoveUndo;
+import io.oscr.androidchess.model.MovementRules;
+import io.oscr.androidchess.model.PackedMove;
+import io.oscr.androidchess.model.perft.Perft;
+import io.oscr.androidchess.model.perft.PerftCache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Perft that counts on all cores, for depths that take too long with Perft. The first plies of
+ * the tree are split into ForkJoinPool tasks, one for each legal move, and below them every task
+ * counts with a sequential Perft on its own copy of the board. The counts are summed in a
+ * LongAdder, so the result is exactly the same as Perft's. With a PerftCache all tasks share the
+ * cache, so a subtree counted by one task is found by the others.
+ *
+ * Lives in the benchmark module since ForkJoinPool and LongAdder aren't available on the Android
+ * versions the app supports.
+ */
+public final class ParallelPerft {
+    private final ForkJoinPool pool;
+    private final int splitPlies;
+
+    // Null when counting without a cache.
+    private final PerftCache cache;
+    private final LongAdder cacheProbes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * Creates a parallel perft counter.
+     *
+     * @throws NullPointerException if pool is null.
+     * @throws IllegalArgumentException if splitPlies is smaller than 1.
+     * @param pool runs the tasks.
+     * @param splitPlies number of plies from the root that are split into tasks.
+     */
+    public ParallelPerft(final ForkJoinPool pool, final int splitPlies) {
+        checkNotNull(pool, "Argument pool was null. Expected non null");
+        checkArgument(splitPlies >= 1, "Argument splitPlies was smaller than 1: %s", splitPlies);
+        this.pool = pool;
+        this.splitPlies = splitPlies;
+        this.cache = null;
+    }
+
+    /**
+     * Creates a parallel perft counter whose tasks share a cache.
+     *
+     * @throws NullPointerException if pool or cache is null.
+     * @throws IllegalArgumentException if splitPlies is smaller than 1.
+     * @param pool runs the tasks.
+     * @param splitPlies number of plies from the root that are split into tasks.
+     * @param cache where counts are remembered.
+     */
+    public ParallelPerft(final ForkJoinPool pool, final int splitPlies, final PerftCache cache) {
+        checkNotNull(pool, "Argument pool was null. Expected non null");
+        checkArgument(splitPlies >= 1, "Argument splitPlies was smaller than 1: %s", splitPlies);
+        checkNotNull(cache, "Argument cache was null. Expected non null");
+        this.pool = pool;
+        this.splitPlies = splitPlies;
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the number of leaf nodes depth moves from the position on the board. The board
+     * itself isn't changed.
+     *
+     * @throws NullPointerException if board is null.
+     * @throws IllegalArgumentException if depth is negative or board isn't of any BoardType.
+     * @param board position to count from.
+     * @param depth number of moves to look ahead.
+     * @return number of leaf nodes.
+     */
+    public long perft(final IChessBoard board, final int depth) {
+        checkNotNull(board, "Argument board was null. Expected non null");
+        checkArgument(depth >= 0, "Argument depth was negative: %s", depth);
+        final BoardType type = BoardType.of(board);
+        final LongAdder nodes = new LongAdder();
+        cacheProbes.reset();
+        cacheHits.reset();
+        pool.invoke(new Count(type, type.copy(board), depth, splitPlies, nodes));
+        return nodes.sum();
+    }
+
+    /**
+     * Gives how many times the last count looked for a position in the cache.
+     *
+     * @return number of lookups, 0 without a cache.
+     */
+    public long getCacheProbes() {
+        return cacheProbes.sum();
+    }
+
+    /**
+     * Gives how many times the last count found a position in the cache.
+     *
+     * @return number of lookups that found the count.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /*
+     * Counts the leaf nodes below the board, which only this task uses.
+     */
+    private final class Count extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BoardType type;
+        private final IChessBoard board;
+        private final int depth;
+        private final int splitPlies;
+        private final LongAdder nodes;
+
+        Count(final BoardType type, final IChessBoard board, final int depth, final int splitPlies,
+              final LongAdder nodes) {
+            this.type = type;
+            this.board = board;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            // Splitting the last plies costs more than it gains, the sequential count is fast.
+            if (splitPlies == 0 || depth <= 2) {
+                if (cache == null) {
+                    nodes.add(new Perft(board).perft(depth));
+                } else {
+                    final Perft perft = new Perft(board, cache);
+                    nodes.add(perft.perft(depth));
+                    cacheProbes.add(perft.getCacheProbes());
+                    cacheHits.add(perft.getCacheHits());
+                }
+                return;
+            }
+
+            final MoveList moves = new MoveList();
+            MovementRules.generateLegalMoves(board, moves, new MoveUndo());
+            final List<Count> tasks = new ArrayList<Count>(moves.size());
+            final MoveUndo undo = new MoveUndo();
+            for (int i = 0; i < moves.size(); i++) {
+                final IChessBoard child = type.copy(board);
+                PackedMove.make(child, moves.get(i), undo);
+                tasks.add(new Count(type, child, depth - 1, splitPlies - 1, nodes));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * Headless parallel perft runner. Prints the node count, the time it took and the number of
+     * nodes per second. With -hash counts are remembered in a shared cache of the given number of
+     * megabytes, and the cache hit rate is printed. With -verify the count is compared with a
+     * sequential Perft without cache, and the runner exits with status 1 if they differ.
+     *
+     * Usage: ParallelPerft [-bitboard] [-threads n] [-split n] [-hash megabytes] [-verify] depth [fen]
+     *
+     * Without a fen the count starts from the normal starting position. By default all cores are
+     * used and two plies are split.
+     *
+     * @param args command line arguments as described above.
+     */
+    public static void main(final String[] args) {
+        BoardType type = BoardType.ARRAY;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int split = 2;
+        int megabytes = 0;
+        boolean verify = false;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            if (args[i].equals("-bitboard")) {
+                type = BoardType.BITBOARD;
+            } else if (args[i].equals("-threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-split") && i + 1 < args.length) {
+                split = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-hash") && i + 1 < args.length) {
+                megabytes = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-verify")) {
+                verify = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (i >= args.length) {
+            System.err.println("Usage: ParallelPerft [-bitboard] [-threads n] [-split n] [-hash megabytes] [-verify] depth [fen]");
+            return;
+        }
+
+        final int depth = Integer.parseInt(args[i++]);
+        final StringBuilder fen = new StringBuilder();
+        for (; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final IChessBoard board = fen.length() == 0 ? type.create() : type.create(new Fen(fen.toString()));
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        final long start = System.nanoTime();
+        final ParallelPerft perft = megabytes == 0
+                ? new ParallelPerft(pool, split) : new ParallelPerft(pool, split, new PerftCache(megabytes));
+        final long nodes = perft.perft(board, depth);
+        final long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+        pool.shutdown();
+
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Threads: " + threads);
+        System.out.println("Time: " + millis + " ms");
+        System.out.println("Nodes per second: " + nodes * 1000 / millis);
+        if (megabytes != 0) {
+            System.out.println(Perft.cacheStatistics(perft.getCacheHits(), perft.getCacheProbes()));
+        }
+
+        if (verify) {
+            final long expected = new Perft(board).perft(depth);
+            System.out.println("Sequential nodes: " + expected);
+            if (expected != nodes) {
+                System.err.println("Parallel count differs from sequential count");
+                System.exit(1);
+            }
+        }
+    }
+}
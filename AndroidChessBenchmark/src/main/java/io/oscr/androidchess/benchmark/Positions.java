@@ -0,0 +1,25 @@
+package io.oscr.androidchess.benchmark;
+
+/**
+ * Positions shared by the benchmarks, written in FEN.
+ */
+final class Positions {
+    /**
+     * Middlegame position with every piece type able to move, also known as "Kiwipete".
+     */
+    static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * Positions for measuring the search, from the opening to the endgame.
+     */
+    static final String[] SEARCH = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            MIDDLEGAME,
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 8",
+            "2r2rk1/1bqnbppp/p2ppn2/1p6/3NP3/1BN1BP2/PPPQ2PP/2KR3R w - - 0 13",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1"};
+
+    private Positions() {
+    }
+}
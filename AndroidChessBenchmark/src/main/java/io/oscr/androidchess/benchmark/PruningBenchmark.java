@@ -0,0 +1,113 @@
+package io.oscr.androidchess.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.search.Search;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.SearchOptions;
+import io.oscr.androidchess.model.search.TranspositionTable;
+
+/**
+ * Measures what each selective technique of Search gives by searching the positions in
+ * Positions.SEARCH to a fixed depth, every one with an empty table. Every operation is one pass
+ * over all positions, so the average time is the time to depth for the set and the nodes counter
+ * the number of nodes searched in one pass.
+ *
+ * The options parameter is "all", "none", the name of one technique for only that one, or "-" and
+ * the name for all but that one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PruningBenchmark {
+    @Param({"all", "none",
+            "nullMove", "lateMoveReductions", "futilityPruning", "aspirationWindows",
+            "-nullMove", "-lateMoveReductions", "-futilityPruning", "-aspirationWindows"})
+    public String options;
+
+    @Param({"6"})
+    public int depth;
+
+    private static final int TABLE_MEGABYTES = 16;
+    private static final String[] TECHNIQUES = {"nullMove", "lateMoveReductions", "futilityPruning", "aspirationWindows"};
+
+    private IChessBoard[] boards;
+    private TranspositionTable table;
+    private Search search;
+    private SearchLimits limits;
+
+    /**
+     * Nodes searched in one pass, reported by JMH next to the primary result. The count is the
+     * same for every pass, so it's set rather than summed over the iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup
+    public void setUp() {
+        boards = new IChessBoard[Positions.SEARCH.length];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = BoardType.BITBOARD.create(new Fen(Positions.SEARCH[i]));
+        }
+        table = new TranspositionTable(TABLE_MEGABYTES);
+        search = new Search(table, parse(options));
+        limits = SearchLimits.depth(depth);
+    }
+
+    @Benchmark
+    public long searchToDepth(Nodes counter) {
+        long nodes = 0;
+        for (IChessBoard board : boards) {
+            // Every position starts from an empty table, otherwise the next shot mostly reads this one's results.
+            table.clear();
+            nodes += search.search(board, limits).nodes;
+        }
+        counter.nodes = nodes;
+        return nodes;
+    }
+
+    /*
+     * Gives the SearchOptions the parameter stands for.
+     */
+    private static SearchOptions parse(final String options) {
+        if (options.equals("all")) {
+            return SearchOptions.ALL;
+        } else if (options.equals("none")) {
+            return SearchOptions.NONE;
+        }
+        final boolean allBut = options.startsWith("-");
+        final String name = allBut ? options.substring(1) : options;
+        final boolean[] on = new boolean[TECHNIQUES.length];
+        boolean found = false;
+        for (int i = 0; i < TECHNIQUES.length; i++) {
+            on[i] = TECHNIQUES[i].equals(name) != allBut;
+            found |= TECHNIQUES[i].equals(name);
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Unknown options: " + options);
+        }
+        return new SearchOptions(on[0], on[1], on[2], on[3]);
+    }
+}
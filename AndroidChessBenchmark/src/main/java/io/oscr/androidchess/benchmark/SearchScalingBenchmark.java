@@ -0,0 +1,89 @@
+package io.oscr.androidchess.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.oscr.androidchess.model.BoardType;
+import io.oscr.androidchess.model.Fen;
+import io.oscr.androidchess.model.IChessBoard;
+import io.oscr.androidchess.model.search.ParallelSearch;
+import io.oscr.androidchess.model.search.SearchLimits;
+import io.oscr.androidchess.model.search.TranspositionTable;
+
+/**
+ * Measures how ParallelSearch scales with the number of threads by searching the middlegame
+ * position to a fixed depth. The average time is the time to depth, and the nodes counter in the
+ * throughput mode is the number of nodes per second of all threads together.
+ *
+ * The table is cleared before every iteration instead of every search, since sweeping 64 MB would
+ * take a large part of the measured time. The searches after the first in an iteration find the
+ * entries of the earlier ones, like an engine does from move to move, and that is the same for
+ * every number of threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchScalingBenchmark {
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"6"})
+    public int depth;
+
+    private static final int TABLE_MEGABYTES = 64;
+
+    private IChessBoard board;
+    private TranspositionTable table;
+    private ParallelSearch search;
+    private SearchLimits limits;
+
+    /**
+     * Nodes searched, reported by JMH next to the primary result.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        board = BoardType.BITBOARD.create(new Fen(Positions.MIDDLEGAME));
+        table = new TranspositionTable(TABLE_MEGABYTES);
+        search = new ParallelSearch(table, threads);
+        limits = SearchLimits.depth(depth);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public int searchToDepth(Nodes counter) {
+        final long nodes = search.search(board, limits).nodes;
+        counter.nodes += nodes;
+        return (int) nodes;
+    }
+}